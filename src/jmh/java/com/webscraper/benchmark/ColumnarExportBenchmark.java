@@ -0,0 +1,150 @@
+package com.webscraper.benchmark;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.ColumnarColumn;
+import com.webscraper.util.ColumnarExporter;
+import com.webscraper.util.ColumnarFilter;
+import com.webscraper.util.ColumnarReader;
+import com.webscraper.util.JsonExportFormat;
+import com.webscraper.util.JsonExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writing and reading back 100k and 1M synthetic listings as the pretty-printed JSON export and as the columnar
+ * export, plus a filtered price summary over each. File sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ColumnarExportBenchmark {
+
+    private static final String[] WEBSITES = {"MercadoMaquinas", "TratoresEColheitadeiras", "Agrofy"};
+    private static final String[] MAKES = {"John Deere", "Case", "New Holland", "Massey Ferguson", "Valtra",
+            "Caterpillar", "Jacto", "Stara"};
+    private static final String[] CITIES = {"Rio Verde, GO", "Sorriso, MT", "Cascavel, PR", "Uberlândia, MG",
+            "Passo Fundo, RS", "Patos de Minas - MG", "Chapecó, SC", "Dourados, MS", "Luís Eduardo Magalhães, BA"};
+
+    @Param({"100000", "1000000"})
+    public int itemCount;
+
+    private final JsonExporter jsonExporter = new JsonExporter();
+    private final ColumnarExporter columnarExporter = new ColumnarExporter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<MachineryItem> items;
+    private Path directory;
+    private Path jsonFile;
+    private Path columnarFile;
+    private ColumnarFilter recentJohnDeere;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            String make = MAKES[random.nextInt(MAKES.length)];
+            // Websites are scraped in turn, so their listings arrive mostly together.
+            String website = WEBSITES[Math.min(WEBSITES.length - 1, i * WEBSITES.length / itemCount)];
+            items.add(new MachineryItem(make + " " + (1000 + random.nextInt(9000)), "Sale", make,
+                    String.valueOf(1995 + random.nextInt(30)), random.nextInt(20000) + " h",
+                    CITIES[random.nextInt(CITIES.length)],
+                    CompactMachineryItem.formatPrice((30_000 + random.nextInt(2_000_000)) * 100L),
+                    "https://img.example.com/" + website.toLowerCase() + "/" + i + ".jpg", website,
+                    random.nextInt(5) == 0 ? "Sold" : "Active"));
+        }
+        recentJohnDeere = ColumnarFilter.all().where(ColumnarColumn.MAKE, "John Deere")
+                .atLeast(ColumnarColumn.YEAR, 2020);
+        directory = Files.createTempDirectory("columnar-benchmark");
+        jsonFile = directory.resolve("read.json");
+        columnarFile = directory.resolve("read.mcol");
+        jsonExporter.export(items, jsonFile.toString(), JsonExportFormat.JSON);
+        columnarExporter.export(items, columnarFile.toString());
+        System.out.printf("%n%d items: JSON %,d bytes, columnar %,d bytes%n", itemCount, Files.size(jsonFile),
+                Files.size(columnarFile));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean writeJson() {
+        return jsonExporter.export(items, directory.resolve("write.json").toString(), JsonExportFormat.JSON);
+    }
+
+    @Benchmark
+    public boolean writeColumnar() {
+        return columnarExporter.export(items, directory.resolve("write.mcol").toString());
+    }
+
+    @Benchmark
+    public List<MachineryItem> readJson() throws IOException {
+        try (MappingIterator<MachineryItem> iterator = objectMapper.readerFor(MachineryItem.class)
+                .readValues(jsonFile.toFile())) {
+            return iterator.readAll();
+        }
+    }
+
+    @Benchmark
+    public List<MachineryItem> readColumnar() throws IOException {
+        try (ColumnarReader reader = ColumnarReader.open(columnarFile)) {
+            return reader.readAll();
+        }
+    }
+
+    @Benchmark
+    public LongSummaryStatistics summarizeJson() throws IOException {
+        LongSummaryStatistics statistics = new LongSummaryStatistics();
+        try (MappingIterator<MachineryItem> iterator = objectMapper.readerFor(MachineryItem.class)
+                .readValues(jsonFile.toFile())) {
+            while (iterator.hasNext()) {
+                MachineryItem item = iterator.next();
+                if ("John Deere".equalsIgnoreCase(item.getMake())
+                        && CompactMachineryItem.parseDigits(item.getYear()) >= 2020) {
+                    long price = CompactMachineryItem.parsePriceCents(item.getPrice());
+                    if (price != CompactMachineryItem.NO_VALUE) {
+                        statistics.accept(price);
+                    }
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @Benchmark
+    public LongSummaryStatistics summarizeColumnar() throws IOException {
+        try (ColumnarReader reader = ColumnarReader.open(columnarFile)) {
+            return reader.summarize(recentJohnDeere, ColumnarColumn.PRICE);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.dedupe.ListingDeduplicator;
+import com.webscraper.dedupe.NearDuplicateDetector;
+import com.webscraper.model.MachineryItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to run 100k and 1M listings through the near-duplicate detector. About 30% of the listings are copies
+ * of an earlier one as another website would show it: a slightly different price, city format and model spacing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DedupeBenchmark {
+
+    private static final String[] WEBSITES = {"MercadoMaquinas", "TratoresEColheitadeiras", "MachineMarket"};
+    private static final String[] MAKES = {"John Deere", "Case", "New Holland", "Massey Ferguson", "Valtra",
+            "Caterpillar", "Jacto", "Stara"};
+    private static final String[] CITIES = {"Rio Verde", "Sorriso", "Cascavel", "Uberlândia", "Passo Fundo",
+            "Lucas do Rio Verde", "Chapecó", "Dourados", "Luís Eduardo Magalhães", "Campo Mourão"};
+    private static final String[] STATES = {"GO", "MT", "PR", "MG", "RS", "MT", "SC", "MS", "BA", "PR"};
+
+    @Param({"100000", "1000000"})
+    public int itemCount;
+
+    private final ListingDeduplicator deduplicator = new ListingDeduplicator(12, 4, 0.6);
+    private MachineryItem[] items;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        items = new MachineryItem[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            items[i] = i > 0 && random.nextInt(10) < 3
+                    ? copy(items[random.nextInt(i)], random)
+                    : listing(i, random);
+        }
+    }
+
+    @Benchmark
+    public int detect() {
+        NearDuplicateDetector detector = deduplicator.newDetector();
+        int duplicates = 0;
+        for (int i = 0; i < items.length; i++) {
+            if (detector.add(items[i]) != i) {
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
+    private static MachineryItem listing(int i, Random random) {
+        String make = MAKES[random.nextInt(MAKES.length)];
+        int city = random.nextInt(CITIES.length);
+        String model = (char) ('A' + random.nextInt(26)) + " " + (1000 + random.nextInt(9000))
+                + (random.nextBoolean() ? "" : String.valueOf((char) ('A' + random.nextInt(26))));
+        return new MachineryItem(make + " " + model, "Sale", make, String.valueOf(1995 + random.nextInt(30)),
+                String.valueOf(random.nextInt(20000)), CITIES[city] + ", " + STATES[city],
+                "R$ " + (30_000 + random.nextInt(2_000_000)) + ",00",
+                "https://img.example.com/listings/" + i + ".jpg", WEBSITES[random.nextInt(WEBSITES.length)],
+                "Active");
+    }
+
+    private static MachineryItem copy(MachineryItem original, Random random) {
+        long price = Long.parseLong(original.getPrice().replaceAll(",00$|\\D", ""));
+        long changed = price + price * (random.nextInt(5) - 2) / 100;
+        String city = original.getCity().replace(", ", " - ");
+        String photo = random.nextBoolean() ? original.getPhotoUrl()
+                : "https://cdn.example.org/photos/" + random.nextInt(Integer.MAX_VALUE) + ".jpg";
+        return new MachineryItem(original.getModel().replaceFirst(" (\\d)", "$1"), original.getContractType(),
+                original.getMake().toUpperCase(), original.getYear(), original.getWorkedHours(), city,
+                String.format(Locale.ROOT, "R$ %,d", changed), photo, WEBSITES[random.nextInt(WEBSITES.length)],
+                "Active");
+    }
+}
@@ -0,0 +1,99 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.DataExporter;
+import com.webscraper.util.JsonExportFormat;
+import com.webscraper.util.JsonExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to export 10k and 1M items to JSON (flat array plus grouped file), NDJSON and CSV. Rows cycle
+ * through 1000 distinct items so the heap holds the exporter's working set rather than the input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int itemCount;
+
+    private final JsonExporter jsonExporter = new JsonExporter();
+    private final DataExporter dataExporter = new DataExporter();
+    private MachineryItem[] items;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        items = SiteFixtures.items(1000);
+        directory = Files.createTempDirectory("export-benchmark");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOutput() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long json() throws IOException {
+        return exportJson(JsonExportFormat.JSON);
+    }
+
+    @Benchmark
+    public long ndjson() throws IOException {
+        return exportJson(JsonExportFormat.NDJSON);
+    }
+
+    @Benchmark
+    public long csv() throws IOException {
+        try (DataExporter.CsvExportSink sink = dataExporter.openSink(directory.resolve("items.csv").toString())) {
+            for (int i = 0; i < itemCount; i++) {
+                sink.accept(items[i % items.length]);
+            }
+            return sink.getRowCount();
+        }
+    }
+
+    private long exportJson(JsonExportFormat format) throws IOException {
+        String file = directory.resolve("items" + format.getExtension()).toString();
+        try (JsonExporter.JsonExportSink sink = jsonExporter.openSink(file, format)) {
+            for (int i = 0; i < itemCount; i++) {
+                sink.accept(items[i % items.length]);
+            }
+            return sink.getItemCount();
+        }
+    }
+}
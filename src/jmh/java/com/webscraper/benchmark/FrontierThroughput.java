@@ -0,0 +1,69 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.crawl.DiskFrontier;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Enqueue/dequeue throughput and heap use of {@link DiskFrontier} with many pending URLs.
+ * Run through the benchmark profile with -Dbenchmark.mainClass=com.webscraper.benchmark.FrontierThroughput
+ * -Djmh.args=10000000.
+ */
+public final class FrontierThroughput {
+
+    private static final String[] WEBSITES = {"Agrofy", "MercadoMaquinas", "TratoresEColheitadeiras"};
+    private static final String[] HOSTS = {"https://www.agrofy.com.br/trator-",
+            "https://www.mercadomaquinas.com.br/anuncio/",
+            "https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/"};
+
+    private FrontierThroughput() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Path directory = Files.createTempDirectory("frontier-benchmark");
+        try {
+            long baseline = usedHeap();
+            try (DiskFrontier frontier = new DiskFrontier(directory, Integer.MAX_VALUE, website -> 0L)) {
+                long start = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    int site = i % WEBSITES.length;
+                    frontier.add(WEBSITES[site], HOSTS[site] + i + "-john-deere-7230j", i % 3);
+                }
+                report("enqueue", count, start);
+                System.out.printf("heap with %,d pending URLs: %,d KB above baseline%n", frontier.size(),
+                        (usedHeap() - baseline) / 1024);
+
+                start = System.nanoTime();
+                long dequeued = 0;
+                DiskFrontier.Entry entry;
+                while ((entry = frontier.poll()) != null) {
+                    frontier.complete(entry);
+                    dequeued++;
+                }
+                report("dequeue", dequeued, start);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void report(String operation, long count, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%s: %,d URLs in %.1f s (%,.0f URLs/s)%n", operation, count, seconds, count / seconds);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
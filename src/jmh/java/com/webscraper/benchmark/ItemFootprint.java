@@ -0,0 +1,75 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Retained heap of 1M scraped items as {@link MachineryItem} versus {@link CompactMachineryItem}.
+ * Run through the benchmark profile with -Dbenchmark.mainClass=com.webscraper.benchmark.ItemFootprint
+ * -Djmh.args=1000000.
+ */
+public final class ItemFootprint {
+
+    private static final String[] MAKES = {"John Deere", "Massey Ferguson", "New Holland", "Case", "Valtra", "Jacto"};
+    private static final String[] CITIES = {"Uberlândia, MG", "Sorriso, MT", "Rio Verde, GO", "Cascavel, PR",
+            "Passo Fundo, RS", "Luís Eduardo Magalhães, BA"};
+    private static final String[] WEBSITES = {"Agrofy", "MercadoMaquinas", "TratoresEColheitadeiras"};
+
+    private ItemFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long stringBytes = retainedBytes(count, ItemFootprint::scrapedItem);
+        CompactMachineryItem.Dictionaries dictionaries = new CompactMachineryItem.Dictionaries();
+        long compactBytes = retainedBytes(count, i -> CompactMachineryItem.from(scrapedItem(i), dictionaries));
+
+        System.out.printf("MachineryItem:        %,d bytes (%.1f bytes/item)%n", stringBytes, (double) stringBytes / count);
+        System.out.printf("CompactMachineryItem: %,d bytes (%.1f bytes/item)%n", compactBytes, (double) compactBytes / count);
+        System.out.printf("Reduction: %.1f%%%n", 100.0 * (stringBytes - compactBytes) / stringBytes);
+    }
+
+    // Each field is built the way a parser produces it: a fresh String per item, even for repeated values.
+    static MachineryItem scrapedItem(int i) {
+        String make = new String(MAKES[i % MAKES.length]);
+        return new MachineryItem(
+                make + " " + (4000 + i % 900) + "J",
+                new String("Sale"),
+                make,
+                String.valueOf(2000 + i % 25),
+                String.valueOf(i % 12000),
+                new String(CITIES[i % CITIES.length]),
+                "R$ " + (50 + i % 900) + ".000,00",
+                "https://cdn.example.com/listings/" + i + "/main.jpg",
+                new String(WEBSITES[i % WEBSITES.length]),
+                new String("Active"));
+    }
+
+    private static long retainedBytes(int count, IntFunction<Object> factory) {
+        long before = usedHeap();
+        List<Object> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(factory.apply(i));
+        }
+        long after = usedHeap();
+        if (items.size() != count) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
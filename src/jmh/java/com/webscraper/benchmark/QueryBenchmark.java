@@ -0,0 +1,100 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.model.MachineryItem;
+import com.webscraper.query.ItemQuery;
+import com.webscraper.query.ItemStore;
+import com.webscraper.query.QueryField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency over an {@link ItemStore} holding 1M and 4M synthetic listings: a selective multi-field
+ * filter, the ten cheapest active listings, a price summary for one make and a count per state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class QueryBenchmark {
+
+    private static final String[] WEBSITES = {"MercadoMaquinas", "TratoresEColheitadeiras", "Agrofy"};
+    private static final String[] MAKES = {"John Deere", "Case", "New Holland", "Massey Ferguson", "Valtra",
+            "Caterpillar", "Jacto", "Stara"};
+    private static final String[] CITIES = {"Rio Verde, GO", "Sorriso, MT", "Cascavel, PR", "Uberlândia, MG",
+            "Passo Fundo, RS", "Patos de Minas - MG", "Chapecó, SC", "Dourados, MS", "Luís Eduardo Magalhães, BA"};
+
+    @Param({"1000000", "4000000"})
+    public int itemCount;
+
+    private ItemStore store;
+    private ItemQuery selective;
+    private ItemQuery cheapest;
+    private ItemQuery caseTractors;
+    private ItemQuery recent;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] models = new String[1000];
+        for (int i = 0; i < models.length; i++) {
+            models[i] = MAKES[i % MAKES.length] + " " + (1000 + random.nextInt(9000));
+        }
+        store = new ItemStore();
+        for (int i = 0; i < itemCount; i++) {
+            store.add(new MachineryItem(models[random.nextInt(models.length)], "Sale",
+                    MAKES[random.nextInt(MAKES.length)], String.valueOf(1995 + random.nextInt(30)),
+                    random.nextInt(20000) + " h", CITIES[random.nextInt(CITIES.length)],
+                    "R$ " + (30_000 + random.nextInt(2_000_000)) + ",00", null,
+                    WEBSITES[random.nextInt(WEBSITES.length)], random.nextInt(5) == 0 ? "Sold" : "Active"));
+        }
+        selective = ItemQuery.all()
+                .where(QueryField.MAKE, "John Deere")
+                .between(QueryField.YEAR, 2018, 2022)
+                .atMost(QueryField.WORKED_HOURS, 4999)
+                .atMost(QueryField.PRICE, 400_000_00L - 1)
+                .where(QueryField.STATE, "MG")
+                .limit(100);
+        cheapest = ItemQuery.all().where(QueryField.STATUS, "Active").orderBy(QueryField.PRICE, false).limit(10);
+        caseTractors = ItemQuery.all().where(QueryField.MAKE, "Case").atLeast(QueryField.YEAR, 2020);
+        recent = ItemQuery.all().atLeast(QueryField.YEAR, 2023);
+        // Builds the sorted indexes before measuring.
+        store.count(recent);
+    }
+
+    @Benchmark
+    public List<MachineryItem> selectiveFilter() {
+        return store.find(selective);
+    }
+
+    @Benchmark
+    public List<MachineryItem> cheapestActive() {
+        return store.find(cheapest);
+    }
+
+    @Benchmark
+    public LongSummaryStatistics priceSummary() {
+        return store.summarize(caseTractors, QueryField.PRICE);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countByState() {
+        return store.countBy(recent, QueryField.STATE);
+    }
+}
@@ -0,0 +1,64 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.fetch.PageArchive;
+import com.webscraper.fetch.PageFetcher;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.service.ArchiveReplayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Archives the site fixtures under many URLs and re-extracts them with {@link ArchiveReplayer} on one
+ * thread and on every core. Run through the benchmark profile with
+ * -Dbenchmark.mainClass=com.webscraper.benchmark.ReplayThroughput -Djmh.args=100000.
+ */
+public final class ReplayThroughput {
+
+    private ReplayThroughput() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path directory = Files.createTempDirectory("replay-benchmark");
+        try (PageArchive archive = new PageArchive(true, directory)) {
+            PageFetcher fixtures = SiteFixtures.fixtureFetcher();
+            String[] websites = SiteFixtures.SAMPLE_URLS.keySet().toArray(new String[0]);
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                String website = websites[i % websites.length];
+                FetchResponse page = fixtures.fetch(website, SiteFixtures.SAMPLE_URLS.get(website) + "?n=" + i);
+                archive.record(website, page);
+            }
+            report("record", count, start);
+            System.out.printf("archive: %,d KB for %,d pages%n", Files.size(directory.resolve("pages.dat")) / 1024,
+                    count);
+
+            ExtractionRuleRegistry rules = new ExtractionRuleRegistry();
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+                ArchiveReplayer replayer = new ArchiveReplayer(archive, rules, new ScraperMetrics(false),
+                        SiteFixtures.properties(Collections.singletonMap("scraper.archive.replayParallelism",
+                                String.valueOf(threads))));
+                start = System.nanoTime();
+                int items = replayer.replay().size();
+                report("replay on " + threads + " threads", items, start);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void report(String operation, long count, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%s: %,d pages in %.1f s (%,.0f pages/s)%n", operation, count, seconds, count / seconds);
+    }
+}
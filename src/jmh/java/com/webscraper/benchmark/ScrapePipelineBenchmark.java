@@ -0,0 +1,67 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.model.MachineryItem;
+import com.webscraper.service.ScraperManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end pages per second through {@code ScraperManager.scrapeAllWebsites} with a stub fetcher, i.e.
+ * the scheduling, worker and result-collection overhead on top of extraction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScrapePipelineBenchmark {
+
+    private static final int PAGES_PER_SITE = 200;
+
+    @Param({"1", "8"})
+    public int concurrency;
+
+    private ScraperManager scraperManager;
+    private Map<String, List<String>> urlsMap;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<String, Object> values = new HashMap<>();
+        values.put("scraper.concurrency.global", String.valueOf(concurrency));
+        values.put("scraper.concurrency.perSite", String.valueOf(concurrency));
+        scraperManager = new ScraperManager(SiteFixtures.scrapers(SiteFixtures.properties(values)),
+                SiteFixtures.properties(values));
+        urlsMap = new HashMap<>();
+        SiteFixtures.SAMPLE_URLS.forEach((website, url) -> {
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < PAGES_PER_SITE; i++) {
+                urls.add(url + "?page=" + i);
+            }
+            urlsMap.put(website, urls);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(3 * PAGES_PER_SITE)
+    public List<MachineryItem> scrapeAllWebsites() {
+        return scraperManager.scrapeAllWebsites(urlsMap);
+    }
+}
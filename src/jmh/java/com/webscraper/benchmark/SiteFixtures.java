@@ -0,0 +1,105 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.fetch.PageFetcher;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.service.WebScraperService;
+import com.webscraper.service.impl.RuleBasedScraperService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checked-in detail pages for each site (src/jmh/resources/fixtures) and a fetcher that serves them,
+ * so the scrape path can be measured without the network.
+ */
+final class SiteFixtures {
+
+    static final Map<String, String> SAMPLE_URLS = new LinkedHashMap<>();
+
+    static {
+        SAMPLE_URLS.put("Agrofy", "https://www.agrofy.com.br/trator-john-deere-7230j-oferta.html");
+        SAMPLE_URLS.put("MercadoMaquinas", "https://www.mercadomaquinas.com.br/anuncio/"
+                + "236624-retro-escavadeira-caterpillar-416e-2015-carlopolis-pr");
+        SAMPLE_URLS.put("TratoresEColheitadeiras", "https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/"
+                + "plataforma-colheitadeira/gts/flexer-xs-45/2023/45-pes/draper/triamaq-tratores/1028839");
+    }
+
+    private SiteFixtures() {
+    }
+
+    static byte[] page(String websiteName) {
+        String resource = "/fixtures/" + websiteName.toLowerCase() + ".html";
+        try (InputStream in = SiteFixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serves each site's fixture for any URL of that site, as an uncached 200 response.
+     */
+    static PageFetcher fixtureFetcher() {
+        Map<String, byte[]> pages = new HashMap<>();
+        for (String websiteName : SAMPLE_URLS.keySet()) {
+            pages.put(websiteName, page(websiteName));
+        }
+        Map<String, List<String>> headers = Collections.singletonMap("Content-Type",
+                Collections.singletonList("text/html; charset=UTF-8"));
+        return (websiteName, url) -> new FetchResponse(url, url, 200, headers, pages.get(websiteName));
+    }
+
+    static ScraperProperties properties(Map<String, Object> values) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", values));
+        return new ScraperProperties(environment);
+    }
+
+    static List<WebScraperService> scrapers(ScraperProperties properties) throws IOException {
+        ExtractionRuleRegistry rules = new ExtractionRuleRegistry();
+        PageFetcher fetcher = fixtureFetcher();
+        CrawlStateStore noState = new CrawlStateStore(false, Paths.get("unused"));
+        ScraperMetrics metrics = new ScraperMetrics(false);
+        List<WebScraperService> scrapers = new ArrayList<>();
+        for (String websiteName : SAMPLE_URLS.keySet()) {
+            scrapers.add(new RuleBasedScraperService(websiteName, rules, fetcher, noState, properties, metrics));
+        }
+        return scrapers;
+    }
+
+    /**
+     * Distinct, fully populated items to cycle through when an export needs more rows than this.
+     */
+    static MachineryItem[] items(int distinct) {
+        String[] websites = SAMPLE_URLS.keySet().toArray(new String[0]);
+        String[] makes = {"John Deere", "Case", "New Holland", "Massey Ferguson", "Valtra", "Caterpillar"};
+        String[] cities = {"Rio Verde, GO", "Sorriso, MT", "Cascavel, PR", "Uberlândia, MG", "Passo Fundo, RS"};
+        MachineryItem[] items = new MachineryItem[distinct];
+        for (int i = 0; i < distinct; i++) {
+            String make = makes[i % makes.length];
+            items[i] = new MachineryItem(make + " " + (5000 + i), "Sale", make, String.valueOf(2005 + i % 19),
+                    String.valueOf(i * 37 % 12000), cities[i % cities.length],
+                    "R$ " + (80_000 + i * 1_337 % 900_000) + ",00",
+                    "https://img.example.com/listings/" + i + ".jpg", websites[i % websites.length], "Active");
+        }
+        return items;
+    }
+}
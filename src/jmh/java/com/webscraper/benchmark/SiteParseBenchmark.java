@@ -0,0 +1,57 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.model.MachineryItem;
+import com.webscraper.service.WebScraperService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pages per second through {@code scrapePage} for each site's fixture: decoding, parsing, status
+ * classification and field extraction, with the fetch served from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SiteParseBenchmark {
+
+    @Param({"Agrofy", "MercadoMaquinas", "TratoresEColheitadeiras"})
+    public String website;
+
+    private WebScraperService scraper;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        url = SiteFixtures.SAMPLE_URLS.get(website);
+        scraper = SiteFixtures.scrapers(SiteFixtures.properties(Collections.emptyMap())).stream()
+                .filter(candidate -> candidate.getWebsiteName().equals(website))
+                .findFirst()
+                .orElseThrow();
+        MachineryItem item = scraper.scrapePage(url).get(0);
+        if (!"Active".equals(item.getStatus()) || item.getPrice() == null) {
+            throw new IllegalStateException("Fixture for " + website + " no longer extracts: " + item);
+        }
+    }
+
+    @Benchmark
+    public List<MachineryItem> scrapePage() {
+        return scraper.scrapePage(url);
+    }
+}
@@ -0,0 +1,96 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.StatusClassifier;
+import com.webscraper.model.ListingStatus;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass status classifier with the per-phrase {@code getElementsContainingText} scans the
+ * scrapers used to run on every page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusClassifierBenchmark {
+
+    private static final String[][] LEGACY_CHECKS = {
+            {"text", "Anúncio desativado", "Inactive"},
+            {"text", "já foi vendido", "Sold"},
+            {"selector", ".expired-notice, .sold-notice, .unavailable-notice", "Expired"}
+    };
+
+    @Param({"200", "2000"})
+    private int listingBlocks;
+
+    @Param({"false", "true"})
+    private boolean sold;
+
+    private StatusClassifier classifier;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        classifier = new ExtractionRuleRegistry().getStatusClassifier();
+        document = Jsoup.parse(listingPage(listingBlocks, sold), "https://www.mercadomaquinas.com.br/");
+        if (classifier.classify("MercadoMaquinas", document) != ListingStatus.fromLabel(legacyStatus())) {
+            throw new IllegalStateException("Classifier and legacy checks disagree");
+        }
+    }
+
+    @Benchmark
+    public ListingStatus singlePass() {
+        return classifier.classify("MercadoMaquinas", document);
+    }
+
+    @Benchmark
+    public String legacyScans() {
+        return legacyStatus();
+    }
+
+    private String legacyStatus() {
+        for (String[] check : LEGACY_CHECKS) {
+            boolean matched = "text".equals(check[0])
+                    ? !document.getElementsContainingText(check[1]).isEmpty()
+                    : document.selectFirst(check[1]) != null;
+            if (matched) {
+                return check[2];
+            }
+        }
+        return "Active";
+    }
+
+    static String listingPage(int blocks, boolean sold) {
+        StringBuilder html = new StringBuilder("<html><head><title>Trator usado</title></head><body>");
+        html.append("<header><nav><a href='/'>Início</a> <a href='/tratores'>Tratores</a></nav></header>");
+        html.append("<main><h1 class='title'>Trator Massey Ferguson 4275 2015</h1>");
+        for (int i = 0; i < blocks; i++) {
+            html.append("<div class='card'><span class='label'>Especificação ").append(i)
+                    .append("</span> <b>valor</b> <i>").append(i * 31).append(" horas</i><p>Descrição do item ")
+                    .append(i).append(" com texto de exemplo.</p></div>");
+        }
+        if (sold) {
+            html.append("<div class='notice'>Este equipamento <strong>já foi vendido</strong>.</div>");
+        }
+        html.append("</main><footer>Mercado Máquinas</footer></body></html>");
+        return html.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.webscraper.benchmark;
+
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.SiteExtractor;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.Hashing;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handling an unchanged page with the crawl state store (hash the body, look up the previous
+ * item) versus parsing and extracting it again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnchangedPageBenchmark {
+
+    private static final String URL = "https://www.mercadomaquinas.com.br/anuncio/236624-retro-escavadeira-caterpillar-416e-2015-carlopolis-pr";
+
+    private SiteExtractor extractor;
+    private CrawlStateStore crawlState;
+    private Path stateDir;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        extractor = new ExtractionRuleRegistry().get("MercadoMaquinas");
+        body = StatusClassifierBenchmark.listingPage(500, false).getBytes(StandardCharsets.UTF_8);
+        stateDir = Files.createTempDirectory("crawl-state");
+        crawlState = new CrawlStateStore(true, stateDir.resolve("state.ndjson"));
+        crawlState.record(URL, Hashing.sha256Hex(body), extractor.getRulesVersion(), parseAndExtract());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        crawlState.close();
+        Files.deleteIfExists(stateDir.resolve("state.ndjson"));
+        Files.deleteIfExists(stateDir);
+    }
+
+    @Benchmark
+    public MachineryItem parseAndExtract() throws IOException {
+        return extractor.extract(URL, Jsoup.parse(new ByteArrayInputStream(body), "UTF-8", URL));
+    }
+
+    @Benchmark
+    public MachineryItem reuseUnchanged() {
+        return crawlState.reuse(URL, Hashing.sha256Hex(body), extractor.getRulesVersion()).get();
+    }
+}
@@ -1,19 +1,44 @@
 package com.webscraper;
 
 import com.webscraper.config.AppConfig;
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.crawl.DiscoveryCrawler;
+import com.webscraper.crawl.DiskFrontier;
+import com.webscraper.crawl.ItemLog;
+import com.webscraper.dedupe.ListingDeduplicator;
+import com.webscraper.fetch.HttpCache;
+import com.webscraper.fetch.HttpClientPageFetcher;
+import com.webscraper.fetch.ResilienceRegistry;
+import com.webscraper.fetch.UrlCanonicalizer;
+import com.webscraper.metrics.ScraperMetrics;
 import com.webscraper.model.MachineryItem;
+import com.webscraper.service.ArchiveReplayer;
+import com.webscraper.service.PageResultListener;
 import com.webscraper.service.ScraperManager;
+import com.webscraper.util.ColumnarExporter;
+import com.webscraper.util.ItemSink;
+import com.webscraper.util.ItemSinkSubscriber;
+import com.webscraper.util.JsonExportFormat;
 import com.webscraper.util.JsonExporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
@@ -25,31 +50,130 @@ public class Main {
                 new AnnotationConfigApplicationContext(AppConfig.class)) {
             ScraperManager scraperManager = context.getBean(ScraperManager.class);
             JsonExporter jsonExporter = context.getBean(JsonExporter.class);
+            ColumnarExporter columnarExporter = context.getBean(ColumnarExporter.class);
+            HttpCache httpCache = context.getBean(HttpCache.class);
+            ScraperProperties properties = context.getBean(ScraperProperties.class);
+            CrawlStateStore crawlState = context.getBean(CrawlStateStore.class);
+            ItemLog itemLog = context.getBean(ItemLog.class);
+            ResilienceRegistry resilience = context.getBean(ResilienceRegistry.class);
+            HttpClientPageFetcher fetcher = context.getBean(HttpClientPageFetcher.class);
+            ScraperMetrics metrics = context.getBean(ScraperMetrics.class);
+            UrlCanonicalizer canonicalizer = context.getBean(UrlCanonicalizer.class);
             
-            Map<String, List<String>> urlsMap = new HashMap<>();
-
-            List<String> agrofyUrls = new ArrayList<>();
-            agrofyUrls.add("https://www.agrofy.com.br/trator-john-deere-7230j-oferta.html");
-            agrofyUrls.add("https://www.agrofy.com.br/trator-case-puma-215-193793.html");
-            urlsMap.put("Agrofy", agrofyUrls);
-            
-            List<String> tractorsUrls = new ArrayList<>();
-            tractorsUrls.add("https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/plataforma-colheitadeira/gts/flexer-xs-45/2023/45-pes/draper/triamaq-tratores/1028839");
-            tractorsUrls.add("https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/plataforma-colheitadeira/gts/produttiva-1250/2022/caracol/12-linhas/triamaq-tratores/994257");
-            urlsMap.put("TratoresEColheitadeiras", tractorsUrls);
-            
-            List<String> machineMarketUrls = new ArrayList<>();
-            machineMarketUrls.add("https://www.mercadomaquinas.com.br/anuncio/236624-retro-escavadeira-caterpillar-416e-2015-carlopolis-pr");
-            machineMarketUrls.add("https://www.mercadomaquinas.com.br/anuncio/236623-mini-escavadeira-bobcat-e27z-2019-sete-lagoas-mg");
-            urlsMap.put("MercadoMaquinas", machineMarketUrls);
-            
-            logger.info("Starting to scrape all websites");
-            List<MachineryItem> allItems = scraperManager.scrapeAllWebsites(urlsMap);
-            logger.info("Finished scraping. Total items found: {}", allItems.size());
+            boolean replay = Arrays.asList(args).contains("--replay");
+            boolean resume = !replay && Arrays.asList(args).contains("--resume");
+            Set<String> completedUrls = new HashSet<>();
+            try {
+                // A replay does not scrape, so it must not discard the item log of the last run.
+                if (!replay) {
+                    completedUrls = itemLog.open(resume);
+                }
+            } catch (IOException e) {
+                logger.error("Could not open the item log, continuing without it", e);
+            }
+            PageResultListener itemLogListener = (website, url, items) -> {
+                // Pages that failed are left out so that a resumed run retries them.
+                if (items.stream().anyMatch(item -> "Error".equals(item.getStatus()))) {
+                    return;
+                }
+                try {
+                    itemLog.append(website, url, items);
+                } catch (IOException | IllegalStateException e) {
+                    logger.error("Could not append {} to the item log", url, e);
+                }
+            };
             
+            boolean discovery = properties.getProperty("discovery.enabled", Boolean.class, false);
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String outputFile = "output/machinery_data_" + timestamp + ".json";
-            boolean exportSuccess = jsonExporter.exportToJson(allItems, outputFile);
+            JsonExportFormat exportFormat = properties.getProperty("export.format",
+                    JsonExportFormat.class, JsonExportFormat.JSON);
+            String outputFile = "output/machinery_data_" + timestamp + exportFormat.getExtension();
+            String columnarFile = properties.getProperty("export.columnar.enabled", Boolean.class, false)
+                    ? "output/machinery_data_" + timestamp + ".mcol" : null;
+            // The items of an interrupted run only exist in the log, so a resumed run exports everything from there.
+            boolean exportFromLog = resume && itemLog.isEnabled();
+            ListingDeduplicator deduplicator = properties.getProperty("dedupe.enabled", Boolean.class, false)
+                    ? context.getBean(ListingDeduplicator.class) : null;
+            
+            long itemCount = 0;
+            MachineryItem firstItem = null;
+            ListingDeduplicator.DedupingSink deduping = null;
+            boolean exportSuccess;
+            if (replay) {
+                List<MachineryItem> allItems = replayArchive(context);
+                itemCount = allItems.size();
+                firstItem = allItems.isEmpty() ? null : allItems.get(0);
+                exportSuccess = jsonExporter.export(allItems, outputFile, exportFormat);
+                if (columnarFile != null) {
+                    exportSuccess &= columnarExporter.export(allItems, columnarFile);
+                }
+            } else {
+                // Items are written to the export file as their pages finish rather than collected first.
+                try {
+                    ItemSink export = null;
+                    if (!exportFromLog) {
+                        export = openExport(jsonExporter, outputFile, exportFormat, columnarExporter, columnarFile);
+                        if (deduplicator != null) {
+                            deduping = deduplicator.dedupingSink(export);
+                            export = deduping;
+                        }
+                    }
+                    try (SampleSink scraped = new SampleSink(export)) {
+                        boolean scrapeSuccess = true;
+                        if (properties.getProperty("frontier.enabled", Boolean.class, false)) {
+                            scrapeSuccess = scrapeWithFrontier(context, properties, crawlState, canonicalizer,
+                                    discovery, resume, completedUrls, itemLogListener, scraped);
+                        } else {
+                            Map<String, List<String>> urlsMap;
+                            if (discovery) {
+                                logger.info("Discovering listing URLs from result pages");
+                                urlsMap = context.getBean(DiscoveryCrawler.class).discoverAll();
+                            } else {
+                                urlsMap = sampleUrls();
+                            }
+                            // The item log holds canonical URLs.
+                            Set<String> completed = completedUrls;
+                            urlsMap.forEach((website, urls) ->
+                                    urls.removeIf(url -> completed.contains(canonicalizer.canonicalize(website, url))));
+                        
+                            logger.info("Starting to scrape all websites");
+                            ItemSinkSubscriber subscriber = new ItemSinkSubscriber(scraped,
+                                    properties.getProperty("stream.requestBatch", Integer.class, 64));
+                            scraperManager.publishAllWebsites(urlsMap, itemLogListener).subscribe(subscriber);
+                            subscriber.await();
+                        }
+                        itemCount = scraped.getItemCount();
+                        firstItem = scraped.getFirstItem();
+                        exportSuccess = scrapeSuccess;
+                    }
+                } catch (IOException e) {
+                    logger.error("Could not export scraped items", e);
+                    exportSuccess = false;
+                }
+                if (exportFromLog) {
+                    try {
+                        ItemSink export = openExport(jsonExporter, outputFile, exportFormat, columnarExporter,
+                                columnarFile);
+                        // The log holds every page of the run, so duplicates are dropped here as on a live run.
+                        if (deduplicator != null) {
+                            deduping = deduplicator.dedupingSink(export);
+                            export = deduping;
+                        }
+                        exportSuccess = exportFromLog(itemLog, export);
+                    } catch (IOException e) {
+                        logger.error("Could not export items from the item log", e);
+                        exportSuccess = false;
+                    }
+                }
+            }
+            logger.info("Finished scraping. Total items found: {}", itemCount);
+            String duplicatesFile = null;
+            if (deduping != null && !deduping.getClusters().isEmpty()) {
+                duplicatesFile = "output/machinery_data_" + timestamp + "_duplicates.json";
+                if (!jsonExporter.exportDuplicates(deduping.getClusters(), duplicatesFile)) {
+                    duplicatesFile = null;
+                }
+            }
             
             if (exportSuccess) {
                 logger.info("Data successfully exported to JSON: {}", outputFile);
@@ -58,16 +182,189 @@ public class Main {
             }
             
             System.out.println("\n===== SCRAPING SUMMARY =====");
-            System.out.println("Total items scraped: " + allItems.size());
+            System.out.println("Total items scraped: " + itemCount);
             System.out.println("Output file: " + outputFile);
+            if (columnarFile != null) {
+                System.out.println("Columnar file: " + columnarFile);
+            }
+            if (httpCache.isEnabled()) {
+                System.out.println("HTTP cache: " + httpCache.summary());
+            }
+            if (crawlState.isEnabled()) {
+                System.out.println("Crawl state: " + crawlState.summary());
+            }
+            System.out.println("Resilience: " + resilience.summary());
+            System.out.println("Latency: " + fetcher.latencySummary());
+            System.out.println("Per-site metrics: " + metrics.summary());
+            System.out.println("URLs: " + scraperManager.requestSummary());
+            if (deduping != null) {
+                System.out.println("Duplicates: " + deduping.getDuplicateCount() + " dropped, "
+                        + deduping.getClusters().size() + " clusters"
+                        + (duplicatesFile != null ? " (" + duplicatesFile + ")" : ""));
+            }
+            if (itemLog.isEnabled()) {
+                System.out.println("Item log: " + itemLog.getRecordCount() + " pages logged, "
+                        + itemLog.getSyncCount() + " syncs");
+            }
             System.out.println("===========================\n");
             
-            if (!allItems.isEmpty()) {
+            if (firstItem != null) {
                 System.out.println("Sample data (first item):");
-                System.out.println(allItems.get(0));
+                System.out.println(firstItem);
             }
         }
         
         logger.info("Agricultural Machinery Web Scraper completed");
     }
-}
\ No newline at end of file
+
+    private static ItemSink openExport(JsonExporter jsonExporter, String outputFile, JsonExportFormat exportFormat,
+                                       ColumnarExporter columnarExporter, String columnarFile) throws IOException {
+        ItemSink export = jsonExporter.openSink(outputFile, exportFormat);
+        return columnarFile == null ? export : ItemSink.tee(export, columnarExporter.openSink(columnarFile));
+    }
+
+    private static boolean exportFromLog(ItemLog itemLog, ItemSink export) {
+        try (SampleSink replayed = new SampleSink(export)) {
+            itemLog.replay(replayed);
+            logger.info("Rebuilt export from {} items in the item log", replayed.getItemCount());
+            return true;
+        } catch (IOException e) {
+            logger.error("Could not export items from the item log", e);
+            return false;
+        }
+    }
+
+    private static List<MachineryItem> replayArchive(AnnotationConfigApplicationContext context) {
+        logger.info("Re-extracting archived pages instead of scraping");
+        try {
+            return context.getBean(ArchiveReplayer.class).replay();
+        } catch (IOException e) {
+            logger.error("Could not replay the page archive", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Returns false if the frontier could not be opened or written, or the export failed, in which case not every
+     * URL was scraped and exported.
+     */
+    private static boolean scrapeWithFrontier(AnnotationConfigApplicationContext context,
+                                              ScraperProperties properties, CrawlStateStore crawlState,
+                                              UrlCanonicalizer canonicalizer, boolean discovery, boolean resume,
+                                              Set<String> completedUrls, PageResultListener listener,
+                                              ItemSink sink) {
+        Path directory = Paths.get(properties.getProperty("frontier.directory", String.class, ".cache/frontier"));
+        try {
+            // Without --resume the URLs left over by an earlier run are not scraped. A frontier whose discovery
+            // was cut short is discovered again: its URLs are only scraped once discovery has finished.
+            if (!resume || !DiskFrontier.isSeeded(directory)) {
+                DiskFrontier.clear(directory);
+            }
+        } catch (IOException e) {
+            logger.error("Could not clear the URL frontier at {}", directory, e);
+            return false;
+        }
+        try (DiskFrontier frontier = new DiskFrontier(directory, properties.getPerSiteConcurrency(),
+                website -> properties.getSiteProperty(website, "frontier.hostDelayMillis", Long.class, 0L))) {
+            // Listings seen in an earlier run are re-checked after the new ones.
+            BiConsumer<String, String> enqueue = (website, rawUrl) -> {
+                String url = canonicalizer.canonicalize(website, rawUrl);
+                if (completedUrls.contains(url)) {
+                    return;
+                }
+                int priority = crawlState.getState(url).isPresent()
+                        ? DiskFrontier.PRIORITY_LOW : DiskFrontier.PRIORITY_NORMAL;
+                try {
+                    frontier.add(website, url, priority);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            if (frontier.isRecovered()) {
+                // The pending URLs are still queued, so adding them again would scrape them twice.
+                logger.info("Resuming the URL frontier at {}", directory);
+            } else {
+                if (discovery) {
+                    logger.info("Discovering listing URLs into the frontier at {}", directory);
+                    context.getBean(DiscoveryCrawler.class).discoverAll(enqueue);
+                } else {
+                    sampleUrls().forEach((website, urls) -> urls.forEach(url -> enqueue.accept(website, url)));
+                }
+                frontier.markSeeded();
+            }
+            
+            logger.info("Starting to scrape {} URLs from the frontier", frontier.size());
+            context.getBean(ScraperManager.class).scrapeFrontier(frontier, listener, item -> {
+                try {
+                    sink.accept(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("URL frontier at {} failed", directory, e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Forwards items to the export (if any) and keeps the count and the first item for the summary.
+     */
+    private static class SampleSink implements ItemSink {
+        private final ItemSink delegate;
+        private long itemCount;
+        private MachineryItem firstItem;
+
+        SampleSink(ItemSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void accept(MachineryItem item) throws IOException {
+            if (firstItem == null) {
+                firstItem = item;
+            }
+            itemCount++;
+            if (delegate != null) {
+                delegate.accept(item);
+            }
+        }
+
+        synchronized long getItemCount() {
+            return itemCount;
+        }
+
+        synchronized MachineryItem getFirstItem() {
+            return firstItem;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+
+    private static Map<String, List<String>> sampleUrls() {
+        Map<String, List<String>> urlsMap = new HashMap<>();
+
+        List<String> agrofyUrls = new ArrayList<>();
+        agrofyUrls.add("https://www.agrofy.com.br/trator-john-deere-7230j-oferta.html");
+        agrofyUrls.add("https://www.agrofy.com.br/trator-case-puma-215-193793.html");
+        urlsMap.put("Agrofy", agrofyUrls);
+        
+        List<String> tractorsUrls = new ArrayList<>();
+        tractorsUrls.add("https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/plataforma-colheitadeira/gts/flexer-xs-45/2023/45-pes/draper/triamaq-tratores/1028839");
+        tractorsUrls.add("https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/plataforma-colheitadeira/gts/produttiva-1250/2022/caracol/12-linhas/triamaq-tratores/994257");
+        urlsMap.put("TratoresEColheitadeiras", tractorsUrls);
+        
+        List<String> machineMarketUrls = new ArrayList<>();
+        machineMarketUrls.add("https://www.mercadomaquinas.com.br/anuncio/236624-retro-escavadeira-caterpillar-416e-2015-carlopolis-pr");
+        machineMarketUrls.add("https://www.mercadomaquinas.com.br/anuncio/236623-mini-escavadeira-bobcat-e27z-2019-sete-lagoas-mg");
+        urlsMap.put("MercadoMaquinas", machineMarketUrls);
+        
+        return urlsMap;
+    }
+}
@@ -2,8 +2,10 @@ package com.webscraper.config;
 
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
 
 @Configuration
 @ComponentScan(basePackages = "com.webscraper")
+@PropertySource(value = "classpath:scraper.properties", ignoreResourceNotFound = true)
 public class AppConfig {
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+package com.webscraper.config;
+
+public enum ResultOrder {
+    PRESERVED,
+    COMPLETION
+}
@@ -0,0 +1,46 @@
+package com.webscraper.config;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ScraperProperties {
+
+    private static final String PREFIX = "scraper.";
+    private static final String SITES_PREFIX = PREFIX + "sites.";
+    private static final String DEFAULT_SITE = "default";
+
+    private final Environment environment;
+
+    public ScraperProperties(Environment environment) {
+        this.environment = environment;
+    }
+
+    public int getGlobalConcurrency() {
+        return getProperty("concurrency.global", Integer.class, 8);
+    }
+
+    public int getPerSiteConcurrency() {
+        return getProperty("concurrency.perSite", Integer.class, 4);
+    }
+
+    public boolean isVirtualThreads() {
+        return getProperty("concurrency.virtualThreads", Boolean.class, false);
+    }
+
+    public ResultOrder getResultOrder() {
+        return getProperty("concurrency.resultOrder", ResultOrder.class, ResultOrder.PRESERVED);
+    }
+
+    public <T> T getProperty(String key, Class<T> type, T defaultValue) {
+        return environment.getProperty(PREFIX + key, type, defaultValue);
+    }
+
+    public <T> T getSiteProperty(String websiteName, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty(SITES_PREFIX + websiteName + "." + key, type);
+        if (value != null) {
+            return value;
+        }
+        return environment.getProperty(SITES_PREFIX + DEFAULT_SITE + "." + key, type, defaultValue);
+    }
+}
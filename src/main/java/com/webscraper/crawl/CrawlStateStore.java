@@ -0,0 +1,234 @@
+package com.webscraper.crawl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.model.MachineryItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-URL crawl state kept across runs in an append-only NDJSON log: the hash of the last fetched body,
+ * the version of the rules it was extracted with, when it was fetched and the extracted item. The whole
+ * log is indexed in memory on first use; superseded records are dropped when the store is closed.
+ */
+@Component
+public class CrawlStateStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlStateStore.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final Path logFile;
+    private final Map<String, PageState> states = new ConcurrentHashMap<>();
+    private BufferedWriter writer;
+    private long logRecords;
+    private boolean truncatedTail;
+    private volatile boolean loaded;
+
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong parsed = new AtomicLong();
+
+    @Autowired
+    public CrawlStateStore(ScraperProperties properties) {
+        this(properties.getProperty("state.enabled", Boolean.class, true),
+                Paths.get(properties.getProperty("state.file", String.class, ".cache/crawl-state.ndjson")));
+    }
+
+    public CrawlStateStore(boolean enabled, Path logFile) {
+        this.enabled = enabled;
+        this.logFile = logFile;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a copy of the item extracted last time if the page body and the rules are unchanged.
+     */
+    public Optional<MachineryItem> reuse(String url, String contentHash, String rulesVersion) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+        PageState state = states.get(url);
+        if (state == null || !contentHash.equals(state.contentHash) || !rulesVersion.equals(state.rulesVersion)) {
+            return Optional.empty();
+        }
+        reused.incrementAndGet();
+        append(new PageState(url, contentHash, rulesVersion, System.currentTimeMillis(), state.item));
+        return Optional.of(copyOf(state.item));
+    }
+
+    public void record(String url, String contentHash, String rulesVersion, MachineryItem item) {
+        if (!enabled) {
+            return;
+        }
+        ensureLoaded();
+        parsed.incrementAndGet();
+        append(new PageState(url, contentHash, rulesVersion, System.currentTimeMillis(), copyOf(item)));
+    }
+
+    public Optional<PageState> getState(String url) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+        return Optional.ofNullable(states.get(url));
+    }
+
+    public long getReused() {
+        return reused.get();
+    }
+
+    public long getParsed() {
+        return parsed.get();
+    }
+
+    public String summary() {
+        return String.format("%d pages unchanged and reused, %d parsed, %d URLs tracked",
+                reused.get(), parsed.get(), states.size());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.close();
+        writer = null;
+        if (logRecords > states.size() * 2L) {
+            compact();
+        }
+    }
+
+    private synchronized void append(PageState state) {
+        states.put(state.url, state);
+        try {
+            if (writer == null) {
+                Path parent = logFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (truncatedTail) {
+                    writer.newLine();
+                    truncatedTail = false;
+                }
+            }
+            writer.write(objectMapper.writeValueAsString(state));
+            writer.newLine();
+            writer.flush();
+            logRecords++;
+        } catch (IOException e) {
+            logger.warn("Could not append crawl state for {}", state.url, e);
+        }
+    }
+
+    private void compact() throws IOException {
+        Path temp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (PageState state : states.values()) {
+                out.write(objectMapper.writeValueAsString(state));
+                out.newLine();
+            }
+        }
+        try {
+            Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Compacted crawl state log from {} to {} records", logRecords, states.size());
+        logRecords = states.size();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (Files.exists(logFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isEmpty()) {
+                            continue;
+                        }
+                        logRecords++;
+                        try {
+                            PageState state = objectMapper.readValue(line, PageState.class);
+                            states.put(state.url, state);
+                        } catch (JsonProcessingException e) {
+                            // A run that died mid-write can leave a truncated last line.
+                            logger.warn("Skipping unreadable crawl state record in {}", logFile);
+                        }
+                    }
+                    truncatedTail = !endsWithNewline(logFile);
+                } catch (IOException e) {
+                    logger.warn("Could not read crawl state from {}", logFile, e);
+                }
+                logger.info("Loaded crawl state for {} URLs from {}", states.size(), logFile);
+            }
+            loaded = true;
+        }
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() == 0) {
+                return true;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    private static MachineryItem copyOf(MachineryItem item) {
+        return new MachineryItem(item.getModel(), item.getContractType(), item.getMake(), item.getYear(),
+                item.getWorkedHours(), item.getCity(), item.getPrice(), item.getPhotoUrl(),
+                item.getSourceWebsite(), item.getStatus());
+    }
+
+    public static class PageState {
+        public String url;
+        public String contentHash;
+        public String rulesVersion;
+        public long fetchedAt;
+        public MachineryItem item;
+
+        public PageState() {
+        }
+
+        PageState(String url, String contentHash, String rulesVersion, long fetchedAt, MachineryItem item) {
+            this.url = url;
+            this.contentHash = contentHash;
+            this.rulesVersion = rulesVersion;
+            this.fetchedAt = fetchedAt;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.webscraper.crawl;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.SiteRules;
+import com.webscraper.fetch.PageFetcher;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Walks a site's listing/search result pages, following pagination, and hands every new detail-page URL
+ * to a consumer. Detail URLs are deduplicated with a Bloom filter rather than a set of Strings.
+ */
+@Component
+public class DiscoveryCrawler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscoveryCrawler.class);
+
+    private final ExtractionRuleRegistry extractionRules;
+    private final PageFetcher pageFetcher;
+    private final ScraperProperties properties;
+
+    public DiscoveryCrawler(ExtractionRuleRegistry extractionRules, PageFetcher pageFetcher,
+                            ScraperProperties properties) {
+        this.extractionRules = extractionRules;
+        this.pageFetcher = pageFetcher;
+        this.properties = properties;
+    }
+
+    /**
+     * Discovers detail URLs for every website with discovery rules, keyed by website name.
+     */
+    public Map<String, List<String>> discoverAll() {
+        Map<String, List<String>> urlsMap = new LinkedHashMap<>();
+        discoverAll((websiteName, url) -> urlsMap.computeIfAbsent(websiteName, name -> new ArrayList<>()).add(url));
+        return urlsMap;
+    }
+
+    /**
+     * Streams (website name, detail URL) pairs for every website with discovery rules.
+     */
+    public void discoverAll(BiConsumer<String, String> detailUrls) {
+        for (String websiteName : extractionRules.getWebsiteNames()) {
+            if (extractionRules.findDiscovery(websiteName).isPresent()) {
+                discover(websiteName, url -> detailUrls.accept(websiteName, url));
+            }
+        }
+    }
+
+    /**
+     * Streams the website's new detail URLs to the consumer and returns how many there were.
+     */
+    public long discover(String websiteName, Consumer<String> detailUrls) {
+        SiteRules.Discovery discovery = extractionRules.findDiscovery(websiteName)
+                .orElseThrow(() -> new IllegalStateException("No discovery rules for " + websiteName));
+        SiteDiscovery site = new SiteDiscovery(websiteName, discovery);
+        BloomFilter seen = new BloomFilter(
+                properties.getSiteProperty(websiteName, "discovery.expectedUrls", Long.class, 1_000_000L),
+                properties.getSiteProperty(websiteName, "discovery.falsePositiveRate", Double.class, 0.001));
+
+        long discovered = 0;
+        int pagesVisited = 0;
+        for (String startUrl : discovery.startUrls) {
+            Deque<String> pages = new ArrayDeque<>();
+            Set<String> visitedPages = new HashSet<>();
+            pages.add(startUrl);
+            int pageNumber = 1;
+            while (!pages.isEmpty() && pagesVisited < discovery.maxPages) {
+                String pageUrl = pages.poll();
+                if (!visitedPages.add(pageUrl)) {
+                    continue;
+                }
+                pagesVisited++;
+                Document page;
+                try {
+                    page = pageFetcher.fetch(websiteName, pageUrl).toDocument();
+                } catch (IOException e) {
+                    logger.warn("Could not fetch {} result page {}", websiteName, pageUrl, e);
+                    continue;
+                }
+
+                int linksOnPage = 0;
+                int newOnPage = 0;
+                for (Element link : page.select(site.listingSelector)) {
+                    String detailUrl = site.toDetailUrl(link);
+                    if (detailUrl == null) {
+                        continue;
+                    }
+                    linksOnPage++;
+                    if (seen.put(detailUrl)) {
+                        newOnPage++;
+                        detailUrls.accept(detailUrl);
+                    }
+                }
+                discovered += newOnPage;
+                logger.debug("{} result page {}: {} listing links, {} new", websiteName, pageUrl, linksOnPage,
+                        newOnPage);
+
+                if (discovery.pageUrlTemplate != null) {
+                    // Numbered pages have no explicit end, so stop at the first page without new listings: sites
+                    // that clamp out-of-range page numbers keep serving the last page.
+                    if (newOnPage > 0) {
+                        pageNumber++;
+                        pages.add(discovery.pageUrlTemplate.replace("{page}", String.valueOf(pageNumber)));
+                    }
+                } else if (site.nextPageSelector != null) {
+                    Element next = page.selectFirst(site.nextPageSelector);
+                    if (next != null && !next.absUrl("href").isEmpty()) {
+                        pages.add(next.absUrl("href"));
+                    }
+                }
+            }
+        }
+        logger.info("Discovered {} detail URLs for {} from {} result pages (filter: {} KB)", discovered,
+                websiteName, pagesVisited, seen.getSizeInBytes() / 1024);
+        return discovered;
+    }
+
+    private static final class SiteDiscovery {
+        private final Evaluator listingSelector;
+        private final Pattern listingPattern;
+        private final Evaluator nextPageSelector;
+
+        private SiteDiscovery(String websiteName, SiteRules.Discovery discovery) {
+            if (discovery.listingSelector == null || discovery.startUrls.isEmpty()) {
+                throw new IllegalStateException("Discovery rules for " + websiteName
+                        + " need startUrls and a listingSelector");
+            }
+            this.listingSelector = QueryParser.parse(discovery.listingSelector);
+            this.listingPattern = discovery.listingPattern == null ? null : Pattern.compile(discovery.listingPattern);
+            this.nextPageSelector = discovery.nextPageSelector == null
+                    ? null : QueryParser.parse(discovery.nextPageSelector);
+        }
+
+        private String toDetailUrl(Element link) {
+            String url = link.absUrl("href");
+            int fragment = url.indexOf('#');
+            if (fragment >= 0) {
+                url = url.substring(0, fragment);
+            }
+            if (url.isEmpty() || (listingPattern != null && !listingPattern.matcher(url).find())) {
+                return null;
+            }
+            return url;
+        }
+    }
+}
@@ -0,0 +1,592 @@
+package com.webscraper.crawl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Persistent URL frontier. Every host has one queue per priority, each an append-only series of segment
+ * files of which only a small read-ahead batch is held in memory, so heap use does not grow with the number
+ * of pending URLs. {@link #poll()} picks the highest-priority URL of a host that is eligible now: hosts are
+ * visited round-robin, with a limit on URLs in flight and a delay after each completed URL.
+ *
+ * <p>Every few thousand polls and on close, each queue checkpoints the position of its oldest URL that was
+ * handed out but not yet {@link #complete(Entry) completed}, and only the segments before that are deleted.
+ * After a crash, URLs that were in flight at the last checkpoint or polled since are handed out again.
+ */
+public class DiskFrontier implements Closeable {
+
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_LOW = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskFrontier.class);
+    private static final int PRIORITY_LEVELS = 3;
+    private static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final int READ_BATCH = 1024;
+    private static final int CHECKPOINT_INTERVAL = 10_000;
+    private static final String STATE_FILE = "frontier.json";
+    private static final Comparator<BufferedUrl> POSITION_ORDER =
+            Comparator.<BufferedUrl>comparingInt(url -> url.segment).thenComparingLong(url -> url.offset);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+    private final int maxInFlightPerHost;
+    private final ToLongFunction<String> hostDelayMillis;
+    private final long segmentBytes;
+    private final Map<String, Host> hosts = new LinkedHashMap<>();
+    private final List<Host> hostOrder = new ArrayList<>();
+    private int nextHost;
+    private int nextQueueId;
+    private long pending;
+    private int inFlight;
+    private int pollsSinceCheckpoint;
+    private boolean recovered;
+    private boolean seeded;
+
+    /**
+     * @param hostDelayMillis delay between URLs of one host, by website name
+     */
+    public DiskFrontier(Path directory, int maxInFlightPerHost, ToLongFunction<String> hostDelayMillis)
+            throws IOException {
+        this(directory, maxInFlightPerHost, hostDelayMillis, DEFAULT_SEGMENT_BYTES);
+    }
+
+    DiskFrontier(Path directory, int maxInFlightPerHost, ToLongFunction<String> hostDelayMillis, long segmentBytes)
+            throws IOException {
+        this.directory = directory;
+        this.maxInFlightPerHost = Math.max(1, maxInFlightPerHost);
+        this.hostDelayMillis = hostDelayMillis;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    public synchronized void add(String websiteName, String url, int priority) throws IOException {
+        if (priority < 0 || priority >= PRIORITY_LEVELS) {
+            throw new IllegalArgumentException("Priority must be between 0 and " + (PRIORITY_LEVELS - 1));
+        }
+        Host host = hosts.get(websiteName + '\n' + hostOf(url));
+        if (host == null) {
+            host = addHost(websiteName, hostOf(url));
+        }
+        SegmentQueue queue = host.queues[priority];
+        if (queue == null) {
+            queue = new SegmentQueue(nextQueueId++, priority);
+            host.queues[priority] = queue;
+            // Record the new queue straight away so its segments are found again after a crash.
+            writeState();
+        }
+        queue.append(url);
+        pending++;
+        notifyAll();
+    }
+
+    /**
+     * Returns the next eligible URL, or null if no host has one right now.
+     */
+    public synchronized Entry poll() throws IOException {
+        long now = System.nanoTime();
+        for (int priority = 0; priority < PRIORITY_LEVELS; priority++) {
+            for (int i = 0; i < hostOrder.size(); i++) {
+                int index = (nextHost + i) % hostOrder.size();
+                Host host = hostOrder.get(index);
+                SegmentQueue queue = host.queues[priority];
+                if (queue == null || queue.isEmpty() || !host.isEligible(now, maxInFlightPerHost)) {
+                    continue;
+                }
+                BufferedUrl url = queue.poll();
+                nextHost = (index + 1) % hostOrder.size();
+                host.inFlight++;
+                inFlight++;
+                pending--;
+                if (++pollsSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                    checkpoint();
+                }
+                return new Entry(host, queue, url, priority);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the next eligible URL. Returns null once the frontier is empty and nothing is in flight,
+     * since no more URLs can then appear unless added from outside.
+     */
+    public synchronized Entry take() throws IOException, InterruptedException {
+        while (true) {
+            Entry entry = poll();
+            if (entry != null) {
+                return entry;
+            }
+            if (pending == 0 && inFlight == 0) {
+                return null;
+            }
+            long waitNanos = nanosUntilEligible();
+            if (waitNanos == Long.MAX_VALUE) {
+                wait();
+            } else {
+                TimeUnit.NANOSECONDS.timedWait(this, Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+        }
+    }
+
+    public synchronized void complete(Entry entry) {
+        Host host = entry.host;
+        entry.queue.unfinished.remove(entry.position);
+        host.inFlight--;
+        inFlight--;
+        host.nextEligibleNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(host.delayMillis);
+        notifyAll();
+    }
+
+    public synchronized long size() {
+        return pending;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Whether the queues were loaded from an earlier run, whose pending URLs are then already queued.
+     */
+    public synchronized boolean isRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Records that every start URL has been added, e.g. that discovery finished, and checkpoints so that the
+     * URLs still buffered in the segment writers reach the disk.
+     */
+    public synchronized void markSeeded() throws IOException {
+        seeded = true;
+        checkpoint();
+    }
+
+    /**
+     * Whether the frontier stored in a directory was fully seeded. One that was not, say because the run was
+     * killed during discovery, lacks URLs that were never found and may have lost the last ones added.
+     */
+    public static boolean isSeeded(Path directory) throws IOException {
+        Path stateFile = directory.resolve(STATE_FILE);
+        return Files.exists(stateFile) && new ObjectMapper().readValue(stateFile.toFile(), FrontierState.class).seeded;
+    }
+
+    /**
+     * Deletes the frontier stored in a directory, so that a new run does not pick up an earlier run's URLs.
+     */
+    public static void clear(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "{*.seg," + STATE_FILE + "*}")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        for (Host host : hostOrder) {
+            for (SegmentQueue queue : host.queues) {
+                if (queue != null) {
+                    queue.flush();
+                }
+            }
+        }
+        writeState();
+        pollsSinceCheckpoint = 0;
+        for (Host host : hostOrder) {
+            for (SegmentQueue queue : host.queues) {
+                if (queue != null) {
+                    queue.deleteConsumedSegments();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        checkpoint();
+        for (Host host : hostOrder) {
+            for (SegmentQueue queue : host.queues) {
+                if (queue != null) {
+                    queue.closeWriter();
+                }
+            }
+        }
+    }
+
+    private long nanosUntilEligible() {
+        long now = System.nanoTime();
+        long earliest = Long.MAX_VALUE;
+        for (Host host : hostOrder) {
+            if (host.inFlight < maxInFlightPerHost && host.hasWork()) {
+                earliest = Math.min(earliest, host.nextEligibleNanos - now);
+            }
+        }
+        return earliest;
+    }
+
+    private Host addHost(String websiteName, String hostName) {
+        Host host = new Host(websiteName, hostName, hostDelayMillis.applyAsLong(websiteName));
+        hosts.put(websiteName + '\n' + hostName, host);
+        hostOrder.add(host);
+        return host;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private Path segmentPath(int queueId, int segment) {
+        return directory.resolve(String.format("q%d-%08d.seg", queueId, segment));
+    }
+
+    private void writeState() throws IOException {
+        FrontierState state = new FrontierState();
+        state.nextQueueId = nextQueueId;
+        state.seeded = seeded;
+        for (Host host : hostOrder) {
+            for (SegmentQueue queue : host.queues) {
+                if (queue != null) {
+                    QueueState queueState = new QueueState();
+                    queueState.id = queue.id;
+                    queueState.websiteName = host.websiteName;
+                    queueState.host = host.hostName;
+                    queueState.priority = queue.priority;
+                    BufferedUrl restart = queue.restartPosition();
+                    queueState.segment = restart.segment;
+                    queueState.offset = restart.offset;
+                    state.queues.add(queueState);
+                }
+            }
+        }
+        Path stateFile = directory.resolve(STATE_FILE);
+        Path temp = directory.resolve(STATE_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), state);
+        try {
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void load() throws IOException {
+        Path stateFile = directory.resolve(STATE_FILE);
+        if (!Files.exists(stateFile)) {
+            return;
+        }
+        FrontierState state = objectMapper.readValue(stateFile.toFile(), FrontierState.class);
+        recovered = true;
+        seeded = state.seeded;
+        nextQueueId = state.nextQueueId;
+        for (QueueState queueState : state.queues) {
+            Host host = hosts.get(queueState.websiteName + '\n' + queueState.host);
+            if (host == null) {
+                host = addHost(queueState.websiteName, queueState.host);
+            }
+            SegmentQueue queue = new SegmentQueue(queueState.id, queueState.priority);
+            queue.recover(queueState.segment, queueState.offset);
+            host.queues[queueState.priority] = queue;
+            pending += queue.onDisk;
+        }
+        logger.info("Loaded URL frontier from {}: {} pending URLs across {} hosts", directory, pending,
+                hostOrder.size());
+    }
+
+    public static final class Entry {
+        private final Host host;
+        private final SegmentQueue queue;
+        private final BufferedUrl position;
+        private final int priority;
+
+        private Entry(Host host, SegmentQueue queue, BufferedUrl position, int priority) {
+            this.host = host;
+            this.queue = queue;
+            this.position = position;
+            this.priority = priority;
+        }
+
+        public String getWebsiteName() {
+            return host.websiteName;
+        }
+
+        public String getUrl() {
+            return position.url;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private static final class Host {
+        private final String websiteName;
+        private final String hostName;
+        private final long delayMillis;
+        private final SegmentQueue[] queues = new SegmentQueue[PRIORITY_LEVELS];
+        private long nextEligibleNanos = System.nanoTime();
+        private int inFlight;
+
+        private Host(String websiteName, String hostName, long delayMillis) {
+            this.websiteName = websiteName;
+            this.hostName = hostName;
+            this.delayMillis = delayMillis;
+        }
+
+        private boolean hasWork() {
+            for (SegmentQueue queue : queues) {
+                if (queue != null && !queue.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isEligible(long now, int maxInFlight) {
+            return inFlight < maxInFlight && now - nextEligibleNanos >= 0;
+        }
+    }
+
+    private final class SegmentQueue {
+        private final int id;
+        private final int priority;
+        private final ArrayDeque<BufferedUrl> buffer = new ArrayDeque<>();
+        private final TreeSet<BufferedUrl> unfinished = new TreeSet<>(POSITION_ORDER);
+        private int oldestSegment;
+        private int headSegment;
+        private long headOffset;
+        private int readSegment;
+        private long readOffset;
+        private int writeSegment;
+        private long writeOffset;
+        private long flushedOffset;
+        private long onDisk;
+        private DataOutputStream writer;
+
+        private SegmentQueue(int id, int priority) {
+            this.id = id;
+            this.priority = priority;
+        }
+
+        private boolean isEmpty() {
+            return buffer.isEmpty() && onDisk == 0;
+        }
+
+        private void append(String url) throws IOException {
+            if (writer != null && writeOffset >= segmentBytes) {
+                closeWriter();
+                writeSegment++;
+                writeOffset = 0;
+                flushedOffset = 0;
+            }
+            if (writer == null) {
+                writer = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                        segmentPath(id, writeSegment), StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                        64 * 1024));
+            }
+            byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+            writer.writeInt(bytes.length);
+            writer.write(bytes);
+            writeOffset += 4 + bytes.length;
+            onDisk++;
+        }
+
+        private BufferedUrl poll() throws IOException {
+            if (buffer.isEmpty()) {
+                refill();
+            }
+            BufferedUrl next = buffer.poll();
+            unfinished.add(next);
+            BufferedUrl head = buffer.peek();
+            if (head != null) {
+                headSegment = head.segment;
+                headOffset = head.offset;
+            } else {
+                headSegment = readSegment;
+                headOffset = readOffset;
+            }
+            return next;
+        }
+
+        /**
+         * Where reading resumes after a crash: the oldest URL still in flight, or else the head.
+         */
+        private BufferedUrl restartPosition() {
+            return unfinished.isEmpty() ? new BufferedUrl(null, headSegment, headOffset) : unfinished.first();
+        }
+
+        /**
+         * Deletes the segments before the restart position. Only called once that position has been checkpointed,
+         * so a crash never loses URLs that were handed out but not yet completed.
+         */
+        private void deleteConsumedSegments() throws IOException {
+            int restartSegment = restartPosition().segment;
+            while (oldestSegment < restartSegment) {
+                Files.deleteIfExists(segmentPath(id, oldestSegment++));
+            }
+        }
+
+        private void refill() throws IOException {
+            while (buffer.isEmpty() && onDisk > 0) {
+                if (readSegment == writeSegment && readOffset >= flushedOffset) {
+                    flush();
+                }
+                long size = readSegment == writeSegment ? flushedOffset : Files.size(segmentPath(id, readSegment));
+                if (readOffset >= size) {
+                    readSegment++;
+                    readOffset = 0;
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(segmentPath(id, readSegment), StandardOpenOption.READ)) {
+                    channel.position(readOffset);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(
+                            Channels.newInputStream(channel), 64 * 1024));
+                    while (buffer.size() < READ_BATCH && readOffset < size) {
+                        int length = in.readInt();
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        buffer.add(new BufferedUrl(new String(bytes, StandardCharsets.UTF_8), readSegment, readOffset));
+                        readOffset += 4 + length;
+                        onDisk--;
+                    }
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            flushedOffset = writeOffset;
+        }
+
+        private void closeWriter() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            flushedOffset = writeOffset;
+        }
+
+        /**
+         * Rebuilds the queue from its segment files, starting at the checkpointed position. A record
+         * cut short by a crash is truncated away.
+         */
+        private void recover(int segment, long offset) throws IOException {
+            TreeSet<Integer> segments = new TreeSet<>();
+            String prefix = "q" + id + "-";
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*.seg")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    segments.add(Integer.parseInt(name.substring(prefix.length(), name.length() - 4)));
+                }
+            }
+            Integer first = segments.ceiling(segment);
+            if (first == null) {
+                oldestSegment = headSegment = readSegment = writeSegment = segment;
+                return;
+            }
+            if (first.intValue() != segment) {
+                offset = 0;
+            }
+            for (Integer stale : segments.headSet(first)) {
+                Files.deleteIfExists(segmentPath(id, stale));
+            }
+            oldestSegment = headSegment = readSegment = first;
+            headOffset = readOffset = offset;
+            for (Integer current : segments.tailSet(first)) {
+                long start = current.equals(first) ? offset : 0;
+                long valid = countRecords(segmentPath(id, current), start);
+                writeSegment = current;
+                writeOffset = valid;
+            }
+            flushedOffset = writeOffset;
+        }
+
+        private long countRecords(Path segmentFile, long start) throws IOException {
+            try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                channel.position(start);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        Channels.newInputStream(channel), 64 * 1024));
+                long position = start;
+                while (size - position >= 4) {
+                    int length = in.readInt();
+                    if (length < 0 || size - position - 4 < length) {
+                        break;
+                    }
+                    in.skipBytes(length);
+                    position += 4 + length;
+                    onDisk++;
+                }
+                if (position < size) {
+                    logger.warn("Truncating incomplete frontier record at {} in {}", position, segmentFile);
+                    channel.truncate(position);
+                }
+                return position;
+            }
+        }
+    }
+
+    private static final class BufferedUrl {
+        private final String url;
+        private final int segment;
+        private final long offset;
+
+        private BufferedUrl(String url, int segment, long offset) {
+            this.url = url;
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    static class FrontierState {
+        public int nextQueueId;
+        public boolean seeded;
+        public List<QueueState> queues = new ArrayList<>();
+    }
+
+    static class QueueState {
+        public int id;
+        public String websiteName;
+        public String host;
+        public int priority;
+        public int segment;
+        public long offset;
+    }
+}
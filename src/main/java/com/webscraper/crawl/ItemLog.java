@@ -0,0 +1,251 @@
+package com.webscraper.crawl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.ItemSink;
+import com.webscraper.util.WorkerExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-ahead log of scraped pages, one NDJSON record per page with its items, appended as soon as the page
+ * is scraped. Records are fsynced in batches: after a number of records or a time interval, whichever comes
+ * first. A run started with {@code --resume} reads the log back to skip completed URLs.
+ */
+@Component
+public class ItemLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemLog.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final Path file;
+    private final int syncEveryRecords;
+    private final long syncIntervalMillis;
+    private FileChannel channel;
+    private OutputStream out;
+    private ScheduledExecutorService syncScheduler;
+    private int unsyncedRecords;
+    private long records;
+    private long syncs;
+
+    @Autowired
+    public ItemLog(ScraperProperties properties) {
+        this(properties.getProperty("wal.enabled", Boolean.class, true),
+                Paths.get(properties.getProperty("wal.file", String.class, ".cache/items.wal")),
+                properties.getProperty("wal.syncEveryRecords", Integer.class, 64),
+                properties.getProperty("wal.syncIntervalMillis", Long.class, 1000L));
+    }
+
+    public ItemLog(boolean enabled, Path file, int syncEveryRecords, long syncIntervalMillis) {
+        this.enabled = enabled;
+        this.file = file;
+        this.syncEveryRecords = Math.max(1, syncEveryRecords);
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the log for appending. When resuming, existing records are kept and the URLs they cover are
+     * returned; otherwise the log of the previous run is discarded.
+     */
+    public synchronized Set<String> open(boolean resume) throws IOException {
+        Set<String> completedUrls = new HashSet<>();
+        if (!enabled) {
+            return completedUrls;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (!resume) {
+            Files.deleteIfExists(file);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long validLength = scan(record -> completedUrls.add(record.url));
+        if (validLength < channel.size()) {
+            logger.warn("Truncating incomplete record at the end of {}", file);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        out = Channels.newOutputStream(channel);
+        if (syncIntervalMillis > 0) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(
+                    WorkerExecutors.namedThreadFactory("item-log-sync"));
+            syncScheduler.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (resume) {
+            logger.info("Resuming from {}: {} pages already completed", file, completedUrls.size());
+        }
+        return completedUrls;
+    }
+
+    public void append(String websiteName, String url, List<MachineryItem> items) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        byte[] line = (objectMapper.writeValueAsString(new PageRecord(websiteName, url, items)) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            if (out == null) {
+                throw new IllegalStateException("Item log is not open");
+            }
+            out.write(line);
+            records++;
+            if (++unsyncedRecords >= syncEveryRecords) {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * Feeds every logged item, in log order, to the sink. A page logged more than once (scraped again after
+     * a crash before its first record was seen) contributes only its first record.
+     */
+    public void replay(ItemSink sink) throws IOException {
+        synchronized (this) {
+            if (channel != null) {
+                sync();
+            }
+        }
+        Set<String> replayedUrls = new HashSet<>();
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readLines(Channels.newInputStream(readChannel), record -> {
+                if (!replayedUrls.add(record.url)) {
+                    return;
+                }
+                for (MachineryItem item : record.items) {
+                    sink.accept(item);
+                }
+            });
+        }
+    }
+
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    public synchronized long getSyncCount() {
+        return syncs;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+            syncScheduler = null;
+        }
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+            out = null;
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        if (unsyncedRecords > 0) {
+            channel.force(false);
+            unsyncedRecords = 0;
+            syncs++;
+        }
+    }
+
+    private synchronized void syncQuietly() {
+        try {
+            if (channel != null) {
+                sync();
+            }
+        } catch (IOException e) {
+            logger.error("Could not sync item log {}", file, e);
+        }
+    }
+
+    private long scan(RecordHandler handler) throws IOException {
+        channel.position(0);
+        return readLines(Channels.newInputStream(channel), record -> {
+            records++;
+            handler.handle(record);
+        });
+    }
+
+    /**
+     * Reads complete, parsable records and returns the byte length they cover.
+     */
+    private long readLines(InputStream rawIn, RecordHandler handler) throws IOException {
+        InputStream in = new BufferedInputStream(rawIn, 64 * 1024);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = 0;
+        long validLength = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            position++;
+            if (b != '\n') {
+                line.write(b);
+                continue;
+            }
+            if (line.size() > 0) {
+                PageRecord record;
+                try {
+                    record = objectMapper.readValue(line.toByteArray(), PageRecord.class);
+                } catch (JsonProcessingException e) {
+                    logger.warn("Stopping at unreadable record at byte {} of {}", validLength, file);
+                    break;
+                }
+                handler.handle(record);
+            }
+            validLength = position;
+            line.reset();
+        }
+        return validLength;
+    }
+
+    private interface RecordHandler {
+        void handle(PageRecord record) throws IOException;
+    }
+
+    public static class PageRecord {
+        public String website;
+        public String url;
+        public List<MachineryItem> items = new ArrayList<>();
+
+        public PageRecord() {
+        }
+
+        PageRecord(String website, String url, List<MachineryItem> items) {
+            this.website = website;
+            this.url = url;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.webscraper.dedupe;
+
+import com.webscraper.model.MachineryItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A listing and the near-duplicates of it found on the same or other websites.
+ */
+public class DuplicateCluster {
+
+    private final MachineryItem canonical;
+    private final List<MachineryItem> duplicates = new ArrayList<>();
+
+    public DuplicateCluster(MachineryItem canonical) {
+        this.canonical = canonical;
+    }
+
+    void addDuplicate(MachineryItem duplicate) {
+        duplicates.add(duplicate);
+    }
+
+    public MachineryItem getCanonical() {
+        return canonical;
+    }
+
+    public List<MachineryItem> getDuplicates() {
+        return Collections.unmodifiableList(duplicates);
+    }
+
+    public int size() {
+        return duplicates.size() + 1;
+    }
+}
@@ -0,0 +1,153 @@
+package com.webscraper.dedupe;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.model.ListingStatus;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.ItemSink;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups listings of the same machine, usually advertised on several websites, using a
+ * {@link NearDuplicateDetector} configured by {@code scraper.dedupe.*}.
+ */
+@Component
+public class ListingDeduplicator {
+
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+
+    @Autowired
+    public ListingDeduplicator(ScraperProperties properties) {
+        this(properties.getProperty("dedupe.bands", Integer.class, 12),
+                properties.getProperty("dedupe.rows", Integer.class, 4),
+                properties.getProperty("dedupe.threshold", Double.class, 0.6));
+    }
+
+    public ListingDeduplicator(int bands, int rows, double threshold) {
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+    }
+
+    public NearDuplicateDetector newDetector() {
+        return new NearDuplicateDetector(bands, rows, threshold);
+    }
+
+    /**
+     * Returns one cluster per distinct listing, in the order the listings first appear. The listing with the
+     * most fields filled in becomes the cluster's canonical item. Error placeholders each get a cluster of their
+     * own.
+     */
+    public List<DuplicateCluster> cluster(List<MachineryItem> items) {
+        NearDuplicateDetector detector = newDetector();
+        // Placeholders get negative keys of their own, so they stay in place and are never merged.
+        Map<Integer, List<MachineryItem>> groups = new LinkedHashMap<>();
+        int placeholders = 0;
+        for (MachineryItem item : items) {
+            int key = isPlaceholder(item) ? --placeholders : detector.add(item);
+            groups.computeIfAbsent(key, id -> new ArrayList<>(1)).add(item);
+        }
+        List<DuplicateCluster> clusters = new ArrayList<>(groups.size());
+        for (List<MachineryItem> group : groups.values()) {
+            MachineryItem canonical = group.get(0);
+            for (MachineryItem item : group) {
+                if (filledFields(item) > filledFields(canonical)) {
+                    canonical = item;
+                }
+            }
+            DuplicateCluster cluster = new DuplicateCluster(canonical);
+            for (MachineryItem item : group) {
+                if (item != canonical) {
+                    cluster.addDuplicate(item);
+                }
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+
+    /**
+     * Returns a sink that forwards only the first listing of each cluster to the delegate, so duplicates are
+     * dropped while items stream through. Error placeholders are passed through as they are. It keeps a
+     * reference to every forwarded listing, to report the clusters at the end.
+     */
+    public DedupingSink dedupingSink(ItemSink delegate) {
+        return new DedupingSink(newDetector(), delegate);
+    }
+
+    /**
+     * Whether the item stands for a page that failed. Its fields are only guessed from the URL, so it must not
+     * be merged with other failed pages or take the place of a real listing.
+     */
+    private static boolean isPlaceholder(MachineryItem item) {
+        return ListingStatus.ERROR.getLabel().equals(item.getStatus());
+    }
+
+    private static int filledFields(MachineryItem item) {
+        int filled = 0;
+        for (String value : new String[]{item.getModel(), item.getContractType(), item.getMake(), item.getYear(),
+                item.getWorkedHours(), item.getCity(), item.getPrice(), item.getPhotoUrl()}) {
+            if (value != null && !value.isEmpty()) {
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    public static class DedupingSink implements ItemSink {
+        private final NearDuplicateDetector detector;
+        private final ItemSink delegate;
+        private final Map<Integer, MachineryItem> forwarded = new LinkedHashMap<>();
+        private final Map<Integer, DuplicateCluster> clusters = new LinkedHashMap<>();
+        private long duplicateCount;
+
+        DedupingSink(NearDuplicateDetector detector, ItemSink delegate) {
+            this.detector = detector;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(MachineryItem item) throws IOException {
+            if (isPlaceholder(item)) {
+                delegate.accept(item);
+                return;
+            }
+            synchronized (this) {
+                int id = detector.size();
+                int canonicalId = detector.add(item);
+                if (canonicalId != id) {
+                    duplicateCount++;
+                    clusters.computeIfAbsent(canonicalId, key -> new DuplicateCluster(forwarded.get(key)))
+                            .addDuplicate(item);
+                    return;
+                }
+                forwarded.put(id, item);
+            }
+            delegate.accept(item);
+        }
+
+        /**
+         * The clusters that have at least one duplicate, in the order their canonical listings arrived.
+         */
+        public synchronized List<DuplicateCluster> getClusters() {
+            return new ArrayList<>(clusters.values());
+        }
+
+        public synchronized long getDuplicateCount() {
+            return duplicateCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
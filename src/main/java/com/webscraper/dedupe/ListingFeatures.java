@@ -0,0 +1,197 @@
+package com.webscraper.dedupe;
+
+import com.webscraper.model.MachineryItem;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a listing into a set of hashed features for MinHash: make and model words, the model number (weighted)
+ * and its digits as trigrams, year, city words, worked hours and price (in overlapping ~4% buckets, so prices that
+ * differ slightly between sites still share a feature) and the photo's file name.
+ */
+final class ListingFeatures {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final double PRICE_BUCKET = Math.log(1.04);
+
+    private long[] hashes = new long[32];
+    private int size;
+
+    private ListingFeatures() {
+    }
+
+    static long[] of(MachineryItem item) {
+        ListingFeatures features = new ListingFeatures();
+        List<String> makeWords = words(normalize(item.getMake()));
+        for (String word : makeWords) {
+            features.add("make", word);
+        }
+        String model = normalize(item.getModel());
+        for (String word : words(model)) {
+            if (!makeWords.contains(word)) {
+                features.add("model", word);
+            }
+        }
+        // "7230J", "7230 J" and "7230-j" should still look alike.
+        String modelNumber = alphanumeric(model);
+        if (!digits(modelNumber).isEmpty()) {
+            // The model number is what tells two machines of the same make apart, so it counts three times.
+            for (int copy = 0; copy < 3; copy++) {
+                features.add("number" + copy, modelNumber);
+            }
+            for (int i = 0; i + 3 <= modelNumber.length(); i++) {
+                if (isDigit(modelNumber.charAt(i)) || isDigit(modelNumber.charAt(i + 2))) {
+                    features.add("gram", modelNumber.substring(i, i + 3));
+                }
+            }
+        }
+        features.add("year", digits(item.getYear()));
+        for (String word : words(normalize(item.getCity()))) {
+            features.add("city", word);
+        }
+        String hours = digits(item.getWorkedHours());
+        if (!hours.isEmpty() && hours.length() < 9) {
+            features.add("hours", String.valueOf(Long.parseLong(hours) / 10));
+        }
+        String price = digits(withoutCents(item.getPrice()));
+        if (!price.isEmpty() && price.length() < 16) {
+            double bucket = Math.log(Math.max(1, Long.parseLong(price))) / PRICE_BUCKET;
+            features.add("price", String.valueOf((long) bucket));
+            features.add("price~", String.valueOf((long) (bucket + 0.5)));
+        }
+        features.add("photo", photoName(item.getPhotoUrl()));
+        return features.toSet();
+    }
+
+    static long hash(String prefix, String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < prefix.length(); i++) {
+            hash = (hash ^ prefix.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ ':') * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private void add(String prefix, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        hashes[size++] = hash(prefix, value);
+    }
+
+    private long[] toSet() {
+        long[] sorted = Arrays.copyOf(hashes, size);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7f) {
+                String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+                return ACCENTS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        }
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static String alphanumeric(String text) {
+        StringBuilder kept = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            if (isWordChar(text.charAt(i))) {
+                kept.append(text.charAt(i));
+            }
+        }
+        return kept.toString();
+    }
+
+    private static String withoutCents(String price) {
+        if (price == null) {
+            return null;
+        }
+        String trimmed = price.trim();
+        int length = trimmed.length();
+        if (length >= 3 && (trimmed.charAt(length - 3) == '.' || trimmed.charAt(length - 3) == ',')
+                && isDigit(trimmed.charAt(length - 2)) && isDigit(trimmed.charAt(length - 1))) {
+            return trimmed.substring(0, length - 3);
+        }
+        return trimmed;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || isDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String digits(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static String photoName(String photoUrl) {
+        if (photoUrl == null || photoUrl.isEmpty()) {
+            return "";
+        }
+        String path = photoUrl;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int extension = name.lastIndexOf('.');
+        return (extension > 0 ? name.substring(0, extension) : name).toLowerCase(Locale.ROOT);
+    }
+}
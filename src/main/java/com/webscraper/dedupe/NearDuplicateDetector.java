@@ -0,0 +1,201 @@
+package com.webscraper.dedupe;
+
+import com.webscraper.model.MachineryItem;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass near-duplicate detection with MinHash signatures and LSH banding. Each added listing is compared
+ * only with the earlier listings it shares a band bucket with, so the cost per listing does not grow with the
+ * number of listings seen. Candidates count as duplicates when their estimated Jaccard similarity reaches the
+ * threshold.
+ * <p>
+ * Per listing it keeps a signature of 16-bit hash prefixes and one bucket entry per band, about 200 bytes with
+ * the default 12 bands of 4 rows.
+ */
+public class NearDuplicateDetector {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final int bands;
+    private final int rows;
+    private final int hashCount;
+    private final double threshold;
+    private final long[] seeds;
+    private final BandTable[] tables;
+    private short[][] signatures = new short[0][];
+    private int[] canonicalIds = new int[1024];
+    private int size;
+
+    public NearDuplicateDetector(int bands, int rows, double threshold) {
+        if (bands <= 0 || rows <= 0 || threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("Invalid LSH settings: " + bands + " bands, " + rows + " rows, "
+                    + "threshold " + threshold);
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.hashCount = bands * rows;
+        this.threshold = threshold;
+        this.seeds = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            seeds[i] = ListingFeatures.mix(0x9E3779B97F4A7C15L * (i + 1)) | 1;
+        }
+        this.tables = new BandTable[bands];
+        for (int band = 0; band < bands; band++) {
+            tables[band] = new BandTable();
+        }
+    }
+
+    /**
+     * Adds the listing under the next id ({@link #size()} before the call) and returns the id of the earliest
+     * listing it duplicates, or its own id if it is not a duplicate.
+     */
+    public synchronized int add(MachineryItem item) {
+        int id = size;
+        long[] features = ListingFeatures.of(item);
+        int[] signature = signature(features);
+        short[] stored = store(id, signature);
+        if (id == canonicalIds.length) {
+            canonicalIds = Arrays.copyOf(canonicalIds, id * 2);
+        }
+        canonicalIds[id] = id;
+        size++;
+        if (features.length == 0) {
+            // Nothing to compare: an empty listing is not a duplicate of every other empty listing.
+            return id;
+        }
+
+        int canonicalId = id;
+        int bestMatches = (int) Math.ceil(threshold * hashCount) - 1;
+        for (int band = 0; band < bands; band++) {
+            // Buckets keep their first listing; later ones only fill empty buckets.
+            int candidate = tables[band].putIfAbsent(bandKey(signature, band), id);
+            if (candidate < 0) {
+                continue;
+            }
+            int matches = matches(stored, candidate);
+            if (matches > bestMatches) {
+                bestMatches = matches;
+                canonicalId = canonicalIds[candidate];
+            }
+        }
+        canonicalIds[id] = canonicalId;
+        return canonicalId;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Estimated Jaccard similarity of two added listings.
+     */
+    public synchronized double similarity(int first, int second) {
+        return (double) matches(signatureOf(first), second) / hashCount;
+    }
+
+    private int[] signature(long[] features) {
+        int[] signature = new int[hashCount];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        // Features are already well mixed, so multiply-shift by an odd seed is enough for each hash function.
+        for (long feature : features) {
+            for (int i = 0; i < hashCount; i++) {
+                int value = (int) ((feature * seeds[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private int bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            key = ListingFeatures.mix(key * 31 + signature[row]);
+        }
+        return (int) key;
+    }
+
+    private short[] store(int id, int[] signature) {
+        int chunk = id >>> CHUNK_BITS;
+        if (chunk == signatures.length) {
+            signatures = Arrays.copyOf(signatures, chunk + 1);
+            signatures[chunk] = new short[CHUNK_SIZE * hashCount];
+        }
+        short[] stored = new short[hashCount];
+        int offset = (id & (CHUNK_SIZE - 1)) * hashCount;
+        for (int i = 0; i < hashCount; i++) {
+            stored[i] = (short) (signature[i] >>> 15);
+            signatures[chunk][offset + i] = stored[i];
+        }
+        return stored;
+    }
+
+    private short[] signatureOf(int id) {
+        int offset = (id & (CHUNK_SIZE - 1)) * hashCount;
+        return Arrays.copyOfRange(signatures[id >>> CHUNK_BITS], offset, offset + hashCount);
+    }
+
+    private int matches(short[] signature, int other) {
+        short[] chunk = signatures[other >>> CHUNK_BITS];
+        int offset = (other & (CHUNK_SIZE - 1)) * hashCount;
+        int matches = 0;
+        for (int i = 0; i < hashCount; i++) {
+            if (signature[i] == chunk[offset + i]) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Open-addressing map from a band's bucket key to the first listing id in that bucket, with keys and ids
+     * packed into one long per slot.
+     */
+    private static final class BandTable {
+        private long[] slots = new long[1024];
+        private int count;
+
+        /**
+         * Returns the listing already in the key's bucket, or stores the id there and returns -1.
+         */
+        int putIfAbsent(int key, int id) {
+            if (count * 4 >= slots.length * 3) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            for (int slot = spread(key) & mask; ; slot = (slot + 1) & mask) {
+                long entry = slots[slot];
+                if (entry == 0) {
+                    slots[slot] = ((long) key << 32) | (id + 1L);
+                    count++;
+                    return -1;
+                }
+                if ((int) (entry >>> 32) == key) {
+                    return (int) entry - 1;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            int mask = slots.length - 1;
+            for (long entry : old) {
+                if (entry != 0) {
+                    int slot = spread((int) (entry >>> 32)) & mask;
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = entry;
+                }
+            }
+        }
+
+        private static int spread(int key) {
+            return key ^ (key >>> 16);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.webscraper.extract;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Multi-pattern matcher over a character stream. All phrases are found in one pass,
+ * whatever their number, by following goto/failure transitions of an Aho-Corasick automaton.
+ */
+final class AhoCorasickMatcher {
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final int patternCount;
+
+    AhoCorasickMatcher(List<String> patterns) {
+        this.patternCount = patterns.size();
+        nodes.add(new Node());
+        for (int i = 0; i < patterns.size(); i++) {
+            int state = 0;
+            for (char c : patterns.get(i).toCharArray()) {
+                int next = nodes.get(state).next(c);
+                if (next < 0) {
+                    next = nodes.size();
+                    nodes.add(new Node());
+                    nodes.get(state).put(c, next);
+                }
+                state = next;
+            }
+            nodes.get(state).outputs.set(i);
+        }
+        buildFailureLinks();
+    }
+
+    int getPatternCount() {
+        return patternCount;
+    }
+
+    Scanner newScanner() {
+        return new Scanner();
+    }
+
+    private void buildFailureLinks() {
+        Queue<Integer> queue = new ArrayDeque<>();
+        Node root = nodes.get(0);
+        for (int i = 0; i < root.size; i++) {
+            nodes.get(root.targets[i]).failure = 0;
+            queue.add(root.targets[i]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            Node node = nodes.get(state);
+            for (int i = 0; i < node.size; i++) {
+                char c = node.keys[i];
+                int child = node.targets[i];
+                int failure = node.failure;
+                while (failure > 0 && nodes.get(failure).next(c) < 0) {
+                    failure = nodes.get(failure).failure;
+                }
+                int fallback = nodes.get(failure).next(c);
+                Node childNode = nodes.get(child);
+                childNode.failure = fallback >= 0 && fallback != child ? fallback : 0;
+                childNode.outputs.or(nodes.get(childNode.failure).outputs);
+                queue.add(child);
+            }
+        }
+    }
+
+    final class Scanner {
+        private final BitSet matches = new BitSet(patternCount);
+        private int state;
+
+        void feed(char c) {
+            while (state > 0 && nodes.get(state).next(c) < 0) {
+                state = nodes.get(state).failure;
+            }
+            int next = nodes.get(state).next(c);
+            state = next < 0 ? 0 : next;
+            BitSet outputs = nodes.get(state).outputs;
+            if (!outputs.isEmpty()) {
+                matches.or(outputs);
+            }
+        }
+
+        BitSet getMatches() {
+            return matches;
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[2];
+        private int[] targets = new int[2];
+        private int size;
+        private int failure;
+        private final BitSet outputs = new BitSet();
+
+        int next(char c) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == c) {
+                    return targets[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(char c, int target) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            keys[size] = c;
+            targets[size] = target;
+            size++;
+        }
+    }
+}
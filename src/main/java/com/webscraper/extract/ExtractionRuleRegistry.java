@@ -0,0 +1,97 @@
+package com.webscraper.extract;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class ExtractionRuleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionRuleRegistry.class);
+    private static final String RULES_LOCATION = "classpath*:sites/*.json";
+
+    private final Map<String, SiteExtractor> extractors = new LinkedHashMap<>();
+    private final Map<String, SiteRules.Discovery> discoveries = new LinkedHashMap<>();
+    private final Map<String, SiteRules.Canonical> canonicalRules = new LinkedHashMap<>();
+    private final StatusClassifier statusClassifier;
+
+    public ExtractionRuleRegistry() throws IOException {
+        this(loadRules());
+        logger.info("Compiled extraction rules for {} websites: {}", extractors.size(), extractors.keySet());
+    }
+
+    public ExtractionRuleRegistry(Collection<SiteRules> rules) {
+        this.statusClassifier = new StatusClassifier(rules);
+        for (SiteRules siteRules : rules) {
+            register(siteRules);
+        }
+    }
+
+    private static List<SiteRules> loadRules() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<SiteRules> rules = new ArrayList<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(RULES_LOCATION);
+        for (Resource resource : resources) {
+            try (InputStream in = resource.getInputStream()) {
+                rules.add(objectMapper.readValue(in, SiteRules.class));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load extraction rules from " + resource, e);
+            }
+        }
+        return rules;
+    }
+
+    private void register(SiteRules rules) {
+        SiteExtractor extractor = SiteExtractor.compile(rules, statusClassifier);
+        if (extractors.putIfAbsent(extractor.getWebsiteName(), extractor) != null) {
+            throw new IllegalArgumentException("Duplicate extraction rules for " + extractor.getWebsiteName());
+        }
+        if (rules.discovery != null) {
+            discoveries.put(rules.website, rules.discovery);
+        }
+        if (rules.canonical != null) {
+            canonicalRules.put(rules.website, rules.canonical);
+        }
+    }
+
+    public Optional<SiteExtractor> find(String websiteName) {
+        return Optional.ofNullable(extractors.get(websiteName));
+    }
+
+    public SiteExtractor get(String websiteName) {
+        SiteExtractor extractor = extractors.get(websiteName);
+        if (extractor == null) {
+            throw new IllegalStateException("No extraction rules found for " + websiteName);
+        }
+        return extractor;
+    }
+
+    public Optional<SiteRules.Discovery> findDiscovery(String websiteName) {
+        return Optional.ofNullable(discoveries.get(websiteName));
+    }
+
+    public Map<String, SiteRules.Canonical> getCanonicalRules() {
+        return Collections.unmodifiableMap(canonicalRules);
+    }
+
+    public StatusClassifier getStatusClassifier() {
+        return statusClassifier;
+    }
+
+    public Collection<String> getWebsiteNames() {
+        return Collections.unmodifiableCollection(extractors.keySet());
+    }
+}
@@ -0,0 +1,48 @@
+package com.webscraper.extract;
+
+import com.webscraper.model.MachineryItem;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public enum ItemField {
+    MODEL("model", MachineryItem::getModel, MachineryItem::setModel),
+    CONTRACT_TYPE("contractType", MachineryItem::getContractType, MachineryItem::setContractType),
+    MAKE("make", MachineryItem::getMake, MachineryItem::setMake),
+    YEAR("year", MachineryItem::getYear, MachineryItem::setYear),
+    WORKED_HOURS("workedHours", MachineryItem::getWorkedHours, MachineryItem::setWorkedHours),
+    CITY("city", MachineryItem::getCity, MachineryItem::setCity),
+    PRICE("price", MachineryItem::getPrice, MachineryItem::setPrice),
+    PHOTO_URL("photoUrl", MachineryItem::getPhotoUrl, MachineryItem::setPhotoUrl);
+
+    private final String fieldName;
+    private final Function<MachineryItem, String> getter;
+    private final BiConsumer<MachineryItem, String> setter;
+
+    ItemField(String fieldName, Function<MachineryItem, String> getter, BiConsumer<MachineryItem, String> setter) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String get(MachineryItem item) {
+        return getter.apply(item);
+    }
+
+    public void set(MachineryItem item, String value) {
+        setter.accept(item, value);
+    }
+
+    public static ItemField fromName(String fieldName) {
+        for (ItemField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown item field: " + fieldName);
+    }
+}
@@ -0,0 +1,462 @@
+package com.webscraper.extract;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.BoundedInputStream;
+import com.webscraper.util.Hashing;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of {@link SiteRules}: selectors, regular expressions and templates are parsed
+ * once so that extracting a page only evaluates them.
+ */
+public class SiteExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SiteExtractor.class);
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]");
+    private static final ObjectMapper RULES_MAPPER = new ObjectMapper();
+
+    private final String websiteName;
+    private final String baseUrl;
+    private final String activeStatus;
+    private final String rulesVersion;
+    private final StatusClassifier statusClassifier;
+    private final List<StatusOutcome> statusOutcomes = new ArrayList<>();
+    private final List<Step> urlSteps = new ArrayList<>();
+    private final List<Step> steps = new ArrayList<>();
+    private final Map<ItemField, Set<String>> invalidValues = new EnumMap<>(ItemField.class);
+    private final List<Evaluator> primarySelectors = new ArrayList<>();
+
+    private SiteExtractor(SiteRules rules, StatusClassifier statusClassifier) {
+        if (rules.website == null || rules.website.isEmpty()) {
+            throw new IllegalArgumentException("Site rules must declare a website name");
+        }
+        this.websiteName = rules.website;
+        this.baseUrl = rules.baseUrl == null ? "" : rules.baseUrl;
+        this.activeStatus = rules.activeStatus;
+        this.statusClassifier = statusClassifier;
+        this.rulesVersion = versionOf(rules);
+        for (SiteRules.Step step : rules.urlSteps) {
+            urlSteps.add(compileStep(step));
+        }
+        for (SiteRules.Step step : rules.steps) {
+            steps.add(compileStep(step));
+        }
+        for (SiteRules.StatusRule rule : rules.statusRules) {
+            List<Step> statusSteps = new ArrayList<>();
+            for (SiteRules.Step step : rule.steps) {
+                statusSteps.add(compileStep(step));
+            }
+            statusOutcomes.add(new StatusOutcome(rule.status, statusSteps));
+        }
+        for (Map.Entry<String, List<String>> entry : rules.invalidValues.entrySet()) {
+            invalidValues.put(ItemField.fromName(entry.getKey()), new HashSet<>(entry.getValue()));
+        }
+
+        // The first selector written to each field is the one a streaming parse waits for;
+        // later selectors for the same field are fallbacks.
+        Set<ItemField> selectorFields = EnumSet.noneOf(ItemField.class);
+        for (Step step : steps) {
+            if (step.sourceType == SourceType.SELECTOR && step.target != null && selectorFields.add(step.target)) {
+                primarySelectors.add(step.selector);
+            }
+        }
+    }
+
+    public static SiteExtractor compile(SiteRules rules, StatusClassifier statusClassifier) {
+        return new SiteExtractor(rules, statusClassifier);
+    }
+
+    public String getWebsiteName() {
+        return websiteName;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getActiveStatus() {
+        return activeStatus;
+    }
+
+    /**
+     * Hash of the site's rules, so that results extracted under older rules can be told apart.
+     */
+    public String getRulesVersion() {
+        return rulesVersion;
+    }
+
+    private static String versionOf(SiteRules rules) {
+        try {
+            List<Object> extractionRules = Arrays.asList(rules.baseUrl, rules.activeStatus, rules.statusRules,
+                    rules.urlSteps, rules.steps, rules.invalidValues);
+            return Hashing.sha256Hex(RULES_MAPPER.writeValueAsBytes(extractionRules)).substring(0, 16);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialise rules for " + rules.website, e);
+        }
+    }
+
+    public MachineryItem extract(String url, Document document) {
+        MachineryItem item = new MachineryItem();
+        item.setSourceWebsite(websiteName);
+        Context context = new Context(url, document, item);
+
+        int statusRule = statusClassifier.matchRule(websiteName, document);
+        if (statusRule >= 0) {
+            StatusOutcome outcome = statusOutcomes.get(statusRule);
+            item.setStatus(outcome.status);
+            applyAll(urlSteps, context);
+            applyAll(outcome.steps, context);
+            return item;
+        }
+
+        item.setStatus(activeStatus);
+        applyAll(steps, context);
+        return item;
+    }
+
+    /**
+     * Parses the page incrementally and stops reading once every field's primary selector has matched
+     * or {@code byteBudget} bytes were consumed, then extracts from the partial document. Status markers
+     * that only appear after all fields are not seen, which is why this mode is opt-in per site.
+     */
+    public MachineryItem extractStreaming(String url, InputStream body, String charset, long byteBudget)
+            throws IOException {
+        BoundedInputStream bounded = new BoundedInputStream(body, byteBudget);
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(new BufferedReader(new InputStreamReader(bounded, charsetOrDefault(charset))), url);
+            Document document = parser.document();
+            List<Evaluator> pending = new ArrayList<>(primarySelectors);
+            Iterator<Element> elements = parser.iterator();
+            while (!pending.isEmpty() && elements.hasNext()) {
+                Element element = elements.next();
+                pending.removeIf(selector -> selector.matches(document, element));
+            }
+            if (pending.isEmpty()) {
+                parser.stop();
+                logger.debug("All fields resolved after {} bytes of {}", bounded.getCount(), url);
+            } else if (bounded.isLimitReached()) {
+                logger.info("Byte budget of {} reached before all fields were found: {}", byteBudget, url);
+            }
+            return extract(url, document);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Charset charsetOrDefault(String charset) {
+        if (charset != null) {
+            try {
+                return Charset.forName(charset);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Unsupported charset {}, falling back to UTF-8", charset);
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    public MachineryItem extractFromUrl(String url, String status) {
+        MachineryItem item = new MachineryItem();
+        item.setSourceWebsite(websiteName);
+        item.setStatus(status);
+        applyAll(urlSteps, new Context(url, null, item));
+        return item;
+    }
+
+    public static List<ItemField> missingFields(MachineryItem item) {
+        List<ItemField> missing = new ArrayList<>();
+        for (ItemField field : ItemField.values()) {
+            if (field.get(item) == null) {
+                missing.add(field);
+            }
+        }
+        return missing;
+    }
+
+    private void applyAll(List<Step> stepsToApply, Context context) {
+        for (Step step : stepsToApply) {
+            step.apply(context);
+        }
+    }
+
+    private Step compileStep(SiteRules.Step definition) {
+        try {
+            return new Step(definition);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid extraction step for " + websiteName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void setValue(MachineryItem item, ItemField field, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        Set<String> invalid = invalidValues.get(field);
+        if (invalid != null && invalid.contains(value)) {
+            return;
+        }
+        field.set(item, value);
+    }
+
+    private static final class Context {
+        private final String url;
+        private final Document document;
+        private final MachineryItem item;
+
+        private Context(String url, Document document, MachineryItem item) {
+            this.url = url;
+            this.document = document;
+            this.item = item;
+        }
+    }
+
+    private static final class StatusOutcome {
+        private final String status;
+        private final List<Step> steps;
+
+        private StatusOutcome(String status, List<Step> steps) {
+            this.status = status;
+            this.steps = steps;
+        }
+    }
+
+    private enum SourceType {
+        SELECTOR,
+        URL,
+        FIELD,
+        CONSTANT,
+        URL_STEPS
+    }
+
+    private enum Transform {
+        TRIM,
+        DIGITS,
+        FIRST_WORD,
+        LOWERCASE,
+        UPPERCASE;
+
+        static Transform fromName(String name) {
+            switch (name) {
+                case "trim":
+                    return TRIM;
+                case "digits":
+                    return DIGITS;
+                case "firstWord":
+                    return FIRST_WORD;
+                case "lowercase":
+                    return LOWERCASE;
+                case "uppercase":
+                    return UPPERCASE;
+                default:
+                    throw new IllegalArgumentException("Unknown transform: " + name);
+            }
+        }
+
+        String apply(String value) {
+            switch (this) {
+                case TRIM:
+                    return value.trim();
+                case DIGITS:
+                    return NON_DIGITS.matcher(value).replaceAll("");
+                case FIRST_WORD:
+                    int space = value.indexOf(' ');
+                    return space < 0 ? value : value.substring(0, space);
+                case LOWERCASE:
+                    return value.toLowerCase(Locale.ROOT);
+                default:
+                    return value.toUpperCase(Locale.ROOT);
+            }
+        }
+    }
+
+    private final class Step {
+        private final SourceType sourceType;
+        private final Evaluator selector;
+        private final ItemField fromField;
+        private final String constant;
+        private final ItemField target;
+        private final Map<ItemField, Template> outputs;
+        private final String attr;
+        private final String altAttr;
+        private final List<Transform> transforms = new ArrayList<>();
+        private final Pattern pattern;
+        private final Template template;
+        private final Map<String, String> map;
+        private final String mapDefault;
+        private final boolean absolute;
+        private final ItemField ifMissing;
+
+        private Step(SiteRules.Step definition) {
+            int sources = (definition.selector != null ? 1 : 0) + (definition.url != null ? 1 : 0)
+                    + (definition.from != null ? 1 : 0) + (definition.constant != null ? 1 : 0)
+                    + (definition.urlSteps ? 1 : 0);
+            if (sources != 1) {
+                throw new IllegalArgumentException("a step needs exactly one of selector, url, from, constant or urlSteps");
+            }
+            if (definition.selector != null) {
+                sourceType = SourceType.SELECTOR;
+            } else if (definition.url != null) {
+                sourceType = SourceType.URL;
+            } else if (definition.from != null) {
+                sourceType = SourceType.FIELD;
+            } else if (definition.constant != null) {
+                sourceType = SourceType.CONSTANT;
+            } else {
+                sourceType = SourceType.URL_STEPS;
+            }
+
+            this.selector = definition.selector == null ? null : QueryParser.parse(definition.selector);
+            this.fromField = definition.from == null ? null : ItemField.fromName(definition.from);
+            this.constant = definition.constant;
+            this.attr = definition.attr;
+            this.altAttr = definition.altAttr;
+            for (String transform : definition.transforms) {
+                transforms.add(Transform.fromName(transform));
+            }
+
+            // For url steps the regular expression is the url value itself.
+            String regex = sourceType == SourceType.URL ? definition.url : definition.pattern;
+            this.pattern = regex == null ? null : Pattern.compile(regex);
+
+            if (definition.set != null) {
+                if (pattern == null) {
+                    throw new IllegalArgumentException("'set' requires a pattern");
+                }
+                Map<ItemField, Template> compiledOutputs = new LinkedHashMap<>();
+                for (Map.Entry<String, String> output : definition.set.entrySet()) {
+                    compiledOutputs.put(ItemField.fromName(output.getKey()), Template.compile(output.getValue()));
+                }
+                this.outputs = Collections.unmodifiableMap(compiledOutputs);
+                this.target = null;
+            } else {
+                this.outputs = null;
+                this.target = definition.field == null ? null : ItemField.fromName(definition.field);
+                if (target == null && sourceType != SourceType.URL_STEPS) {
+                    throw new IllegalArgumentException("a step needs a field or a set of outputs");
+                }
+            }
+
+            if (pattern != null && definition.template == null) {
+                this.template = Template.compile(pattern.matcher("").groupCount() > 0 ? "{1}" : "{0}");
+            } else {
+                this.template = definition.template == null ? null : Template.compile(definition.template);
+            }
+            this.map = definition.map;
+            this.mapDefault = definition.mapDefault;
+            this.absolute = definition.absolute;
+            this.ifMissing = definition.ifMissing == null ? null : ItemField.fromName(definition.ifMissing);
+        }
+
+        private void apply(Context context) {
+            if (ifMissing != null && ifMissing.get(context.item) != null) {
+                return;
+            }
+            if (sourceType == SourceType.URL_STEPS) {
+                applyAll(urlSteps, context);
+                return;
+            }
+
+            String value = read(context);
+            if (value == null) {
+                return;
+            }
+            for (Transform transform : transforms) {
+                value = transform.apply(value);
+            }
+            if (value.isEmpty()) {
+                return;
+            }
+
+            if (pattern != null) {
+                Matcher matcher = pattern.matcher(value);
+                if (!matcher.find()) {
+                    return;
+                }
+                if (outputs != null) {
+                    for (Map.Entry<ItemField, Template> output : outputs.entrySet()) {
+                        setValue(context.item, output.getKey(), output.getValue().render(matcher));
+                    }
+                    return;
+                }
+                value = template.render(matcher);
+                if (value == null) {
+                    return;
+                }
+            }
+
+            if (map != null) {
+                value = mapValue(value);
+                if (value == null) {
+                    return;
+                }
+            }
+            if (absolute && !value.startsWith("http")) {
+                value = baseUrl + value;
+            }
+            setValue(context.item, target, value);
+        }
+
+        private String read(Context context) {
+            switch (sourceType) {
+                case SELECTOR:
+                    if (context.document == null) {
+                        return null;
+                    }
+                    Element element = context.document.selectFirst(selector);
+                    if (element == null) {
+                        return null;
+                    }
+                    String value = attr == null ? element.text() : element.attr(attr);
+                    if (value.isEmpty() && altAttr != null) {
+                        value = element.attr(altAttr);
+                    }
+                    return value;
+                case URL:
+                    return context.url;
+                case FIELD:
+                    return fromField.get(context.item);
+                default:
+                    return constant;
+            }
+        }
+
+        private String mapValue(String value) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                if (value.contains(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+            return mapDefault;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.webscraper.extract;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extraction rules for one website as read from {@code sites/*.json}.
+ * {@link SiteExtractor} compiles them once at startup.
+ */
+public class SiteRules {
+
+    public String website;
+    public String baseUrl;
+    public String activeStatus = "Active";
+    public List<StatusRule> statusRules = new ArrayList<>();
+    public List<Step> urlSteps = new ArrayList<>();
+    public List<Step> steps = new ArrayList<>();
+    public Map<String, List<String>> invalidValues = new LinkedHashMap<>();
+    public Discovery discovery;
+    public Canonical canonical;
+
+    /**
+     * Where the site's listing/search result pages are and how to find detail links and further pages on them.
+     */
+    public static class Discovery {
+        public List<String> startUrls = new ArrayList<>();
+        public String listingSelector;
+        public String listingPattern;
+        public String nextPageSelector;
+        public String pageUrlTemplate;
+        public int maxPages = 100;
+    }
+
+    /**
+     * How the site's detail URLs are normalised, on top of the generic rules applied to every site.
+     * {@code keepParams}, when given, lists the only query parameters that identify a page.
+     */
+    public static class Canonical {
+        public String host;
+        public List<String> keepParams;
+        public List<String> dropParams = new ArrayList<>();
+        public boolean stripTrailingSlash = true;
+    }
+
+    public static class StatusRule {
+        public String selector;
+        public String text;
+        public String status;
+        public List<Step> steps = new ArrayList<>();
+    }
+
+    public static class Step {
+        public String field;
+        public Map<String, String> set;
+
+        public String selector;
+        public String url;
+        public String from;
+        public String constant;
+        public boolean urlSteps;
+
+        public String attr;
+        public String altAttr;
+        public List<String> transforms = new ArrayList<>();
+        public String pattern;
+        public String template;
+        public Map<String, String> map;
+        public String mapDefault;
+        public boolean absolute;
+        public String ifMissing;
+    }
+}
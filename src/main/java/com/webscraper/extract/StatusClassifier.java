@@ -0,0 +1,182 @@
+package com.webscraper.extract;
+
+import com.webscraper.model.ListingStatus;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.QueryParser;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Classifies a listing page with one traversal of the document. Status phrases of every site share one
+ * Aho-Corasick automaton fed with the page text (lower-cased and whitespace-normalised the way
+ * {@code Element.text()} does). Status selectors go through jsoup's own {@code selectFirst}, and only for rules
+ * that could still decide the status, so structural selectors ({@code :has}, {@code >}) get jsoup's usual
+ * per-query state.
+ */
+public class StatusClassifier {
+
+    private final AhoCorasickMatcher matcher;
+    private final Map<String, List<StatusRule>> rulesByWebsite = new HashMap<>();
+
+    public StatusClassifier(Collection<SiteRules> sites) {
+        Map<String, Integer> phraseIds = new LinkedHashMap<>();
+        for (SiteRules site : sites) {
+            List<StatusRule> rules = new ArrayList<>();
+            for (SiteRules.StatusRule rule : site.statusRules) {
+                if ((rule.selector == null) == (rule.text == null) || rule.status == null) {
+                    throw new IllegalArgumentException("Status rules for " + site.website
+                            + " need a status and exactly one of selector or text");
+                }
+                ListingStatus status = ListingStatus.fromLabel(rule.status);
+                if (rule.selector != null) {
+                    rules.add(new StatusRule(QueryParser.parse(rule.selector), -1, status));
+                } else {
+                    String phrase = normalise(rule.text);
+                    Integer phraseId = phraseIds.computeIfAbsent(phrase, key -> phraseIds.size());
+                    rules.add(new StatusRule(null, phraseId, status));
+                }
+            }
+            rulesByWebsite.put(site.website, rules);
+        }
+        this.matcher = new AhoCorasickMatcher(new ArrayList<>(phraseIds.keySet()));
+    }
+
+    public ListingStatus classify(String websiteName, Document document) {
+        int rule = matchRule(websiteName, document);
+        return rule < 0 ? ListingStatus.ACTIVE : rulesByWebsite.get(websiteName).get(rule).status;
+    }
+
+    /**
+     * Returns the index of the first status rule of the site that matches the document, or -1.
+     */
+    public int matchRule(String websiteName, Document document) {
+        List<StatusRule> rules = rulesByWebsite.getOrDefault(websiteName, Collections.emptyList());
+        if (rules.isEmpty()) {
+            return -1;
+        }
+        if (rules.get(0).selector != null && document.selectFirst(rules.get(0).selector) != null) {
+            return 0;
+        }
+        ClassifyingFilter filter = new ClassifyingFilter(document, rules);
+        NodeTraversor.filter(filter, document);
+        return filter.firstMatch();
+    }
+
+    static String normalise(String text) {
+        StringBuilder normalised = new StringBuilder(text.length());
+        boolean lastWasSpace = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                if (!lastWasSpace) {
+                    normalised.append(' ');
+                    lastWasSpace = true;
+                }
+            } else {
+                normalised.append(Character.toLowerCase(c));
+                lastWasSpace = false;
+            }
+        }
+        return normalised.toString().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == 160;
+    }
+
+    private static final class StatusRule {
+        private final Evaluator selector;
+        private final int phraseId;
+        private final ListingStatus status;
+
+        private StatusRule(Evaluator selector, int phraseId, ListingStatus status) {
+            this.selector = selector;
+            this.phraseId = phraseId;
+            this.status = status;
+        }
+    }
+
+    private final class ClassifyingFilter implements NodeFilter {
+        private final Document document;
+        private final List<StatusRule> rules;
+        private final boolean[] matched;
+        private final AhoCorasickMatcher.Scanner scanner = matcher.newScanner();
+        private boolean lastWasSpace = true;
+
+        private ClassifyingFilter(Document document, List<StatusRule> rules) {
+            this.document = document;
+            this.rules = rules;
+            this.matched = new boolean[rules.size()];
+        }
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof TextNode) {
+                feed(((TextNode) node).getWholeText());
+            } else if (node instanceof Element) {
+                Element element = (Element) node;
+                if (element.isBlock() || element.nameIs("br")) {
+                    feedSpace();
+                }
+            }
+            // Nothing can outrank the first rule, so the rest of the page does not need to be read.
+            return rules.get(0).phraseId >= 0 && isMatched(0) ? FilterResult.STOP : FilterResult.CONTINUE;
+        }
+
+        private void feed(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (isWhitespace(c)) {
+                    feedSpace();
+                } else {
+                    scanner.feed(Character.toLowerCase(c));
+                    lastWasSpace = false;
+                }
+            }
+        }
+
+        private void feedSpace() {
+            if (!lastWasSpace) {
+                scanner.feed(' ');
+                lastWasSpace = true;
+            }
+        }
+
+        private boolean isMatched(int index) {
+            if (matched[index]) {
+                return true;
+            }
+            StatusRule rule = rules.get(index);
+            if (rule.phraseId >= 0) {
+                BitSet phrases = scanner.getMatches();
+                matched[index] = phrases.get(rule.phraseId);
+            } else {
+                matched[index] = document.selectFirst(rule.selector) != null;
+            }
+            return matched[index];
+        }
+
+        private int firstMatch() {
+            for (int i = 0; i < rules.size(); i++) {
+                if (isMatched(i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.webscraper.extract;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.MatchResult;
+
+/**
+ * Output template such as {@code "{1:words}, {2:upper}"}; {@code words} turns dashes into spaces.
+ */
+final class Template {
+
+    private final List<Object> parts;
+
+    private Template(List<Object> parts) {
+        this.parts = parts;
+    }
+
+    static Template compile(String template) {
+        List<Object> parts = new ArrayList<>();
+        int position = 0;
+        while (position < template.length()) {
+            int open = template.indexOf('{', position);
+            if (open < 0) {
+                parts.add(template.substring(position));
+                break;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed group reference in template: " + template);
+            }
+            if (open > position) {
+                parts.add(template.substring(position, open));
+            }
+            parts.add(GroupReference.parse(template.substring(open + 1, close)));
+            position = close + 1;
+        }
+        return new Template(parts);
+    }
+
+    String render(MatchResult match) {
+        StringBuilder result = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof GroupReference) {
+                String group = ((GroupReference) part).apply(match);
+                if (group == null) {
+                    return null;
+                }
+                result.append(group);
+            } else {
+                result.append((String) part);
+            }
+        }
+        return result.toString();
+    }
+
+    private static final class GroupReference {
+        private final int group;
+        private final boolean words;
+        private final boolean upper;
+        private final boolean lower;
+
+        private GroupReference(int group, boolean words, boolean upper, boolean lower) {
+            this.group = group;
+            this.words = words;
+            this.upper = upper;
+            this.lower = lower;
+        }
+
+        static GroupReference parse(String reference) {
+            String[] tokens = reference.split(":");
+            boolean words = false;
+            boolean upper = false;
+            boolean lower = false;
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "words":
+                        words = true;
+                        break;
+                    case "upper":
+                        upper = true;
+                        break;
+                    case "lower":
+                        lower = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown template modifier: " + tokens[i]);
+                }
+            }
+            return new GroupReference(Integer.parseInt(tokens[0]), words, upper, lower);
+        }
+
+        String apply(MatchResult match) {
+            String value = match.group(group);
+            if (value == null) {
+                return null;
+            }
+            if (words) {
+                value = value.replace('-', ' ');
+            }
+            if (upper) {
+                value = value.toUpperCase(Locale.ROOT);
+            } else if (lower) {
+                value = value.toLowerCase(Locale.ROOT);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.webscraper.fetch;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket in front of a single host combined with an AIMD concurrency limit.
+ * Healthy responses grow the request rate and the concurrency limit additively,
+ * overload signals (429/503, timeouts) halve both.
+ */
+public class AdaptiveRateLimiter {
+
+    private final String websiteName;
+    private final double minPermitsPerSecond;
+    private final double maxPermitsPerSecond;
+    private final double burst;
+    private final int maxConcurrency;
+    private final long latencyTargetNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+
+    private double permitsPerSecond;
+    private double availableTokens;
+    private long lastRefillNanos;
+    private double concurrencyLimit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    public AdaptiveRateLimiter(String websiteName, double initialPermitsPerSecond, double minPermitsPerSecond,
+                               double maxPermitsPerSecond, double burst, int initialConcurrency,
+                               int maxConcurrency, long latencyTargetMillis) {
+        this.websiteName = websiteName;
+        this.minPermitsPerSecond = minPermitsPerSecond;
+        this.maxPermitsPerSecond = Math.max(minPermitsPerSecond, maxPermitsPerSecond);
+        this.burst = Math.max(1, burst);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.permitsPerSecond = clamp(initialPermitsPerSecond, minPermitsPerSecond, this.maxPermitsPerSecond);
+        this.concurrencyLimit = clamp(initialConcurrency, 1, this.maxConcurrency);
+        this.availableTokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.lastDecreaseNanos = lastRefillNanos;
+    }
+
+    public Permit acquire() throws InterruptedIOException {
+        lock.lock();
+        try {
+            while (true) {
+                refill(System.nanoTime());
+                if (inFlight < (int) concurrencyLimit && availableTokens >= 1) {
+                    availableTokens -= 1;
+                    inFlight++;
+                    return new Permit(System.nanoTime());
+                }
+                if (inFlight >= (int) concurrencyLimit) {
+                    stateChanged.await();
+                } else {
+                    long waitNanos = (long) ((1 - availableTokens) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+                    stateChanged.awaitNanos(Math.max(waitNanos, 1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a " + websiteName + " request permit");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getWebsiteName() {
+        return websiteName;
+    }
+
+    public double getPermitsPerSecond() {
+        lock.lock();
+        try {
+            return permitsPerSecond;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return (int) concurrencyLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        availableTokens = Math.min(burst, availableTokens + elapsedSeconds * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+
+    private void release(long acquiredNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            if (outcome == Outcome.SUCCESS && now - acquiredNanos <= latencyTargetNanos) {
+                concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1 / concurrencyLimit);
+                refill(now);
+                permitsPerSecond = Math.min(maxPermitsPerSecond, permitsPerSecond + 1 / permitsPerSecond);
+            } else if (outcome == Outcome.OVERLOAD && acquiredNanos >= lastDecreaseNanos) {
+                // Only requests issued after the previous decrease may trigger another one,
+                // so a burst of failures from the same congestion event halves once.
+                concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+                refill(now);
+                permitsPerSecond = Math.max(minPermitsPerSecond, permitsPerSecond / 2);
+                availableTokens = Math.min(availableTokens, 0);
+                lastDecreaseNanos = now;
+            }
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    enum Outcome {
+        SUCCESS,
+        OVERLOAD,
+        IGNORED
+    }
+
+    public class Permit {
+        private final long acquiredNanos;
+        private boolean released;
+
+        private Permit(long acquiredNanos) {
+            this.acquiredNanos = acquiredNanos;
+        }
+
+        public void onSuccess() {
+            release(Outcome.SUCCESS);
+        }
+
+        public void onOverload() {
+            release(Outcome.OVERLOAD);
+        }
+
+        public void onIgnored() {
+            release(Outcome.IGNORED);
+        }
+
+        private void release(Outcome outcome) {
+            if (!released) {
+                released = true;
+                AdaptiveRateLimiter.this.release(acquiredNanos, outcome);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.webscraper.fetch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failed calls in a row the circuit
+ * opens and calls fail fast for {@code openMillis}; then a single probe call is let through, which closes
+ * the circuit on success or opens it again on failure.
+ */
+public class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final long PROBE_WAIT_MILLIS = 1000;
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+    private long timesOpened;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Returns 0 if a call may go ahead, otherwise the milliseconds until the circuit lets a probe through.
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.CLOSED) {
+            return 0;
+        }
+        long remaining = openedAtNanos + openNanos - System.nanoTime();
+        if (state == State.OPEN && remaining <= 0) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (!probeInFlight) {
+                probeInFlight = true;
+                return 0;
+            }
+            return PROBE_WAIT_MILLIS;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state != State.OPEN && (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            timesOpened++;
+        }
+        probeInFlight = false;
+    }
+
+    /**
+     * Lets another probe through after a call that ended without a result either way, such as one that threw
+     * an unchecked exception, so that the circuit is not left half-open with a probe that never finishes.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return state == State.OPEN;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+}
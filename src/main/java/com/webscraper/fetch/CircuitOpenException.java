@@ -0,0 +1,26 @@
+package com.webscraper.fetch;
+
+import java.io.IOException;
+
+/**
+ * Thrown without contacting the host while its circuit breaker is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private final String websiteName;
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String websiteName, long retryAfterMillis) {
+        super("Circuit open for " + websiteName + ", retry in " + retryAfterMillis + " ms");
+        this.websiteName = websiteName;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getWebsiteName() {
+        return websiteName;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
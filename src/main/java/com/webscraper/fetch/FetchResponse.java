@@ -0,0 +1,88 @@
+package com.webscraper.fetch;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+public class FetchResponse {
+
+    private final String requestUrl;
+    private final String finalUrl;
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+    private final boolean fromCache;
+
+    public FetchResponse(String requestUrl, String finalUrl, int statusCode,
+                         Map<String, List<String>> headers, byte[] body) {
+        this(requestUrl, finalUrl, statusCode, headers, body, false);
+    }
+
+    public FetchResponse(String requestUrl, String finalUrl, int statusCode,
+                         Map<String, List<String>> headers, byte[] body, boolean fromCache) {
+        this.requestUrl = requestUrl;
+        this.finalUrl = finalUrl;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.fromCache = fromCache;
+    }
+
+    public String getRequestUrl() {
+        return requestUrl;
+    }
+
+    public String getFinalUrl() {
+        return finalUrl;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public Optional<String> getHeader(String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                return Optional.of(header.getValue().get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public String getCharset() {
+        return getHeader("Content-Type").map(FetchResponse::charsetOf).orElse(null);
+    }
+
+    public Document toDocument() throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(body), getCharset(), finalUrl);
+    }
+
+    static String charsetOf(String contentType) {
+        for (String part : contentType.split(";")) {
+            String trimmed = part.trim();
+            if (trimmed.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                String charset = trimmed.substring("charset=".length()).replace("\"", "").trim();
+                return charset.isEmpty() ? null : charset;
+            }
+        }
+        return null;
+    }
+}
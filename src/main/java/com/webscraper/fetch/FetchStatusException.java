@@ -0,0 +1,23 @@
+package com.webscraper.fetch;
+
+import java.io.IOException;
+
+public class FetchStatusException extends IOException {
+
+    private final int statusCode;
+    private final String url;
+
+    public FetchStatusException(int statusCode, String url) {
+        super("HTTP " + statusCode + " fetching " + url);
+        this.statusCode = statusCode;
+        this.url = url;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
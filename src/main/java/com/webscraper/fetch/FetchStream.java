@@ -0,0 +1,65 @@
+package com.webscraper.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+public class FetchStream implements Closeable {
+
+    private final String requestUrl;
+    private final String finalUrl;
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+    private final boolean fromCache;
+
+    public FetchStream(String requestUrl, String finalUrl, int statusCode, Map<String, List<String>> headers,
+                       InputStream body, boolean fromCache) {
+        this.requestUrl = requestUrl;
+        this.finalUrl = finalUrl;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.fromCache = fromCache;
+    }
+
+    public String getRequestUrl() {
+        return requestUrl;
+    }
+
+    public String getFinalUrl() {
+        return finalUrl;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public String getCharset() {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase("Content-Type") && !header.getValue().isEmpty()) {
+                return FetchResponse.charsetOf(header.getValue().get(0));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,259 @@
+package com.webscraper.fetch;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed store of response bodies and their validators (ETag / Last-Modified),
+ * evicted least-recently-used first once the configured size is exceeded.
+ */
+@Component
+public class HttpCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpCache.class);
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".meta";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private boolean loaded;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidatedChanged = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    @Autowired
+    public HttpCache(ScraperProperties properties) {
+        this(properties.getProperty("cache.enabled", Boolean.class, true),
+                Paths.get(properties.getProperty("cache.directory", String.class, ".cache/http")),
+                properties.getProperty("cache.maxSizeMb", Long.class, 512L) * 1024 * 1024);
+    }
+
+    public HttpCache(boolean enabled, Path directory, long maxBytes) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<CachedPage> lookup(String url) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = keyOf(url);
+        synchronized (this) {
+            ensureLoaded();
+            if (entrySizes.get(key) == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+        try {
+            CachedPage page = objectMapper.readValue(directory.resolve(key + META_SUFFIX).toFile(), CachedPage.class);
+            page.body = Files.readAllBytes(directory.resolve(key + BODY_SUFFIX));
+            Files.setLastModifiedTime(directory.resolve(key + BODY_SUFFIX), FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(page);
+        } catch (IOException e) {
+            logger.warn("Dropping unreadable cache entry for {}", url, e);
+            remove(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void recordHit(CachedPage page) {
+        hits.incrementAndGet();
+        bytesServed.addAndGet(page.body.length);
+    }
+
+    public void store(FetchResponse response) {
+        if (!enabled) {
+            return;
+        }
+        Optional<String> etag = response.getHeader("ETag");
+        Optional<String> lastModified = response.getHeader("Last-Modified");
+        if (etag.isEmpty() && lastModified.isEmpty()) {
+            // The page can no longer be revalidated, so an older entry must not be sent or served again.
+            String key = keyOf(response.getRequestUrl());
+            synchronized (this) {
+                ensureLoaded();
+                if (entrySizes.containsKey(key)) {
+                    remove(key);
+                }
+            }
+            return;
+        }
+
+        CachedPage page = new CachedPage();
+        page.url = response.getRequestUrl();
+        page.finalUrl = response.getFinalUrl();
+        page.etag = etag.orElse(null);
+        page.lastModified = lastModified.orElse(null);
+        page.contentType = response.getHeader("Content-Type").orElse(null);
+        page.storedAt = System.currentTimeMillis();
+
+        String key = keyOf(page.url);
+        try {
+            synchronized (this) {
+                ensureLoaded();
+            }
+            writeAtomically(directory.resolve(key + BODY_SUFFIX), response.getBody());
+            writeAtomically(directory.resolve(key + META_SUFFIX), objectMapper.writeValueAsBytes(page));
+            stores.incrementAndGet();
+            synchronized (this) {
+                Long previous = entrySizes.put(key, (long) response.getBody().length);
+                totalBytes += response.getBody().length - (previous == null ? 0 : previous);
+                evictIfNeeded();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not cache response for {}", page.url, e);
+        }
+    }
+
+    public void recordChanged() {
+        revalidatedChanged.incrementAndGet();
+    }
+
+    public String summary() {
+        long lookups = hits.get() + misses.get() + revalidatedChanged.get();
+        double hitRate = lookups == 0 ? 0 : hits.get() * 100.0 / lookups;
+        synchronized (this) {
+            return String.format("%d hits (%.1f%%), %d misses, %d changed, %d stored, %d evicted, "
+                            + "%d KB served from cache, %d entries / %d KB on disk",
+                    hits.get(), hitRate, misses.get(), revalidatedChanged.get(), stores.get(), evictions.get(),
+                    bytesServed.get() / 1024, entrySizes.size(), totalBytes / 1024);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            Files.createDirectories(directory);
+            List<Path> bodies = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + BODY_SUFFIX)) {
+                stream.forEach(bodies::add);
+            }
+            // Body files are touched on every hit, so their modification time gives the LRU order.
+            bodies.sort((a, b) -> lastModified(a).compareTo(lastModified(b)));
+            for (Path body : bodies) {
+                String fileName = body.getFileName().toString();
+                String key = fileName.substring(0, fileName.length() - BODY_SUFFIX.length());
+                if (Files.exists(directory.resolve(key + META_SUFFIX))) {
+                    long size = Files.size(body);
+                    entrySizes.put(key, size);
+                    totalBytes += size;
+                }
+            }
+            evictIfNeeded();
+            logger.info("Loaded HTTP cache from {}: {} entries, {} KB", directory, entrySizes.size(), totalBytes / 1024);
+        } catch (IOException e) {
+            logger.warn("Could not load HTTP cache from {}", directory, e);
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = entrySizes.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            eldest.remove();
+            deleteFiles(entry.getKey());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entrySizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteFiles(key);
+    }
+
+    private void deleteFiles(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + BODY_SUFFIX));
+            Files.deleteIfExists(directory.resolve(key + META_SUFFIX));
+        } catch (IOException e) {
+            logger.warn("Could not delete cache entry {}", key, e);
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+        Files.write(temp, content);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    static String keyOf(String url) {
+        return Hashing.sha256Hex(url.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static class CachedPage {
+        public String url;
+        public String finalUrl;
+        public String etag;
+        public String lastModified;
+        public String contentType;
+        public long storedAt;
+
+        @JsonIgnore
+        public byte[] body;
+    }
+}
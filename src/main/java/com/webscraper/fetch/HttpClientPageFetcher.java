@@ -0,0 +1,661 @@
+package com.webscraper.fetch;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.util.WorkerExecutors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+@Component
+public class HttpClientPageFetcher implements PageFetcher, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientPageFetcher.class);
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    private static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    private final ScraperProperties properties;
+    private final RateLimiterRegistry rateLimiters;
+    private final HttpCache httpCache;
+    private final ResilienceRegistry resilience;
+    private final PageArchive archive;
+    private final UrlCanonicalizer canonicalizer;
+    private final ExecutorService clientExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final Map<String, HostClient> hostClients = new ConcurrentHashMap<>();
+
+    public HttpClientPageFetcher(ScraperProperties properties, RateLimiterRegistry rateLimiters, HttpCache httpCache,
+                                 ResilienceRegistry resilience, PageArchive archive, UrlCanonicalizer canonicalizer) {
+        this.properties = properties;
+        this.rateLimiters = rateLimiters;
+        this.httpCache = httpCache;
+        this.resilience = resilience;
+        this.archive = archive;
+        this.canonicalizer = canonicalizer;
+        this.clientExecutor = Executors.newCachedThreadPool(WorkerExecutors.namedThreadFactory("http-client"));
+        ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1,
+                WorkerExecutors.namedThreadFactory("http-watchdog"));
+        // Nearly every body is read before its deadline, so cancelled checks are dropped straight away.
+        watchdog.setRemoveOnCancelPolicy(true);
+        this.watchdog = watchdog;
+
+        // The JDK client reads its idle connection timeout once, when the connection pool is first loaded.
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY,
+                    String.valueOf(properties.getProperty("http.keepAliveSeconds", Integer.class, 60)));
+        }
+    }
+
+    /**
+     * Fetches the whole page. The body is read inside the retried, rate-limited call, so a body that stalls or
+     * breaks off is retried, counts against the circuit breaker and lowers the rate like any other failed request,
+     * and the host's deadline bounds the whole exchange rather than just the response headers.
+     */
+    @Override
+    public FetchResponse fetch(String websiteName, String url) throws IOException {
+        URI uri = URI.create(url);
+        HostClient hostClient = hostClients.computeIfAbsent(hostKey(uri), key -> createHostClient(websiteName, key));
+        FetchResponse response = resilience.execute(websiteName, url,
+                () -> rateLimiters.execute(websiteName, () -> sendAndRead(hostClient, websiteName, uri)));
+        if (!url.equals(response.getFinalUrl())) {
+            canonicalizer.recordRedirect(websiteName, url, response.getFinalUrl());
+        }
+        return response;
+    }
+
+    /**
+     * Fetches the page and adds it to the page archive when recording. Result pages are left out, since
+     * replaying the archive would extract an item from each of them.
+     */
+    @Override
+    public FetchResponse fetchDetail(String websiteName, String url) throws IOException {
+        FetchResponse response = fetch(websiteName, url);
+        if (archive.isRecording()) {
+            try {
+                archive.record(websiteName, response);
+            } catch (IOException e) {
+                logger.warn("Could not archive {}", url, e);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Opens the page once its headers have arrived. The body is read by the caller, so it is not retried, but
+     * it is closed when the host's deadline passes, after which reading it fails with an
+     * {@link HttpTimeoutException}.
+     */
+    @Override
+    public FetchStream open(String websiteName, String url) throws IOException {
+        URI uri = URI.create(url);
+        HostClient hostClient = hostClients.computeIfAbsent(hostKey(uri), key -> createHostClient(websiteName, key));
+        FetchStream stream = resilience.execute(websiteName, url,
+                () -> rateLimiters.execute(websiteName, () -> send(hostClient, websiteName, uri)));
+        if (!url.equals(stream.getFinalUrl())) {
+            canonicalizer.recordRedirect(websiteName, url, stream.getFinalUrl());
+        }
+        return stream;
+    }
+
+    private FetchResponse sendAndRead(HostClient hostClient, String websiteName, URI uri) throws IOException {
+        Optional<HttpCache.CachedPage> cached = httpCache.lookup(uri.toString());
+        acquireConnection(hostClient, uri);
+        try {
+            long deadlineMillis = hostClient.deadlineMillis();
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+            HttpResponse<byte[]> response = exchange(hostClient, newRequest(websiteName, uri, cached, deadlineMillis),
+                    HttpResponse.BodyHandlers.ofByteArray(), true, deadlineNanos);
+            if (response.statusCode() == 304 && cached.isPresent()) {
+                HttpCache.CachedPage page = cached.get();
+                httpCache.recordHit(page);
+                return new FetchResponse(uri.toString(), page.finalUrl, 304, cachedHeaders(response, page),
+                        page.body, true);
+            }
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new FetchStatusException(response.statusCode(), uri.toString());
+            }
+            if (cached.isPresent()) {
+                httpCache.recordChanged();
+            }
+
+            String encoding = response.headers().firstValue("Content-Encoding").orElse("").toLowerCase(Locale.ROOT);
+            FetchResponse result = new FetchResponse(uri.toString(), response.uri().toString(),
+                    response.statusCode(), response.headers().map(), decode(response.body(), encoding));
+            httpCache.store(result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + uri);
+        } finally {
+            hostClient.connections.release();
+        }
+    }
+
+    private FetchStream send(HostClient hostClient, String websiteName, URI uri) throws IOException {
+        Optional<HttpCache.CachedPage> cached = httpCache.lookup(uri.toString());
+        acquireConnection(hostClient, uri);
+        boolean handedOff = false;
+        try {
+            long deadlineMillis = hostClient.deadlineMillis();
+            long startNanos = System.nanoTime();
+            long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+            HttpResponse<InputStream> response = exchange(hostClient,
+                    newRequest(websiteName, uri, cached, deadlineMillis), HttpResponse.BodyHandlers.ofInputStream(),
+                    false, deadlineNanos);
+            if (response.statusCode() == 304 && cached.isPresent()) {
+                response.body().close();
+                HttpCache.CachedPage page = cached.get();
+                httpCache.recordHit(page);
+                return new FetchStream(uri.toString(), page.finalUrl, 304, cachedHeaders(response, page),
+                        new ByteArrayInputStream(page.body), true);
+            }
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                response.body().close();
+                throw new FetchStatusException(response.statusCode(), uri.toString());
+            }
+            if (cached.isPresent()) {
+                httpCache.recordChanged();
+            }
+
+            String encoding = response.headers().firstValue("Content-Encoding").orElse("").toLowerCase(Locale.ROOT);
+            ResponseBodyStream body = new ResponseBodyStream(response, encoding, hostClient, uri.toString(),
+                    startNanos, deadlineMillis);
+            handedOff = true;
+            return new FetchStream(uri.toString(), response.uri().toString(), response.statusCode(),
+                    response.headers().map(), body, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + uri);
+        } finally {
+            if (!handedOff) {
+                hostClient.connections.release();
+            }
+        }
+    }
+
+    private HttpRequest newRequest(String websiteName, URI uri, Optional<HttpCache.CachedPage> cached,
+                                   long deadlineMillis) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .GET()
+                .timeout(Duration.ofMillis(deadlineMillis))
+                .header("User-Agent", properties.getSiteProperty(websiteName, "http.userAgent",
+                        String.class, DEFAULT_USER_AGENT))
+                .header("Accept", "text/html,application/xhtml+xml;q=0.9,*/*;q=0.8");
+        if (properties.getSiteProperty(websiteName, "http.compression", Boolean.class, true)) {
+            request.header("Accept-Encoding", "gzip, deflate");
+        }
+        cached.ifPresent(page -> {
+            if (page.etag != null) {
+                request.header("If-None-Match", page.etag);
+            }
+            if (page.lastModified != null) {
+                request.header("If-Modified-Since", page.lastModified);
+            }
+        });
+        return request.build();
+    }
+
+    private static void acquireConnection(HostClient hostClient, URI uri) throws InterruptedIOException {
+        try {
+            hostClient.connections.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + uri.getHost());
+        }
+    }
+
+    private static Map<String, List<String>> cachedHeaders(HttpResponse<?> response, HttpCache.CachedPage page) {
+        Map<String, List<String>> headers = new HashMap<>(response.headers().map());
+        if (page.contentType != null) {
+            headers.put("Content-Type", Collections.singletonList(page.contentType));
+        }
+        return headers;
+    }
+
+    /**
+     * Sends the request and, once it has taken longer than the host's hedge delay, a second copy of it.
+     * The first successful response wins and the other attempt is cancelled. A hedge needs a free
+     * connection and is only sent while hedges stay within {@code http.hedge.maxRatio} of the host's
+     * requests, so hedging can at most double the load on a host. Past the deadline every attempt is
+     * cancelled. {@code bodyIncluded} tells whether a response only completes once its body has arrived; if
+     * not, the response time is recorded when the body has been read.
+     */
+    private <T> HttpResponse<T> exchange(HostClient hostClient, HttpRequest request,
+                                         HttpResponse.BodyHandler<T> bodyHandler, boolean bodyIncluded,
+                                         long deadlineNanos) throws IOException, InterruptedException {
+        hostClient.requests.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> primary = sendTimed(hostClient, request, bodyHandler, bodyIncluded);
+        long hedgeAfterMillis = hostClient.hedgeAfterMillis();
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (hedgeAfterMillis < 0 || TimeUnit.MILLISECONDS.toNanos(hedgeAfterMillis) >= remainingNanos) {
+            return await(hostClient, primary, request, start, deadlineNanos);
+        }
+        try {
+            return primary.get(hedgeAfterMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!hostClient.tryStartHedge()) {
+                return await(hostClient, primary, request, start, deadlineNanos);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            discard(primary);
+            throw e;
+        }
+
+        logger.debug("Hedging {} after {} ms", request.uri(), hedgeAfterMillis);
+        CompletableFuture<HttpResponse<T>> hedge = sendTimed(hostClient, request, bodyHandler, bodyIncluded);
+        HedgedExchange<T> hedged = new HedgedExchange<>(hostClient);
+        primary.whenComplete((response, error) -> hedged.settle(response, error, false));
+        hedge.whenComplete((response, error) -> hedged.settle(response, error, true));
+        hedged.winner.whenComplete((response, error) -> {
+            primary.cancel(true);
+            hedge.cancel(true);
+        });
+        return await(hostClient, hedged.winner, request, start, deadlineNanos);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendTimed(HostClient hostClient, HttpRequest request,
+                                                             HttpResponse.BodyHandler<T> bodyHandler,
+                                                             boolean bodyIncluded) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> future = hostClient.client.sendAsync(request, bodyHandler);
+        // A timed-out request still tells us the host is at least that slow.
+        future.whenComplete((response, error) -> {
+            if ((response != null && bodyIncluded) || unwrapCause(error) instanceof HttpTimeoutException) {
+                hostClient.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        });
+        // The caller's future, not a dependent one, so that cancelling it aborts the exchange.
+        return future;
+    }
+
+    private static <T> HttpResponse<T> await(HostClient hostClient, CompletableFuture<HttpResponse<T>> result,
+                                             HttpRequest request, long startNanos, long deadlineNanos)
+            throws IOException, InterruptedException {
+        try {
+            return result.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            discard(result);
+            hostClient.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            throw new HttpTimeoutException("No response from " + request.uri() + " within its deadline");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            discard(result);
+            throw e;
+        }
+    }
+
+    // Nobody will read the response any more: stop the exchange, or close the body if it already arrived.
+    private static <T> void discard(CompletableFuture<HttpResponse<T>> future) {
+        future.cancel(true);
+        future.thenAccept(HttpClientPageFetcher::discardBody);
+    }
+
+    private static void discardBody(HttpResponse<?> response) {
+        if (response.body() instanceof InputStream) {
+            closeQuietly((InputStream) response.body());
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = unwrapCause(e);
+        return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    }
+
+    private static Throwable unwrapCause(Throwable error) {
+        while ((error instanceof ExecutionException || error instanceof CompletionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.debug("Could not close discarded response body", e);
+        }
+    }
+
+    public String latencySummary() {
+        long requests = 0;
+        long hedges = 0;
+        long hedgesWon = 0;
+        StringBuilder hosts = new StringBuilder();
+        for (Map.Entry<String, HostClient> entry : new TreeMap<>(hostClients).entrySet()) {
+            HostClient hostClient = entry.getValue();
+            requests += hostClient.requests.get();
+            hedges += hostClient.hedges.get();
+            hedgesWon += hostClient.hedgesWon.get();
+            hosts.append(String.format("%n  %s p50 %d ms, p95 %d ms, p99 %d ms, deadline %d ms (%d samples)",
+                    entry.getKey(), hostClient.latency.percentile(50), hostClient.latency.percentile(95),
+                    hostClient.latency.percentile(99), hostClient.deadlineMillis(),
+                    hostClient.latency.getSampleCount()));
+        }
+        return String.format("%d requests, %d hedged (%d won by the hedge)", requests, hedges, hedgesWon) + hosts;
+    }
+
+    private static byte[] decode(byte[] body, String encoding) throws IOException {
+        InputStream raw = new ByteArrayInputStream(body);
+        InputStream decoded = decode(raw, encoding);
+        if (decoded == raw) {
+            return body;
+        }
+        try (decoded) {
+            return decoded.readAllBytes();
+        }
+    }
+
+    private static InputStream decode(InputStream raw, String encoding) throws IOException {
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(raw, 16 * 1024);
+            case "deflate":
+                return new InflaterInputStream(raw);
+            default:
+                return raw;
+        }
+    }
+
+    private HostClient createHostClient(String websiteName, String hostKey) {
+        String versionName = properties.getSiteProperty(websiteName, "http.version", String.class, "HTTP_2");
+        int maxConnections = properties.getSiteProperty(websiteName, "http.maxConnections", Integer.class, 8);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.valueOf(versionName))
+                .connectTimeout(Duration.ofMillis(properties.getSiteProperty(websiteName,
+                        "http.connectTimeoutMillis", Long.class, 10000L)))
+                .followRedirects(properties.getSiteProperty(websiteName, "http.followRedirects", Boolean.class, true)
+                        ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+                .executor(clientExecutor)
+                .build();
+        logger.info("Created {} client for {} with at most {} connections", versionName, hostKey, maxConnections);
+        return new HostClient(client, new Semaphore(maxConnections),
+                new LatencyTracker(properties.getSiteProperty(websiteName, "http.latency.window", Integer.class, 256),
+                        properties.getSiteProperty(websiteName, "http.latency.minSamples", Integer.class, 20)),
+                properties.getSiteProperty(websiteName, "http.requestTimeoutMillis", Long.class, 10000L),
+                properties.getSiteProperty(websiteName, "http.deadline.percentile", Double.class, 99.0),
+                properties.getSiteProperty(websiteName, "http.deadline.multiplier", Double.class, 3.0),
+                properties.getSiteProperty(websiteName, "http.deadline.minMillis", Long.class, 1000L),
+                properties.getSiteProperty(websiteName, "http.hedge.enabled", Boolean.class, true),
+                properties.getSiteProperty(websiteName, "http.hedge.percentile", Double.class, 95.0),
+                properties.getSiteProperty(websiteName, "http.hedge.maxRatio", Double.class, 0.1));
+    }
+
+    private static String hostKey(URI uri) {
+        return uri.getScheme() + "://" + uri.getAuthority().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * The body of a streamed response. A watchdog closes the underlying stream once the exchange's deadline has
+     * passed, so a body that stalls cannot hold a reader, and the host's connection permit, indefinitely. The
+     * host's response time is recorded once the body has been read to the end, or when the deadline passes.
+     */
+    private class ResponseBodyStream extends FilterInputStream {
+        private final InputStream raw;
+        private final HostClient hostClient;
+        private final String requestUrl;
+        private final HttpResponse<InputStream> response;
+        private final long startNanos;
+        private final long deadlineMillis;
+        private final ByteArrayOutputStream cacheCopy;
+        private final ScheduledFuture<?> expiry;
+        private final AtomicBoolean timed = new AtomicBoolean();
+        private volatile boolean expired;
+        private boolean completed;
+        private boolean closed;
+
+        ResponseBodyStream(HttpResponse<InputStream> response, String encoding, HostClient hostClient,
+                           String requestUrl, long startNanos, long deadlineMillis) throws IOException {
+            super(response.body());
+            this.raw = response.body();
+            this.hostClient = hostClient;
+            this.requestUrl = requestUrl;
+            this.response = response;
+            this.startNanos = startNanos;
+            this.deadlineMillis = deadlineMillis;
+            boolean cacheable = httpCache.isEnabled() && (response.headers().firstValue("ETag").isPresent()
+                    || response.headers().firstValue("Last-Modified").isPresent());
+            this.cacheCopy = cacheable ? new ByteArrayOutputStream(64 * 1024) : null;
+            if (httpCache.isEnabled() && !cacheable) {
+                // Without validators store() only drops an older entry, which needs no body.
+                httpCache.store(new FetchResponse(requestUrl, response.uri().toString(), response.statusCode(),
+                        response.headers().map(), new byte[0]));
+            }
+            long remainingNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMillis) - System.nanoTime();
+            this.expiry = watchdog.schedule(this::expire, remainingNanos, TimeUnit.NANOSECONDS);
+            // A compressed body's header is read here already, so it is covered by the watchdog too.
+            try {
+                in = decode(raw, encoding);
+            } catch (IOException e) {
+                expiry.cancel(false);
+                closeQuietly(raw);
+                throw expired ? timeout() : e;
+            }
+        }
+
+        private void expire() {
+            expired = true;
+            recordLatency();
+            closeQuietly(raw);
+        }
+
+        private void recordLatency() {
+            if (timed.compareAndSet(false, true)) {
+                hostClient.latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+
+        private HttpTimeoutException timeout() {
+            return new HttpTimeoutException("Body of " + requestUrl + " not received within " + deadlineMillis
+                    + " ms");
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b;
+            try {
+                b = super.read();
+            } catch (IOException e) {
+                throw expired ? timeout() : e;
+            }
+            // Closing the stream can also end it early, which must not pass for the end of the body.
+            if (b < 0 && expired) {
+                throw timeout();
+            }
+            if (b < 0) {
+                complete();
+            } else if (cacheCopy != null) {
+                cacheCopy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read;
+            try {
+                read = super.read(buffer, offset, length);
+            } catch (IOException e) {
+                throw expired ? timeout() : e;
+            }
+            if (read < 0 && expired) {
+                throw timeout();
+            }
+            if (read < 0) {
+                complete();
+            } else if (cacheCopy != null) {
+                cacheCopy.write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        // Only bodies that were read to the end are cached; a partially streamed page is not.
+        private void complete() {
+            if (completed || closed) {
+                return;
+            }
+            completed = true;
+            recordLatency();
+            if (cacheCopy != null) {
+                httpCache.store(new FetchResponse(requestUrl, response.uri().toString(), response.statusCode(),
+                        response.headers().map(), cacheCopy.toByteArray()));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            expiry.cancel(false);
+            try {
+                super.close();
+            } finally {
+                hostClient.connections.release();
+            }
+        }
+    }
+
+    private static class HedgedExchange<T> {
+        private final HostClient hostClient;
+        private final CompletableFuture<HttpResponse<T>> winner = new CompletableFuture<>();
+        private final AtomicBoolean decided = new AtomicBoolean();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger settled = new AtomicInteger();
+
+        HedgedExchange(HostClient hostClient) {
+            this.hostClient = hostClient;
+        }
+
+        void settle(HttpResponse<T> response, Throwable error, boolean isHedge) {
+            if (error == null) {
+                if (decided.compareAndSet(false, true)) {
+                    if (isHedge) {
+                        hostClient.hedgesWon.incrementAndGet();
+                    }
+                    if (!winner.complete(response)) {
+                        discardBody(response);
+                    }
+                } else {
+                    discardBody(response);
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+            // The connection taken for the hedge is given back once both attempts are over.
+            if (settled.incrementAndGet() == 2) {
+                hostClient.connections.release();
+            }
+        }
+    }
+
+    private static class HostClient {
+        private final HttpClient client;
+        private final Semaphore connections;
+        private final LatencyTracker latency;
+        private final long maxTimeoutMillis;
+        private final double deadlinePercentile;
+        private final double deadlineMultiplier;
+        private final long minDeadlineMillis;
+        private final boolean hedging;
+        private final double hedgePercentile;
+        private final double maxHedgeRatio;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+        private final AtomicLong hedgesWon = new AtomicLong();
+
+        HostClient(HttpClient client, Semaphore connections, LatencyTracker latency, long maxTimeoutMillis,
+                   double deadlinePercentile, double deadlineMultiplier, long minDeadlineMillis,
+                   boolean hedging, double hedgePercentile, double maxHedgeRatio) {
+            this.client = client;
+            this.connections = connections;
+            this.latency = latency;
+            this.maxTimeoutMillis = maxTimeoutMillis;
+            this.deadlinePercentile = deadlinePercentile;
+            this.deadlineMultiplier = deadlineMultiplier;
+            this.minDeadlineMillis = Math.min(minDeadlineMillis, maxTimeoutMillis);
+            this.hedging = hedging;
+            this.hedgePercentile = hedgePercentile;
+            this.maxHedgeRatio = Math.max(0, Math.min(1, maxHedgeRatio));
+        }
+
+        // Until enough responses have been seen the configured timeout applies as is. Samples are complete
+        // responses, body included, since the deadline bounds the whole exchange.
+        long deadlineMillis() {
+            long observed = latency.percentile(deadlinePercentile);
+            if (observed < 0) {
+                return maxTimeoutMillis;
+            }
+            return Math.max(minDeadlineMillis, Math.min(maxTimeoutMillis, Math.round(observed * deadlineMultiplier)));
+        }
+
+        long hedgeAfterMillis() {
+            return hedging && maxHedgeRatio > 0 ? latency.percentile(hedgePercentile) : -1;
+        }
+
+        boolean tryStartHedge() {
+            while (true) {
+                long current = hedges.get();
+                if (current + 1 > maxHedgeRatio * requests.get()) {
+                    return false;
+                }
+                if (!connections.tryAcquire()) {
+                    return false;
+                }
+                if (hedges.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                connections.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.webscraper.fetch;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface IOCallable<T> {
+
+    T call() throws IOException;
+}
@@ -0,0 +1,47 @@
+package com.webscraper.fetch;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the most recent response times for one host, measured up to the end of the body, used
+ * to derive request deadlines and the delay after which a hedged request is sent.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final int minSamples;
+    private int next;
+    private int count;
+
+    public LatencyTracker(int windowSize, int minSamples) {
+        this.samples = new long[Math.max(1, windowSize)];
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile (0-100) of the window in milliseconds, or -1 while there are
+     * fewer than {@code minSamples} samples to go by.
+     */
+    public long percentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count < minSamples) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
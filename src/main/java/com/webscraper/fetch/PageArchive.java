@@ -0,0 +1,293 @@
+package com.webscraper.fetch;
+
+import com.webscraper.config.ScraperProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only archive of raw responses (URL, status, headers and the deflated body) with a separate index of
+ * record offsets, so archived pages can be re-extracted later without the network. When a URL is archived
+ * more than once, the latest response wins.
+ */
+@Component
+public class PageArchive implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageArchive.class);
+    private static final String DATA_FILE = "pages.dat";
+    private static final String INDEX_FILE = "pages.idx";
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_HEADER_LENGTH = 16 * 1024;
+
+    private final boolean recording;
+    private final Path directory;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private FileChannel data;
+    private DataOutputStream index;
+    private long dataSize;
+    private long recorded;
+    private boolean loaded;
+
+    @Autowired
+    public PageArchive(ScraperProperties properties) {
+        this(properties.getProperty("archive.record", Boolean.class, false),
+                Paths.get(properties.getProperty("archive.directory", String.class, ".cache/archive")));
+    }
+
+    public PageArchive(boolean recording, Path directory) {
+        this.recording = recording;
+        this.directory = directory;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public void record(String websiteName, FetchResponse response) throws IOException {
+        byte[] record = encode(websiteName, response);
+        synchronized (this) {
+            ensureLoaded();
+            if (index == null) {
+                Files.createDirectories(directory);
+                if (data != null) {
+                    // Opened read-only by an earlier replay.
+                    data.close();
+                }
+                data = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                        directory.resolve(INDEX_FILE), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            long offset = dataSize;
+            while (buffer.hasRemaining()) {
+                data.write(buffer, offset + buffer.position());
+            }
+            dataSize += record.length;
+            Entry entry = new Entry(websiteName, response.getRequestUrl(), offset, record.length);
+            entry.writeTo(index);
+            entries.remove(entry.url);
+            entries.put(entry.url, entry);
+            recorded++;
+        }
+    }
+
+    /**
+     * The archived pages in the order they were first recorded, one per URL.
+     */
+    public synchronized List<Entry> entries() throws IOException {
+        ensureLoaded();
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Reads one archived response. Safe to call from many threads at once.
+     */
+    public FetchResponse read(Entry entry) throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            ensureLoaded();
+            if (data == null) {
+                data = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.READ);
+            }
+            channel = data;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                throw new EOFException("Archive record for " + entry.url + " is truncated");
+            }
+        }
+        return decode(buffer.array());
+    }
+
+    public synchronized long getRecordedCount() {
+        return recorded;
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        Path indexFile = directory.resolve(INDEX_FILE);
+        Path dataFile = directory.resolve(DATA_FILE);
+        if (!Files.exists(indexFile) || !Files.exists(dataFile)) {
+            return;
+        }
+        long available = Files.size(dataFile);
+        long indexedEnd = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            while (true) {
+                Entry entry = Entry.readFrom(in);
+                if (entry.offset + entry.length > available) {
+                    break;
+                }
+                entries.remove(entry.url);
+                entries.put(entry.url, entry);
+                indexedEnd = Math.max(indexedEnd, entry.offset + entry.length);
+            }
+        } catch (EOFException e) {
+            // A run that stopped mid-write leaves a partial index entry; everything before it is intact.
+        }
+        dataSize = indexedEnd;
+        if (recording && available > indexedEnd) {
+            try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.WRITE)) {
+                channel.truncate(indexedEnd);
+            }
+        }
+        logger.info("Opened page archive at {}: {} pages, {} MB", directory, entries.size(), dataSize / (1024 * 1024));
+    }
+
+    private static byte[] encode(String websiteName, FetchResponse response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.getBody().length / 4 + 512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(websiteName);
+        out.writeUTF(response.getRequestUrl());
+        out.writeUTF(response.getFinalUrl());
+        out.writeShort(response.getStatusCode());
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                if (value.length() <= MAX_HEADER_LENGTH) {
+                    headers.add(Map.entry(header.getKey(), value));
+                }
+            }
+        }
+        out.writeShort(headers.size());
+        for (Map.Entry<String, String> header : headers) {
+            out.writeUTF(header.getKey());
+            out.writeUTF(header.getValue());
+        }
+        byte[] body = response.getBody();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+            byte[] chunk = new byte[16 * 1024];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            out.writeInt(body.length);
+            out.writeInt(compressed.size());
+            compressed.writeTo(out);
+        } finally {
+            deflater.end();
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static FetchResponse decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported archive record version " + version);
+        }
+        in.readUTF();
+        String requestUrl = in.readUTF();
+        String finalUrl = in.readUTF();
+        int statusCode = in.readUnsignedShort();
+        int headerCount = in.readUnsignedShort();
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.computeIfAbsent(in.readUTF(), name -> new ArrayList<>()).add(in.readUTF());
+        }
+        byte[] body = new byte[in.readInt()];
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while (inflated < body.length && !inflater.finished()) {
+                int count = inflater.inflate(body, inflated, body.length - inflated);
+                if (count == 0 && inflater.needsInput()) {
+                    throw new EOFException("Archived body of " + requestUrl + " is truncated");
+                }
+                inflated += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Archived body of " + requestUrl + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+        return new FetchResponse(requestUrl, finalUrl, statusCode, headers, body);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (index != null) {
+                index.close();
+            }
+        } finally {
+            if (data != null) {
+                data.close();
+            }
+            index = null;
+            data = null;
+            loaded = false;
+            entries.clear();
+        }
+    }
+
+    public static class Entry {
+        private final String websiteName;
+        private final String url;
+        private final long offset;
+        private final int length;
+
+        Entry(String websiteName, String url, long offset, int length) {
+            this.websiteName = websiteName;
+            this.url = url;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public String getWebsiteName() {
+            return websiteName;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeUTF(websiteName);
+            out.writeUTF(url);
+            out.writeLong(offset);
+            out.writeInt(length);
+        }
+
+        static Entry readFrom(DataInputStream in) throws IOException {
+            return new Entry(in.readUTF(), in.readUTF(), in.readLong(), in.readInt());
+        }
+    }
+}
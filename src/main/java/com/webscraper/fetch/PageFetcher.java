@@ -0,0 +1,23 @@
+package com.webscraper.fetch;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public interface PageFetcher {
+
+    FetchResponse fetch(String websiteName, String url) throws IOException;
+
+    /**
+     * Fetches a listing's detail page. Unlike result and search pages, which are fetched with
+     * {@link #fetch(String, String)}, detail pages may also be kept for re-extraction.
+     */
+    default FetchResponse fetchDetail(String websiteName, String url) throws IOException {
+        return fetch(websiteName, url);
+    }
+
+    default FetchStream open(String websiteName, String url) throws IOException {
+        FetchResponse response = fetch(websiteName, url);
+        return new FetchStream(response.getRequestUrl(), response.getFinalUrl(), response.getStatusCode(),
+                response.getHeaders(), new ByteArrayInputStream(response.getBody()), response.isFromCache());
+    }
+}
@@ -0,0 +1,77 @@
+package com.webscraper.fetch;
+
+import com.webscraper.config.ScraperProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class RateLimiterRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterRegistry.class);
+
+    private final ScraperProperties properties;
+    private final Map<String, AdaptiveRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RateLimiterRegistry(ScraperProperties properties) {
+        this.properties = properties;
+    }
+
+    public AdaptiveRateLimiter forWebsite(String websiteName) {
+        return limiters.computeIfAbsent(websiteName, this::createLimiter);
+    }
+
+    public <T> T execute(String websiteName, IOCallable<T> call) throws IOException {
+        AdaptiveRateLimiter limiter = forWebsite(websiteName);
+        AdaptiveRateLimiter.Permit permit = limiter.acquire();
+        try {
+            T result = call.call();
+            permit.onSuccess();
+            return result;
+        } catch (IOException e) {
+            if (isOverload(e)) {
+                permit.onOverload();
+                logger.warn("{} is pushing back ({}), rate lowered to {} req/s with concurrency {}",
+                        websiteName, e.getMessage(), String.format("%.2f", limiter.getPermitsPerSecond()),
+                        limiter.getConcurrencyLimit());
+            } else {
+                permit.onIgnored();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            permit.onIgnored();
+            throw e;
+        }
+    }
+
+    static boolean isOverload(IOException e) {
+        if (e instanceof SocketTimeoutException || e instanceof HttpTimeoutException) {
+            return true;
+        }
+        if (e instanceof FetchStatusException) {
+            int statusCode = ((FetchStatusException) e).getStatusCode();
+            return statusCode == 429 || statusCode == 503;
+        }
+        return false;
+    }
+
+    private AdaptiveRateLimiter createLimiter(String websiteName) {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(websiteName,
+                properties.getSiteProperty(websiteName, "rate.permitsPerSecond", Double.class, 2.0),
+                properties.getSiteProperty(websiteName, "rate.minPermitsPerSecond", Double.class, 0.2),
+                properties.getSiteProperty(websiteName, "rate.maxPermitsPerSecond", Double.class, 10.0),
+                properties.getSiteProperty(websiteName, "rate.burst", Double.class, 2.0),
+                properties.getSiteProperty(websiteName, "rate.initialConcurrency", Integer.class, 2),
+                properties.getSiteProperty(websiteName, "rate.maxConcurrency", Integer.class, 8),
+                properties.getSiteProperty(websiteName, "rate.latencyTargetMillis", Long.class, 3000L));
+        logger.info("Rate limiter for {} starts at {} req/s with concurrency {}",
+                websiteName, limiter.getPermitsPerSecond(), limiter.getConcurrencyLimit());
+        return limiter;
+    }
+}
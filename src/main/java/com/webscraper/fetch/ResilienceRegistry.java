@@ -0,0 +1,164 @@
+package com.webscraper.fetch;
+
+import com.webscraper.config.ScraperProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries transient fetch failures with full-jitter exponential backoff and keeps a circuit breaker per
+ * website, so a host that is down fails fast instead of costing a full timeout for every remaining URL.
+ */
+@Component
+public class ResilienceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceRegistry.class);
+
+    private final ScraperProperties properties;
+    private final Map<String, SiteResilience> sites = new ConcurrentHashMap<>();
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong fastFailed = new AtomicLong();
+    private final AtomicLong savedNanos = new AtomicLong();
+
+    public ResilienceRegistry(ScraperProperties properties) {
+        this.properties = properties;
+    }
+
+    public <T> T execute(String websiteName, String url, IOCallable<T> call) throws IOException {
+        SiteResilience site = sites.computeIfAbsent(websiteName, SiteResilience::new);
+        long waitMillis = site.breaker.tryAcquire();
+        if (waitMillis > 0) {
+            fastFailed.incrementAndGet();
+            savedNanos.addAndGet(site.averageFailedCallNanos());
+            throw new CircuitOpenException(websiteName, waitMillis);
+        }
+
+        long start = System.nanoTime();
+        boolean reported = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                reported = false;
+                try {
+                    T result = call.call();
+                    site.breaker.onSuccess();
+                    reported = true;
+                    if (attempt > 1) {
+                        recovered.incrementAndGet();
+                    }
+                    return result;
+                } catch (IOException e) {
+                    if (!isRetryable(e)) {
+                        // The host answered; the page itself is the problem.
+                        site.breaker.onSuccess();
+                        reported = true;
+                        throw e;
+                    }
+                    site.breaker.onFailure();
+                    reported = true;
+                    if (attempt >= site.maxAttempts || site.breaker.isOpen()) {
+                        site.recordFailedCall(System.nanoTime() - start);
+                        throw e;
+                    }
+                    long delay = site.backoffMillis(attempt);
+                    retries.incrementAndGet();
+                    logger.info("Retrying {} in {} ms after attempt {} failed: {}", url, delay, attempt, e.toString());
+                    sleep(delay);
+                }
+            }
+        } finally {
+            // A call that threw anything else never reported back, so a probe it held must still be released.
+            if (!reported) {
+                site.breaker.releaseProbe();
+            }
+        }
+    }
+
+    static boolean isRetryable(IOException e) {
+        if (e instanceof CircuitOpenException) {
+            return false;
+        }
+        if (e instanceof FetchStatusException) {
+            int statusCode = ((FetchStatusException) e).getStatusCode();
+            return statusCode == 408 || statusCode == 425 || statusCode == 429 || statusCode >= 500;
+        }
+        if (e instanceof SocketTimeoutException || e instanceof HttpTimeoutException) {
+            return true;
+        }
+        // Any other interruption means we are shutting down, not that the host failed.
+        return !(e instanceof InterruptedIOException);
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getFastFailed() {
+        return fastFailed.get();
+    }
+
+    public long getSavedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(savedNanos.get());
+    }
+
+    public String summary() {
+        long opened = sites.values().stream().mapToLong(site -> site.breaker.getTimesOpened()).sum();
+        return String.format("%d retries (%d pages recovered), circuit opened %d times, %d requests failed fast, "
+                        + "~%.1f s of failing requests avoided",
+                retries.get(), recovered.get(), opened, fastFailed.get(), savedNanos.get() / 1e9);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    private final class SiteResilience {
+        private final CircuitBreaker breaker;
+        private final int maxAttempts;
+        private final long baseDelayMillis;
+        private final long maxDelayMillis;
+        private long failedCalls;
+        private long failedCallNanos;
+
+        private SiteResilience(String websiteName) {
+            this.breaker = new CircuitBreaker(
+                    properties.getSiteProperty(websiteName, "breaker.failureThreshold", Integer.class, 5),
+                    properties.getSiteProperty(websiteName, "breaker.openMillis", Long.class, 30_000L));
+            this.maxAttempts = Math.max(1,
+                    properties.getSiteProperty(websiteName, "retry.maxAttempts", Integer.class, 3));
+            this.baseDelayMillis = properties.getSiteProperty(websiteName, "retry.baseDelayMillis", Long.class, 500L);
+            this.maxDelayMillis = properties.getSiteProperty(websiteName, "retry.maxDelayMillis", Long.class, 10_000L);
+        }
+
+        private long backoffMillis(int attempt) {
+            long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+            return ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+
+        private synchronized void recordFailedCall(long nanos) {
+            failedCalls++;
+            failedCallNanos += nanos;
+        }
+
+        // What a fast-failed call would most likely have cost: the average of the calls that failed for real.
+        private synchronized long averageFailedCallNanos() {
+            return failedCalls == 0 ? 0 : failedCallNanos / failedCalls;
+        }
+    }
+}
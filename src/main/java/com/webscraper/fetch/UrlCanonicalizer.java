@@ -0,0 +1,194 @@
+package com.webscraper.fetch;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.SiteRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps the different spellings of a page URL (host case, default port, fragment, tracking parameters, parameter
+ * order, trailing slash and known redirects) to one canonical URL, using the site's {@code canonical} rules.
+ */
+@Component
+public class UrlCanonicalizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlCanonicalizer.class);
+    private static final Set<String> TRACKING_PARAMS = Set.of("gclid", "fbclid", "msclkid", "dclid", "yclid",
+            "mc_cid", "mc_eid", "_ga", "_gl", "ref", "igshid");
+    private static final int MAX_REDIRECT_HOPS = 5;
+
+    private final Map<String, SiteRules.Canonical> siteRules;
+    private final int maxRedirects;
+    private final Map<String, String> redirects = new ConcurrentHashMap<>();
+    private final AtomicLong rewritten = new AtomicLong();
+    private final AtomicLong redirectHits = new AtomicLong();
+
+    @Autowired
+    public UrlCanonicalizer(ExtractionRuleRegistry extractionRules, ScraperProperties properties) {
+        this(extractionRules.getCanonicalRules(), properties.getProperty("canonical.maxRedirects", Integer.class,
+                100_000));
+    }
+
+    public UrlCanonicalizer(Map<String, SiteRules.Canonical> siteRules, int maxRedirects) {
+        this.siteRules = siteRules;
+        this.maxRedirects = maxRedirects;
+    }
+
+    public static UrlCanonicalizer withoutSiteRules() {
+        return new UrlCanonicalizer(Collections.emptyMap(), 100_000);
+    }
+
+    /**
+     * Returns the canonical form of the URL, following redirects recorded for it. Strings that are not absolute
+     * http(s) URLs are returned unchanged.
+     */
+    public String canonicalize(String websiteName, String url) {
+        String canonical = normalize(websiteName, url);
+        for (int hop = 0; hop < MAX_REDIRECT_HOPS; hop++) {
+            String target = redirects.get(canonical);
+            if (target == null || target.equals(canonical)) {
+                break;
+            }
+            if (hop == 0) {
+                redirectHits.incrementAndGet();
+            }
+            canonical = target;
+        }
+        if (!canonical.equals(url)) {
+            rewritten.incrementAndGet();
+        }
+        return canonical;
+    }
+
+    /**
+     * Remembers that the URL ended up at another one, so later requests for it resolve to the target directly.
+     */
+    public void recordRedirect(String websiteName, String requestUrl, String finalUrl) {
+        if (finalUrl == null) {
+            return;
+        }
+        String from = normalize(websiteName, requestUrl);
+        String to = normalize(websiteName, finalUrl);
+        if (from.equals(to)) {
+            return;
+        }
+        if (redirects.size() >= maxRedirects && !redirects.containsKey(from)) {
+            logger.debug("Redirect map is full, not remembering {} -> {}", from, to);
+            return;
+        }
+        redirects.put(from, to);
+        logger.debug("Remembered redirect {} -> {}", from, to);
+    }
+
+    public long getRewrittenCount() {
+        return rewritten.get();
+    }
+
+    public long getRedirectHits() {
+        return redirectHits.get();
+    }
+
+    public String summary() {
+        return String.format("%d URLs rewritten, %d redirects known, %d redirect hits",
+                rewritten.get(), redirects.size(), redirectHits.get());
+    }
+
+    private String normalize(String websiteName, String url) {
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException e) {
+            return url;
+        }
+        String scheme = uri.getScheme();
+        if (uri.isOpaque() || uri.getHost() == null || scheme == null
+                || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+            return url;
+        }
+        SiteRules.Canonical rules = siteRules.get(websiteName);
+
+        scheme = scheme.toLowerCase(Locale.ROOT);
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (rules != null && rules.host != null && isAlias(host, rules.host.toLowerCase(Locale.ROOT))) {
+            host = rules.host.toLowerCase(Locale.ROOT);
+        }
+        int port = uri.getPort();
+        if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+            port = -1;
+        }
+
+        String path = uri.normalize().getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        boolean stripTrailingSlash = rules == null || rules.stripTrailingSlash;
+        if (stripTrailingSlash) {
+            while (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+        }
+
+        StringBuilder canonical = new StringBuilder(url.length()).append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            canonical.append(uri.getRawUserInfo()).append('@');
+        }
+        canonical.append(host);
+        if (port != -1) {
+            canonical.append(':').append(port);
+        }
+        canonical.append(path);
+        String query = canonicalQuery(uri.getRawQuery(), rules);
+        if (!query.isEmpty()) {
+            canonical.append('?').append(query);
+        }
+        return canonical.toString();
+    }
+
+    private static boolean isAlias(String host, String preferredHost) {
+        String bare = preferredHost.startsWith("www.") ? preferredHost.substring(4) : preferredHost;
+        return host.equals(bare) || host.equals("www." + bare);
+    }
+
+    private static String canonicalQuery(String rawQuery, SiteRules.Canonical rules) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        Set<String> keep = rules != null && rules.keepParams != null ? new HashSet<>(rules.keepParams) : null;
+        Set<String> drop = rules != null && rules.dropParams != null ? new HashSet<>(rules.dropParams)
+                : Collections.emptySet();
+        List<String> params = new ArrayList<>();
+        for (String param : rawQuery.split("&")) {
+            if (param.isEmpty()) {
+                continue;
+            }
+            int equals = param.indexOf('=');
+            String name = equals < 0 ? param : param.substring(0, equals);
+            if (keep != null ? !keep.contains(name) : isTracking(name) || drop.contains(name)) {
+                continue;
+            }
+            params.add(param);
+        }
+        Collections.sort(params);
+        return String.join("&", params);
+    }
+
+    private static boolean isTracking(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.startsWith("utm_") || TRACKING_PARAMS.contains(lower);
+    }
+}
@@ -0,0 +1,98 @@
+package com.webscraper.metrics;
+
+import com.webscraper.config.ScraperProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetch, parse and export latency histograms and throughput counters per website, exposed over JMX
+ * and printed as a summary at the end of a run.
+ */
+@Component
+public class ScraperMetrics implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScraperMetrics.class);
+    private static final String UNKNOWN_WEBSITE = "Unknown";
+
+    private final boolean jmxEnabled;
+    private final Map<String, SiteMetrics> sites = new ConcurrentHashMap<>();
+    private final Map<String, ObjectName> registeredNames = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ScraperMetrics(ScraperProperties properties) {
+        this(properties.getProperty("metrics.jmx", Boolean.class, true));
+    }
+
+    public ScraperMetrics(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    public SiteMetrics site(String websiteName) {
+        String key = websiteName == null ? UNKNOWN_WEBSITE : websiteName;
+        SiteMetrics metrics = sites.get(key);
+        if (metrics == null) {
+            metrics = sites.computeIfAbsent(key, SiteMetrics::new);
+            register(key, metrics);
+        }
+        return metrics;
+    }
+
+    public Map<String, SiteMetrics> getSites() {
+        return new TreeMap<>(sites);
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (SiteMetrics metrics : getSites().values()) {
+            summary.append(System.lineSeparator()).append("  ").append(metrics.summary());
+        }
+        return summary.length() == 0 ? "no pages scraped" : summary.toString();
+    }
+
+    private void register(String websiteName, SiteMetrics metrics) {
+        if (!jmxEnabled || registeredNames.containsKey(websiteName)) {
+            return;
+        }
+        synchronized (registeredNames) {
+            if (registeredNames.containsKey(websiteName)) {
+                return;
+            }
+            try {
+                ObjectName name = new ObjectName("com.webscraper:type=SiteMetrics,site="
+                        + ObjectName.quote(websiteName));
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(metrics, name);
+                registeredNames.put(websiteName, name);
+            } catch (JMException e) {
+                logger.warn("Could not register JMX metrics for {}", websiteName, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames.values()) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                logger.debug("Could not unregister {}", name, e);
+            }
+        }
+        registeredNames.clear();
+    }
+}
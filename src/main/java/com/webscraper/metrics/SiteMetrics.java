@@ -0,0 +1,180 @@
+package com.webscraper.metrics;
+
+import com.webscraper.extract.ItemField;
+import com.webscraper.model.MachineryItem;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SiteMetrics implements SiteMetricsMXBean {
+
+    private final String websiteName;
+    private final long startNanos = System.nanoTime();
+    private final LatencyHistogram fetch = new LatencyHistogram();
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram export = new LatencyHistogram();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder fieldChecks = new LongAdder();
+    private final AtomicLongArray fieldHits = new AtomicLongArray(ItemField.values().length);
+
+    public SiteMetrics(String websiteName) {
+        this.websiteName = websiteName;
+    }
+
+    public LatencyHistogram getFetch() {
+        return fetch;
+    }
+
+    public LatencyHistogram getParse() {
+        return parse;
+    }
+
+    public LatencyHistogram getExport() {
+        return export;
+    }
+
+    public void recordBytes(long bytes) {
+        bytesDownloaded.add(bytes);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Counts a scraped page's items by status; field hit rates only look at items whose status is
+     * {@code activeStatus}, since the other statuses are expected to leave fields empty.
+     */
+    public void recordPage(Iterable<MachineryItem> pageItems, String activeStatus) {
+        pages.increment();
+        for (MachineryItem item : pageItems) {
+            items.increment();
+            String status = item.getStatus() == null ? "Unknown" : item.getStatus();
+            statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (status.equals(activeStatus)) {
+                fieldChecks.increment();
+                for (ItemField field : ItemField.values()) {
+                    if (field.get(item) != null) {
+                        fieldHits.incrementAndGet(field.ordinal());
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getWebsiteName() {
+        return websiteName;
+    }
+
+    @Override
+    public long getPages() {
+        return pages.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getItems() {
+        return items.sum();
+    }
+
+    @Override
+    public double getItemsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : items.sum() / seconds;
+    }
+
+    @Override
+    public long getBytesDownloaded() {
+        return bytesDownloaded.sum();
+    }
+
+    @Override
+    public double getFetchP50Millis() {
+        return fetch.percentileMillis(50);
+    }
+
+    @Override
+    public double getFetchP95Millis() {
+        return fetch.percentileMillis(95);
+    }
+
+    @Override
+    public double getFetchP99Millis() {
+        return fetch.percentileMillis(99);
+    }
+
+    @Override
+    public double getParseP50Millis() {
+        return parse.percentileMillis(50);
+    }
+
+    @Override
+    public double getParseP95Millis() {
+        return parse.percentileMillis(95);
+    }
+
+    @Override
+    public double getParseP99Millis() {
+        return parse.percentileMillis(99);
+    }
+
+    @Override
+    public double getExportP50Millis() {
+        return export.percentileMillis(50);
+    }
+
+    @Override
+    public double getExportP99Millis() {
+        return export.percentileMillis(99);
+    }
+
+    @Override
+    public Map<String, Long> getStatusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getFieldHitRates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        long checks = fieldChecks.sum();
+        for (ItemField field : ItemField.values()) {
+            rates.put(field.getFieldName(), checks == 0 ? 0 : fieldHits.get(field.ordinal()) / (double) checks);
+        }
+        return rates;
+    }
+
+    public String summary() {
+        StringBuilder fields = new StringBuilder();
+        getFieldHitRates().forEach((field, rate) -> fields.append(fields.length() == 0 ? "" : ", ")
+                .append(field).append(' ').append(Math.round(rate * 100)).append('%'));
+        return String.format("%s: %d pages (%d errors), %d items, %.2f items/s, %d KB downloaded%n"
+                        + "    fetch  %s%n    parse  %s%n    export %s%n    status %s%n    fields %s",
+                websiteName, getPages(), getErrors(), getItems(), getItemsPerSecond(), getBytesDownloaded() / 1024,
+                describe(fetch), describe(parse), describe(export), getStatusCounts(),
+                fieldChecks.sum() == 0 ? "no active items" : fields);
+    }
+
+    private static String describe(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return String.format("n=%d p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms, total %.1f s",
+                histogram.getCount(), histogram.percentileMillis(50), histogram.percentileMillis(95),
+                histogram.percentileMillis(99), histogram.getMaxMillis(), histogram.getTotalMillis() / 1000);
+    }
+}
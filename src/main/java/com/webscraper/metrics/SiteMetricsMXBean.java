@@ -0,0 +1,41 @@
+package com.webscraper.metrics;
+
+import java.util.Map;
+
+/**
+ * Per-website scraping metrics, registered under {@code com.webscraper:type=SiteMetrics,site=<name>}.
+ */
+public interface SiteMetricsMXBean {
+
+    String getWebsiteName();
+
+    long getPages();
+
+    long getErrors();
+
+    long getItems();
+
+    double getItemsPerSecond();
+
+    long getBytesDownloaded();
+
+    double getFetchP50Millis();
+
+    double getFetchP95Millis();
+
+    double getFetchP99Millis();
+
+    double getParseP50Millis();
+
+    double getParseP95Millis();
+
+    double getParseP99Millis();
+
+    double getExportP50Millis();
+
+    double getExportP99Millis();
+
+    Map<String, Long> getStatusCounts();
+
+    Map<String, Double> getFieldHitRates();
+}
@@ -0,0 +1,201 @@
+package com.webscraper.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Typed, low-footprint form of {@link MachineryItem}: numeric year, hours and price in cents, enum status and
+ * contract type, and dictionary-encoded make, city and source website. {@link #toMachineryItem()} gives the
+ * string view the exporters write, so JSON and CSV output stays unchanged. The codes refer to a
+ * {@link Dictionaries} owned by whoever holds the items, so the strings are released along with them.
+ */
+public final class CompactMachineryItem {
+
+    public static final int NO_VALUE = -1;
+
+    private final Dictionaries dictionaries;
+    private final String model;
+    private final String photoUrl;
+    private final long priceCents;
+    private final int year;
+    private final int workedHours;
+    private final int makeCode;
+    private final int cityCode;
+    private final int websiteCode;
+    private final ListingStatus status;
+    private final ContractType contractType;
+
+    public CompactMachineryItem(Dictionaries dictionaries, String model, ContractType contractType, String make,
+                                int year, int workedHours, String city, long priceCents, String photoUrl,
+                                String sourceWebsite, ListingStatus status) {
+        this.dictionaries = dictionaries;
+        this.model = model;
+        this.contractType = contractType;
+        this.makeCode = dictionaries.makes.encode(make);
+        this.year = year;
+        this.workedHours = workedHours;
+        this.cityCode = dictionaries.cities.encode(city);
+        this.priceCents = priceCents;
+        this.photoUrl = photoUrl;
+        this.websiteCode = dictionaries.websites.encode(sourceWebsite);
+        this.status = status;
+    }
+
+    /**
+     * Converts a scraped item. Numbers too large for their field and contract types or statuses that are not
+     * listed are kept as missing values rather than rejected.
+     */
+    public static CompactMachineryItem from(MachineryItem item, Dictionaries dictionaries) {
+        return new CompactMachineryItem(
+                dictionaries,
+                item.getModel(),
+                ContractType.fromLabelOrNull(item.getContractType()),
+                item.getMake(),
+                parseInt(item.getYear()),
+                parseInt(item.getWorkedHours()),
+                item.getCity(),
+                parsePriceCents(item.getPrice()),
+                item.getPhotoUrl(),
+                item.getSourceWebsite(),
+                ListingStatus.fromLabelOrNull(item.getStatus()));
+    }
+
+    @JsonValue
+    public MachineryItem toMachineryItem() {
+        return new MachineryItem(
+                model,
+                contractType == null ? null : contractType.getLabel(),
+                getMake(),
+                year == NO_VALUE ? null : String.valueOf(year),
+                workedHours == NO_VALUE ? null : String.valueOf(workedHours),
+                getCity(),
+                formatPrice(priceCents),
+                photoUrl,
+                getSourceWebsite(),
+                status == null ? null : status.getLabel());
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public ContractType getContractType() {
+        return contractType;
+    }
+
+    public String getMake() {
+        return dictionaries.makes.decode(makeCode);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getWorkedHours() {
+        return workedHours;
+    }
+
+    public String getCity() {
+        return dictionaries.cities.decode(cityCode);
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+
+    public String getSourceWebsite() {
+        return dictionaries.websites.decode(websiteCode);
+    }
+
+    public ListingStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Parses the digits of a value such as "5.200 h"; returns {@link #NO_VALUE} when there are none or they do
+     * not fit in a long.
+     */
+    public static long parseDigits(String text) {
+        if (text == null) {
+            return NO_VALUE;
+        }
+        long value = 0;
+        boolean found = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    return NO_VALUE;
+                }
+                value = value * 10 + (c - '0');
+                found = true;
+            }
+        }
+        return found ? value : NO_VALUE;
+    }
+
+    private static int parseInt(String text) {
+        long value = parseDigits(text);
+        return value > Integer.MAX_VALUE ? NO_VALUE : (int) value;
+    }
+
+    /**
+     * Parses prices such as "R$ 350.000,00" or "350000.5" into cents. The last '.' or ',' is the decimal
+     * separator when one or two digits follow it, otherwise every separator groups thousands.
+     */
+    public static long parsePriceCents(String text) {
+        if (text == null) {
+            return NO_VALUE;
+        }
+        int lastSeparator = Math.max(text.lastIndexOf(','), text.lastIndexOf('.'));
+        int fractionDigits = 0;
+        if (lastSeparator >= 0) {
+            for (int i = lastSeparator + 1; i < text.length() && Character.isDigit(text.charAt(i)); i++) {
+                fractionDigits++;
+            }
+        }
+        boolean decimal = fractionDigits == 1 || fractionDigits == 2;
+        long integerPart = parseDigits(decimal ? text.substring(0, lastSeparator) : text);
+        if (integerPart == NO_VALUE) {
+            return NO_VALUE;
+        }
+        if (integerPart > (Long.MAX_VALUE - 99) / 100) {
+            return NO_VALUE;
+        }
+        long cents = integerPart * 100;
+        if (decimal) {
+            long fraction = parseDigits(text.substring(lastSeparator + 1, lastSeparator + 1 + fractionDigits));
+            cents += fractionDigits == 1 ? fraction * 10 : fraction;
+        }
+        return cents;
+    }
+
+    public static String formatPrice(long priceCents) {
+        if (priceCents == NO_VALUE) {
+            return null;
+        }
+        // Same output as DecimalFormat("#,##0.00") in pt-BR, without building a format per call.
+        String reais = Long.toString(priceCents / 100);
+        StringBuilder price = new StringBuilder(reais.length() + 10).append("R$ ");
+        for (int i = 0; i < reais.length(); i++) {
+            if (i > 0 && (reais.length() - i) % 3 == 0) {
+                price.append('.');
+            }
+            price.append(reais.charAt(i));
+        }
+        long cents = priceCents % 100;
+        return price.append(cents < 10 ? ",0" : ",").append(cents).toString();
+    }
+
+    /**
+     * The make, city and website dictionaries shared by a set of items.
+     */
+    public static final class Dictionaries {
+        private final StringDictionary makes = new StringDictionary();
+        private final StringDictionary cities = new StringDictionary();
+        private final StringDictionary websites = new StringDictionary();
+    }
+}
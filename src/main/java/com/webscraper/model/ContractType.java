@@ -0,0 +1,36 @@
+package com.webscraper.model;
+
+public enum ContractType {
+    SALE("Sale"),
+    RENT("Rent");
+
+    private final String label;
+
+    ContractType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static ContractType fromLabel(String label) {
+        ContractType type = fromLabelOrNull(label);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown contract type: " + label);
+        }
+        return type;
+    }
+
+    /**
+     * Like {@link #fromLabel}, but returns null for a label that is not listed.
+     */
+    public static ContractType fromLabelOrNull(String label) {
+        for (ContractType type : values()) {
+            if (type.label.equalsIgnoreCase(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
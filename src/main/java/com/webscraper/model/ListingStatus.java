@@ -0,0 +1,40 @@
+package com.webscraper.model;
+
+public enum ListingStatus {
+    ACTIVE("Active"),
+    FINALIZED("Finalized"),
+    SOLD("Sold"),
+    INACTIVE("Inactive"),
+    EXPIRED("Expired"),
+    ERROR("Error");
+
+    private final String label;
+
+    ListingStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static ListingStatus fromLabel(String label) {
+        ListingStatus status = fromLabelOrNull(label);
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown listing status: " + label);
+        }
+        return status;
+    }
+
+    /**
+     * Like {@link #fromLabel}, but returns null for a label that is not listed.
+     */
+    public static ListingStatus fromLabelOrNull(String label) {
+        for (ListingStatus status : values()) {
+            if (status.label.equalsIgnoreCase(label)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
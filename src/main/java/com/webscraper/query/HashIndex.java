@@ -0,0 +1,75 @@
+package com.webscraper.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps each distinct value of a field (trimmed, ignoring case) to a code and to the rows holding it, in row order.
+ */
+final class HashIndex {
+
+    static final int NO_VALUE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+
+    int add(String value, int row) {
+        if (value == null || value.isBlank()) {
+            return NO_VALUE;
+        }
+        String key = value.trim().toLowerCase(Locale.ROOT);
+        Integer code = codes.get(key);
+        if (code == null) {
+            code = labels.size();
+            codes.put(key, code);
+            labels.add(value.trim());
+            postings.add(new Postings());
+        }
+        postings.get(code).add(row);
+        return code;
+    }
+
+    int code(String value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        Integer code = codes.get(value.trim().toLowerCase(Locale.ROOT));
+        return code == null ? NO_VALUE : code;
+    }
+
+    /**
+     * The first spelling seen of the value with this code.
+     */
+    String label(int code) {
+        return code == NO_VALUE ? null : labels.get(code);
+    }
+
+    int[] rows(int code) {
+        return postings.get(code).rows;
+    }
+
+    int count(int code) {
+        return postings.get(code).size;
+    }
+
+    int size() {
+        return labels.size();
+    }
+
+    private static final class Postings {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.webscraper.query;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Filters, order and limit for {@link ItemStore} queries. All filters must match; numeric bounds are inclusive
+ * and items without a value for a filtered field never match.
+ */
+public class ItemQuery {
+
+    private final Map<QueryField, String> values = new EnumMap<>(QueryField.class);
+    private final Map<QueryField, long[]> ranges = new EnumMap<>(QueryField.class);
+    private QueryField orderBy;
+    private boolean descending;
+    private int limit = Integer.MAX_VALUE;
+
+    public static ItemQuery all() {
+        return new ItemQuery();
+    }
+
+    public ItemQuery where(QueryField field, String value) {
+        if (field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is numeric; use between, atLeast or atMost");
+        }
+        values.put(field, value);
+        return this;
+    }
+
+    public ItemQuery between(QueryField field, long min, long max) {
+        if (!field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is not numeric; use where");
+        }
+        long[] range = ranges.computeIfAbsent(field, key -> new long[]{0, Long.MAX_VALUE});
+        range[0] = Math.max(range[0], min);
+        range[1] = Math.min(range[1], max);
+        return this;
+    }
+
+    public ItemQuery atLeast(QueryField field, long min) {
+        return between(field, min, Long.MAX_VALUE);
+    }
+
+    public ItemQuery atMost(QueryField field, long max) {
+        return between(field, 0, max);
+    }
+
+    public ItemQuery orderBy(QueryField field, boolean descending) {
+        if (!field.isNumeric()) {
+            throw new IllegalArgumentException("Only numeric fields can be sorted on, not " + field);
+        }
+        this.orderBy = field;
+        this.descending = descending;
+        return this;
+    }
+
+    public ItemQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    Map<QueryField, String> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    Map<QueryField, long[]> getRanges() {
+        return Collections.unmodifiableMap(ranges);
+    }
+
+    QueryField getOrderBy() {
+        return orderBy;
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+}
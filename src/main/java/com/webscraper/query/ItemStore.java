@@ -0,0 +1,579 @@
+package com.webscraper.query;
+
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.model.StringDictionary;
+import com.webscraper.util.ItemSink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * In-memory store of scraped items kept one array per field, with hash indexes on make, source website, status
+ * and state and sorted indexes on year, worked hours and price. A query starts from whichever index narrows it
+ * down most, or walks the sort field's index when only the first few sorted results are wanted.
+ * <p>
+ * Items can be added while queries run, so the store can be the sink of
+ * {@code ScraperManager.scrapeAllWebsites(urlsMap, listener, store::add)} or an {@code ItemSinkSubscriber}.
+ * Results are rebuilt from the columns: numbers come back in {@link CompactMachineryItem}'s format and make,
+ * website and status in the first spelling the store saw.
+ */
+public class ItemStore implements ItemSink {
+
+    private static final QueryField[] KEY_FIELDS = {
+            QueryField.MAKE, QueryField.SOURCE_WEBSITE, QueryField.STATUS, QueryField.STATE};
+    private static final QueryField[] NUMERIC_FIELDS = {QueryField.YEAR, QueryField.WORKED_HOURS, QueryField.PRICE};
+    private static final int NO_VALUE = CompactMachineryItem.NO_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<QueryField, HashIndex> hashIndexes = new EnumMap<>(QueryField.class);
+    private final Map<QueryField, RangeIndex> rangeIndexes = new EnumMap<>(QueryField.class);
+    // Key codes, year and hours; prices in cents need a long.
+    private final Map<QueryField, int[]> intColumns = new EnumMap<>(QueryField.class);
+    private long[] prices;
+    private final StringDictionary cities = new StringDictionary();
+    private final StringDictionary contractTypes = new StringDictionary();
+    private String[] models;
+    private String[] photoUrls;
+    private int[] cityCodes;
+    private int[] contractTypeCodes;
+    private int capacity = 1024;
+    private int size;
+    private int indexedSize;
+
+    public ItemStore() {
+        for (QueryField field : KEY_FIELDS) {
+            hashIndexes.put(field, new HashIndex());
+            intColumns.put(field, new int[capacity]);
+        }
+        for (QueryField field : NUMERIC_FIELDS) {
+            rangeIndexes.put(field, new RangeIndex());
+        }
+        intColumns.put(QueryField.YEAR, new int[capacity]);
+        intColumns.put(QueryField.WORKED_HOURS, new int[capacity]);
+        prices = new long[capacity];
+        models = new String[capacity];
+        photoUrls = new String[capacity];
+        cityCodes = new int[capacity];
+        contractTypeCodes = new int[capacity];
+    }
+
+    public void add(MachineryItem item) {
+        lock.writeLock().lock();
+        try {
+            if (size == capacity) {
+                grow();
+            }
+            int row = size;
+            models[row] = item.getModel();
+            photoUrls[row] = item.getPhotoUrl();
+            cityCodes[row] = cities.encode(item.getCity());
+            contractTypeCodes[row] = contractTypes.encode(item.getContractType());
+            for (QueryField field : KEY_FIELDS) {
+                intColumns.get(field)[row] = hashIndexes.get(field).add(keyValue(field, item), row);
+            }
+            intColumns.get(QueryField.YEAR)[row] = toInt(CompactMachineryItem.parseDigits(item.getYear()));
+            intColumns.get(QueryField.WORKED_HOURS)[row] =
+                    toInt(CompactMachineryItem.parseDigits(item.getWorkedHours()));
+            prices[row] = CompactMachineryItem.parsePriceCents(item.getPrice());
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<? extends MachineryItem> items) {
+        lock.writeLock().lock();
+        try {
+            for (MachineryItem item : items) {
+                add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void accept(MachineryItem item) {
+        add(item);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Items matching the query, sorted by its order field (items without a value sort lowest) or else in the
+     * order they were added, up to its limit.
+     */
+    public List<MachineryItem> find(ItemQuery query) {
+        lockIndexed();
+        try {
+            Plan plan = plan(query);
+            if (plan == null) {
+                return Collections.emptyList();
+            }
+            int[] rows = query.getOrderBy() == null ? matchingRows(plan, query.getLimit()) : sortedRows(plan, query);
+            List<MachineryItem> items = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                items.add(toItem(row));
+            }
+            return items;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of items matching the query's filters; its order and limit are ignored.
+     */
+    public int count(ItemQuery query) {
+        lockIndexed();
+        try {
+            Plan plan = plan(query);
+            if (plan == null) {
+                return 0;
+            }
+            if (plan.checkCount() <= 1) {
+                return plan.driver.size();
+            }
+            int[] count = {0};
+            forEachMatch(plan, false, row -> {
+                count[0]++;
+                return true;
+            });
+            return count[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count, min, max, sum and average of a numeric field over the matching items that have a value for it.
+     */
+    public LongSummaryStatistics summarize(ItemQuery query, QueryField field) {
+        if (!field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is not numeric");
+        }
+        lockIndexed();
+        try {
+            LongSummaryStatistics statistics = new LongSummaryStatistics();
+            Plan plan = plan(query);
+            if (plan == null) {
+                return statistics;
+            }
+            IntToLongFunction column = column(field);
+            forEachMatch(plan, false, row -> {
+                long value = column.applyAsLong(row);
+                if (value != NO_VALUE) {
+                    statistics.accept(value);
+                }
+                return true;
+            });
+            return statistics;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of matching items per value of a non-numeric field, most frequent first.
+     */
+    public Map<String, Integer> countBy(ItemQuery query, QueryField field) {
+        if (field.isNumeric()) {
+            throw new IllegalArgumentException(field + " is numeric");
+        }
+        lockIndexed();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            Plan plan = plan(query);
+            if (plan == null) {
+                return counts;
+            }
+            HashIndex index = hashIndexes.get(field);
+            int[] column = intColumns.get(field);
+            int[] perCode = new int[index.size()];
+            forEachMatch(plan, false, row -> {
+                if (column[row] != HashIndex.NO_VALUE) {
+                    perCode[column[row]]++;
+                }
+                return true;
+            });
+            Integer[] codes = new Integer[perCode.length];
+            for (int code = 0; code < codes.length; code++) {
+                codes[code] = code;
+            }
+            Arrays.sort(codes, (a, b) -> Integer.compare(perCode[b], perCode[a]));
+            for (int code : codes) {
+                if (perCode[code] > 0) {
+                    counts.put(index.label(code), perCode[code]);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock, first merging rows added since the last query into the sorted indexes.
+     */
+    private void lockIndexed() {
+        lock.readLock().lock();
+        if (indexedSize == size) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (indexedSize != size) {
+                for (QueryField field : NUMERIC_FIELDS) {
+                    rangeIndexes.get(field).catchUp(column(field), size);
+                }
+                indexedSize = size;
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compiles the filters and picks the smallest index slice to scan; null when nothing can match.
+     */
+    private Plan plan(ItemQuery query) {
+        List<Check> checks = new ArrayList<>();
+        Slice driver = new Slice(null, 0, size, false);
+        Check driverCheck = null;
+        for (Map.Entry<QueryField, String> entry : query.getValues().entrySet()) {
+            HashIndex index = hashIndexes.get(entry.getKey());
+            int code = index.code(entry.getValue());
+            if (code == HashIndex.NO_VALUE) {
+                return null;
+            }
+            Slice slice = new Slice(index.rows(code), 0, index.count(code), false);
+            Check check = new Check(intColumns.get(entry.getKey()), null, code, code, slice.size());
+            checks.add(check);
+            if (slice.size() < driver.size()) {
+                driver = slice;
+                driverCheck = check;
+            }
+        }
+        for (Map.Entry<QueryField, long[]> entry : query.getRanges().entrySet()) {
+            long min = entry.getValue()[0];
+            long max = entry.getValue()[1];
+            if (min > max) {
+                return null;
+            }
+            Slice slice = rangeSlice(entry.getKey(), min, max);
+            QueryField field = entry.getKey();
+            Check check = field == QueryField.PRICE ? new Check(null, prices, min, max, slice.size())
+                    : new Check(intColumns.get(field), null, min, max, slice.size());
+            checks.add(check);
+            if (slice.size() < driver.size()) {
+                driver = slice;
+                driverCheck = check;
+            }
+        }
+        // Most selective first, so most rows are rejected after reading one column; the driver's own check
+        // leads, so it can be skipped while scanning the driver.
+        double estimatedMatches = size;
+        for (Check check : checks) {
+            estimatedMatches *= (double) check.matches / Math.max(1, size);
+        }
+        checks.sort(Comparator.comparingInt(check -> check.matches));
+        if (driverCheck != null) {
+            checks.remove(driverCheck);
+            checks.add(0, driverCheck);
+        }
+        return new Plan(driver, driverCheck != null, checks, estimatedMatches);
+    }
+
+    private Slice rangeSlice(QueryField field, long min, long max) {
+        RangeIndex index = rangeIndexes.get(field);
+        IntToLongFunction column = column(field);
+        return new Slice(index.rows(), index.lowerBound(column, min), index.upperBound(column, max), true);
+    }
+
+    /**
+     * Calls the visitor with each matching row until it returns false, in row order if asked for and otherwise in
+     * whichever order is cheapest.
+     */
+    private void forEachMatch(Plan plan, boolean inRowOrder, IntPredicate visitor) {
+        Slice driver = plan.driver;
+        int first = plan.driverChecked ? 1 : 0;
+        if (driver.valueOrdered && driver.size() > size / 64) {
+            // Reading the columns in row order is much faster than in value order once the slice is large.
+            long[] bits = new long[(size + 63) >>> 6];
+            for (int i = driver.from; i < driver.to; i++) {
+                int row = driver.rows[i];
+                bits[row >>> 6] |= 1L << row;
+            }
+            for (int word = 0; word < bits.length; word++) {
+                for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                    int row = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    if (plan.accept(row, first) && !visitor.test(row)) {
+                        return;
+                    }
+                }
+            }
+            return;
+        }
+        int[] rows = driver.rows;
+        int from = driver.from;
+        int to = driver.to;
+        if (driver.valueOrdered && inRowOrder) {
+            rows = Arrays.copyOfRange(rows, from, to);
+            Arrays.sort(rows);
+            from = 0;
+            to = rows.length;
+        }
+        for (int i = from; i < to; i++) {
+            int row = rows == null ? i : rows[i];
+            if (plan.accept(row, first) && !visitor.test(row)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Matching rows in row order, up to the limit.
+     */
+    private int[] matchingRows(Plan plan, int limit) {
+        if (limit == 0) {
+            return new int[0];
+        }
+        int[][] rows = {new int[Math.min(limit, Math.min(plan.driver.size(), 1024))]};
+        int[] count = {0};
+        forEachMatch(plan, true, row -> {
+            if (count[0] == rows[0].length) {
+                rows[0] = Arrays.copyOf(rows[0], Math.min(limit, count[0] * 2));
+            }
+            rows[0][count[0]++] = row;
+            return count[0] < limit;
+        });
+        return count[0] == rows[0].length ? rows[0] : Arrays.copyOf(rows[0], count[0]);
+    }
+
+    private int[] sortedRows(Plan plan, ItemQuery query) {
+        QueryField orderBy = query.getOrderBy();
+        int limit = query.getLimit();
+        long[] ranges = query.getRanges().get(orderBy);
+        Slice walk = ranges == null ? rangeSlice(orderBy, Long.MIN_VALUE, Long.MAX_VALUE)
+                : rangeSlice(orderBy, ranges[0], ranges[1]);
+        // Walking the sort index visits about limit / (share of matching rows) rows before it has enough.
+        double walkCost = plan.estimatedMatches < 1 ? walk.size()
+                : Math.min(walk.size(), limit * (walk.size() / plan.estimatedMatches));
+        if (walkCost < plan.driver.size()) {
+            return walk(plan, walk, query.isDescending(), limit);
+        }
+        int[] rows = matchingRows(plan, Integer.MAX_VALUE);
+        RangeIndex.sort(rows, rows.length, column(orderBy));
+        if (query.isDescending()) {
+            for (int i = 0, j = rows.length - 1; i < j; i++, j--) {
+                int swap = rows[i];
+                rows[i] = rows[j];
+                rows[j] = swap;
+            }
+        }
+        return rows.length > limit ? Arrays.copyOf(rows, limit) : rows;
+    }
+
+    private int[] walk(Plan plan, Slice walk, boolean descending, int limit) {
+        int[] rows = new int[Math.min(limit, walk.size())];
+        int count = 0;
+        for (int i = 0; i < walk.size() && count < rows.length; i++) {
+            int row = walk.rows[descending ? walk.to - 1 - i : walk.from + i];
+            if (plan.accept(row, 0)) {
+                rows[count++] = row;
+            }
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private MachineryItem toItem(int row) {
+        int year = intColumns.get(QueryField.YEAR)[row];
+        int hours = intColumns.get(QueryField.WORKED_HOURS)[row];
+        return new MachineryItem(
+                models[row],
+                contractTypes.decode(contractTypeCodes[row]),
+                label(QueryField.MAKE, row),
+                year == NO_VALUE ? null : String.valueOf(year),
+                hours == NO_VALUE ? null : String.valueOf(hours),
+                cities.decode(cityCodes[row]),
+                CompactMachineryItem.formatPrice(prices[row]),
+                photoUrls[row],
+                label(QueryField.SOURCE_WEBSITE, row),
+                label(QueryField.STATUS, row));
+    }
+
+    private String label(QueryField field, int row) {
+        return hashIndexes.get(field).label(intColumns.get(field)[row]);
+    }
+
+    private IntToLongFunction column(QueryField field) {
+        if (field == QueryField.PRICE) {
+            long[] column = prices;
+            return row -> column[row];
+        }
+        int[] column = intColumns.get(field);
+        return row -> column[row];
+    }
+
+    private static int toInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    private void grow() {
+        capacity *= 2;
+        for (Map.Entry<QueryField, int[]> column : intColumns.entrySet()) {
+            column.setValue(Arrays.copyOf(column.getValue(), capacity));
+        }
+        prices = Arrays.copyOf(prices, capacity);
+        models = Arrays.copyOf(models, capacity);
+        photoUrls = Arrays.copyOf(photoUrls, capacity);
+        cityCodes = Arrays.copyOf(cityCodes, capacity);
+        contractTypeCodes = Arrays.copyOf(contractTypeCodes, capacity);
+    }
+
+    private static String keyValue(QueryField field, MachineryItem item) {
+        switch (field) {
+            case MAKE:
+                return item.getMake();
+            case SOURCE_WEBSITE:
+                return item.getSourceWebsite();
+            case STATUS:
+                return item.getStatus();
+            case STATE:
+                return state(item.getCity());
+            default:
+                throw new IllegalArgumentException(field + " is numeric");
+        }
+    }
+
+    /**
+     * The state code ending a city such as "Uberlândia, MG", "Rio Verde - GO" or "Chapecó (SC)", or null.
+     */
+    static String state(String city) {
+        if (city == null) {
+            return null;
+        }
+        String trimmed = city.trim();
+        if (trimmed.endsWith(")")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        int length = trimmed.length();
+        if (length < 2 || !Character.isLetter(trimmed.charAt(length - 1))
+                || !Character.isLetter(trimmed.charAt(length - 2))
+                || (length > 2 && Character.isLetterOrDigit(trimmed.charAt(length - 3)))) {
+            return null;
+        }
+        return trimmed.substring(length - 2).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Part of an index (or all rows, when {@code rows} is null) to scan for matches.
+     */
+    private static final class Slice {
+        private final int[] rows;
+        private final int from;
+        private final int to;
+        private final boolean valueOrdered;
+
+        Slice(int[] rows, int from, int to, boolean valueOrdered) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.valueOrdered = valueOrdered;
+        }
+
+        int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * One filter: the value in one of the two columns lies between min and max. A key filter is a hash code
+     * that must match exactly.
+     */
+    private static final class Check {
+        private final int[] intColumn;
+        private final long[] longColumn;
+        private final long min;
+        private final long max;
+        private final int matches;
+
+        Check(int[] intColumn, long[] longColumn, long min, long max, int matches) {
+            this.intColumn = intColumn;
+            this.longColumn = longColumn;
+            this.min = min;
+            this.max = max;
+            this.matches = matches;
+        }
+    }
+
+    private static final class Plan {
+        private final Slice driver;
+        private final boolean driverChecked;
+        private final double estimatedMatches;
+        private final int[][] intColumns;
+        private final long[][] longColumns;
+        private final long[] mins;
+        private final long[] maxs;
+
+        Plan(Slice driver, boolean driverChecked, List<Check> checks, double estimatedMatches) {
+            this.driver = driver;
+            this.driverChecked = driverChecked;
+            this.estimatedMatches = estimatedMatches;
+            intColumns = new int[checks.size()][];
+            longColumns = new long[checks.size()][];
+            mins = new long[checks.size()];
+            maxs = new long[checks.size()];
+            for (int i = 0; i < checks.size(); i++) {
+                Check check = checks.get(i);
+                intColumns[i] = check.intColumn;
+                longColumns[i] = check.longColumn;
+                mins[i] = check.min;
+                maxs[i] = check.max;
+            }
+        }
+
+        int checkCount() {
+            return mins.length;
+        }
+
+        /**
+         * Whether the row passes the checks from {@code first} on.
+         */
+        boolean accept(int row, int first) {
+            for (int i = first; i < mins.length; i++) {
+                long value = intColumns[i] != null ? intColumns[i][row] : longColumns[i][row];
+                if (value < mins[i] || value > maxs[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
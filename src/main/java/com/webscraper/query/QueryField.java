@@ -0,0 +1,26 @@
+package com.webscraper.query;
+
+/**
+ * Fields an {@link ItemQuery} can filter, sort or group on. Make, source website, status and state (the two-letter
+ * code at the end of the city) are matched exactly, ignoring case; year, worked hours and price (in cents) are
+ * compared as numbers.
+ */
+public enum QueryField {
+    MAKE(false),
+    SOURCE_WEBSITE(false),
+    STATUS(false),
+    STATE(false),
+    YEAR(true),
+    WORKED_HOURS(true),
+    PRICE(true);
+
+    private final boolean numeric;
+
+    QueryField(boolean numeric) {
+        this.numeric = numeric;
+    }
+
+    public boolean isNumeric() {
+        return numeric;
+    }
+}
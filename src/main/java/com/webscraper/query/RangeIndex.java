@@ -0,0 +1,113 @@
+package com.webscraper.query;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * Rows ordered by a numeric column, ties in row order. Rows added since the last query are sorted and merged in
+ * when the next query runs, so loading many items costs one sort rather than one insert each.
+ */
+final class RangeIndex {
+
+    private static final int RUN = 32;
+
+    private int[] sorted = new int[0];
+
+    void catchUp(IntToLongFunction column, int size) {
+        int indexed = sorted.length;
+        if (indexed == size) {
+            return;
+        }
+        int[] added = new int[size - indexed];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = indexed + i;
+        }
+        sort(added, added.length, column);
+        int[] merged = new int[size];
+        merge(sorted, 0, indexed, added, 0, added.length, merged, 0, column);
+        sorted = merged;
+    }
+
+    int[] rows() {
+        return sorted;
+    }
+
+    /**
+     * Position of the first row whose value is at least {@code min}.
+     */
+    int lowerBound(IntToLongFunction column, long min) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (column.applyAsLong(sorted[mid]) < min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Position after the last row whose value is at most {@code max}.
+     */
+    int upperBound(IntToLongFunction column, long max) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (column.applyAsLong(sorted[mid]) <= max) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Stable sort of the first {@code length} rows by their value in the column.
+     */
+    static void sort(int[] rows, int length, IntToLongFunction column) {
+        for (int low = 0; low < length; low += RUN) {
+            int high = Math.min(low + RUN, length);
+            for (int i = low + 1; i < high; i++) {
+                int row = rows[i];
+                long value = column.applyAsLong(row);
+                int j = i;
+                while (j > low && column.applyAsLong(rows[j - 1]) > value) {
+                    rows[j] = rows[j - 1];
+                    j--;
+                }
+                rows[j] = row;
+            }
+        }
+        int[] from = rows;
+        int[] to = new int[length];
+        for (int width = RUN; width < length; width *= 2) {
+            for (int low = 0; low < length; low += 2 * width) {
+                int mid = Math.min(low + width, length);
+                int high = Math.min(low + 2 * width, length);
+                merge(from, low, mid, from, mid, high, to, low, column);
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != rows) {
+            System.arraycopy(from, 0, rows, 0, length);
+        }
+    }
+
+    private static void merge(int[] left, int leftFrom, int leftTo, int[] right, int rightFrom, int rightTo,
+                              int[] out, int outFrom, IntToLongFunction column) {
+        int i = leftFrom;
+        int j = rightFrom;
+        int k = outFrom;
+        while (i < leftTo && j < rightTo) {
+            out[k++] = column.applyAsLong(right[j]) < column.applyAsLong(left[i]) ? right[j++] : left[i++];
+        }
+        System.arraycopy(left, i, out, k, leftTo - i);
+        System.arraycopy(right, j, out, k + leftTo - i, rightTo - j);
+    }
+}
@@ -0,0 +1,124 @@
+package com.webscraper.service;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.SiteExtractor;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.fetch.PageArchive;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.metrics.SiteMetrics;
+import com.webscraper.model.MachineryItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Re-extracts items from the pages in the {@link PageArchive} with the current extraction rules, in
+ * parallel on a fork-join pool and without touching the network, e.g. after a selector was fixed.
+ */
+@Service
+public class ArchiveReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveReplayer.class);
+
+    private final PageArchive archive;
+    private final ExtractionRuleRegistry extractionRules;
+    private final ScraperMetrics metrics;
+    private final int parallelism;
+    private final int batchSize;
+
+    public ArchiveReplayer(PageArchive archive, ExtractionRuleRegistry extractionRules, ScraperMetrics metrics,
+                           ScraperProperties properties) {
+        this.archive = archive;
+        this.extractionRules = extractionRules;
+        this.metrics = metrics;
+        int configured = properties.getProperty("archive.replayParallelism", Integer.class, 0);
+        this.parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(1, properties.getProperty("archive.replayBatchSize", Integer.class, 32));
+    }
+
+    /**
+     * Returns one item per archived page, in archive order. Pages of websites that no longer have
+     * extraction rules are skipped.
+     */
+    public List<MachineryItem> replay() throws IOException {
+        List<PageArchive.Entry> entries = archive.entries();
+        MachineryItem[] results = new MachineryItem[entries.size()];
+        logger.info("Replaying {} archived pages on {} threads", entries.size(), parallelism);
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ReplayTask(entries, results, 0, entries.size()));
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("Replayed {} pages in {} s ({} pages/s)", entries.size(), String.format("%.1f", seconds),
+                String.format("%.0f", seconds > 0 ? entries.size() / seconds : 0));
+
+        List<MachineryItem> items = new ArrayList<>(results.length);
+        for (MachineryItem item : results) {
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private MachineryItem reprocess(PageArchive.Entry entry) {
+        String websiteName = entry.getWebsiteName();
+        if (!extractionRules.getWebsiteNames().contains(websiteName)) {
+            logger.warn("No extraction rules for {}, skipping archived page {}", websiteName, entry.getUrl());
+            return null;
+        }
+        SiteExtractor extractor = extractionRules.get(websiteName);
+        SiteMetrics siteMetrics = metrics.site(websiteName);
+        MachineryItem item;
+        try {
+            FetchResponse response = archive.read(entry);
+            long parseStart = System.nanoTime();
+            item = extractor.extract(entry.getUrl(), response.toDocument());
+            siteMetrics.getParse().recordNanos(System.nanoTime() - parseStart);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not re-extract archived page {}", entry.getUrl(), e);
+            siteMetrics.recordError();
+            item = extractor.extractFromUrl(entry.getUrl(), "Error");
+        }
+        siteMetrics.recordPage(Collections.singletonList(item), extractor.getActiveStatus());
+        return item;
+    }
+
+    private final class ReplayTask extends RecursiveAction {
+        private final List<PageArchive.Entry> entries;
+        private final MachineryItem[] results;
+        private final int from;
+        private final int to;
+
+        ReplayTask(List<PageArchive.Entry> entries, MachineryItem[] results, int from, int to) {
+            this.entries = entries;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                for (int i = from; i < to; i++) {
+                    results[i] = reprocess(entries.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReplayTask(entries, results, from, middle), new ReplayTask(entries, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.webscraper.service;
+
+import com.webscraper.model.MachineryItem;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link WebScraperService#scrapeBatch} produced: the items of every page that was scraped and the
+ * pages that were deferred, both by the URL they were requested with.
+ */
+public class BatchResult {
+
+    private final Map<String, List<MachineryItem>> pages = new LinkedHashMap<>();
+    private final Map<String, PageDeferredException> deferrals = new LinkedHashMap<>();
+
+    public void addPage(String url, List<MachineryItem> items) {
+        pages.put(url, items);
+    }
+
+    public void addDeferral(String url, PageDeferredException deferral) {
+        deferrals.put(url, deferral);
+    }
+
+    /**
+     * The page's items, or null if it was deferred or not part of the batch.
+     */
+    public List<MachineryItem> getItems(String url) {
+        return pages.get(url);
+    }
+
+    public PageDeferredException getDeferral(String url) {
+        return deferrals.get(url);
+    }
+}
@@ -0,0 +1,35 @@
+package com.webscraper.service;
+
+import com.webscraper.model.MachineryItem;
+
+import java.util.List;
+
+/**
+ * Thrown by a scraper when a page cannot be fetched right now (its website's circuit is open) and should be
+ * tried again later. The fallback items are what the page yields if it is given up on.
+ */
+public class PageDeferredException extends RuntimeException {
+
+    private final String url;
+    private final long retryAfterMillis;
+    private final List<MachineryItem> fallbackItems;
+
+    public PageDeferredException(String url, long retryAfterMillis, List<MachineryItem> fallbackItems) {
+        super("Deferred " + url + " for " + retryAfterMillis + " ms");
+        this.url = url;
+        this.retryAfterMillis = retryAfterMillis;
+        this.fallbackItems = fallbackItems;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    public List<MachineryItem> getFallbackItems() {
+        return fallbackItems;
+    }
+}
@@ -0,0 +1,17 @@
+package com.webscraper.service;
+
+import com.webscraper.model.MachineryItem;
+
+import java.util.List;
+
+/**
+ * Called from the scraping workers as soon as a page has been scraped.
+ */
+@FunctionalInterface
+public interface PageResultListener {
+
+    PageResultListener NONE = (websiteName, url, items) -> {
+    };
+
+    void onPageScraped(String websiteName, String url, List<MachineryItem> items);
+}
@@ -0,0 +1,88 @@
+package com.webscraper.service;
+
+import com.webscraper.crawl.BloomFilter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks which canonical URLs are being scraped or were scraped in one run, so that a page requested
+ * several times is fetched and parsed once. URLs in flight are held exactly; finished ones go into a
+ * Bloom filter, so memory stays fixed however many URLs a run scrapes, at the cost of a rare URL being
+ * taken for already scraped. Each run has its own coalescer; the {@link Stats} are shared across runs.
+ */
+class RequestCoalescer {
+
+    private final Stats stats;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final BloomFilter completed;
+
+    /**
+     * Starts a run of about {@code expectedUrls} URLs. With 0, finished URLs are not remembered, for runs
+     * whose URLs are already deduplicated before they are queued.
+     */
+    RequestCoalescer(Stats stats, long expectedUrls, double falsePositiveRate) {
+        this.stats = stats;
+        // Redirect targets are remembered too, so there may be up to twice as many entries as URLs.
+        this.completed = expectedUrls > 0 ? new BloomFilter(2 * expectedUrls, falsePositiveRate) : null;
+    }
+
+    /**
+     * Returns true if the caller should scrape the URL, false if another request for it is in flight or
+     * already finished in this run.
+     */
+    boolean tryStart(String canonicalUrl) {
+        if (!inFlight.add(canonicalUrl)) {
+            stats.savedInFlight.incrementAndGet();
+            return false;
+        }
+        // Checked after claiming the URL: finish() records a page as completed before releasing it.
+        if (completed != null && completed.mightContain(canonicalUrl)) {
+            inFlight.remove(canonicalUrl);
+            stats.savedCompleted.incrementAndGet();
+            return false;
+        }
+        stats.started.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Releases the URL. A page that was not completed (e.g. deferred) may be started again.
+     */
+    void finish(String canonicalUrl, boolean done) {
+        if (done && completed != null) {
+            completed.put(canonicalUrl);
+        }
+        inFlight.remove(canonicalUrl);
+    }
+
+    /**
+     * Claims the URL a page redirected to. Returns false if that URL was already scraped under another
+     * spelling, in which case the page's items are duplicates.
+     */
+    boolean claimRedirectTarget(String canonicalUrl) {
+        if (!inFlight.contains(canonicalUrl) && (completed == null || completed.put(canonicalUrl))) {
+            return true;
+        }
+        stats.redirectDuplicates.incrementAndGet();
+        return false;
+    }
+
+    static class Stats {
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong savedInFlight = new AtomicLong();
+        private final AtomicLong savedCompleted = new AtomicLong();
+        private final AtomicLong redirectDuplicates = new AtomicLong();
+
+        long getSavedRequests() {
+            return savedInFlight.get() + savedCompleted.get() + redirectDuplicates.get();
+        }
+
+        String summary() {
+            return String.format("%d pages scraped, %d requests saved (%d joined an in-flight request, "
+                            + "%d already scraped, %d redirect duplicates)", started.get(), getSavedRequests(),
+                    savedInFlight.get(), savedCompleted.get(), redirectDuplicates.get());
+        }
+    }
+}
@@ -1,53 +1,577 @@
 package com.webscraper.service;
 
+import com.webscraper.config.ResultOrder;
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.DiskFrontier;
+import com.webscraper.fetch.UrlCanonicalizer;
+import com.webscraper.model.ListingStatus;
 import com.webscraper.model.MachineryItem;
+import com.webscraper.service.impl.RuleBasedScraperFactory;
+import com.webscraper.util.WorkerExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Service
 public class ScraperManager {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(ScraperManager.class);
-    
+
     private final List<WebScraperService> scraperServices;
-    
-    public ScraperManager(List<WebScraperService> scraperServices) {
+    private final ScraperProperties properties;
+    private final UrlCanonicalizer canonicalizer;
+    private final RequestCoalescer.Stats coalescing = new RequestCoalescer.Stats();
+
+    @Autowired
+    public ScraperManager(List<WebScraperService> scraperServices, RuleBasedScraperFactory ruleBasedScraperFactory,
+                          ScraperProperties properties, UrlCanonicalizer canonicalizer) {
+        this(withRuleBasedScrapers(scraperServices, ruleBasedScraperFactory), properties, canonicalizer);
+    }
+
+    public ScraperManager(List<WebScraperService> scraperServices, ScraperProperties properties) {
+        this(scraperServices, properties, UrlCanonicalizer.withoutSiteRules());
+    }
+
+    public ScraperManager(List<WebScraperService> scraperServices, ScraperProperties properties,
+                          UrlCanonicalizer canonicalizer) {
         this.scraperServices = scraperServices;
+        this.properties = properties;
+        this.canonicalizer = canonicalizer;
+    }
+
+    private static List<WebScraperService> withRuleBasedScrapers(List<WebScraperService> scraperServices,
+                                                                 RuleBasedScraperFactory ruleBasedScraperFactory) {
+        Set<String> websiteNames = scraperServices.stream()
+                .map(WebScraperService::getWebsiteName)
+                .collect(Collectors.toSet());
+        List<WebScraperService> allScrapers = new ArrayList<>(scraperServices);
+        allScrapers.addAll(ruleBasedScraperFactory.createMissing(websiteNames));
+        return allScrapers;
     }
-    
+
     public List<MachineryItem> scrapeAllWebsites(Map<String, List<String>> urlsMap) {
-        return scraperServices.stream()
-                .flatMap(scraper -> scrapeForScraper(scraper, urlsMap))
-                .collect(Collectors.toList());
+        return scrapeAllWebsites(urlsMap, PageResultListener.NONE);
+    }
+
+    public List<MachineryItem> scrapeAllWebsites(Map<String, List<String>> urlsMap, PageResultListener listener) {
+        RequestCoalescer coalescer = newCoalescer(urlsMap);
+        if (properties.getGlobalConcurrency() <= 1) {
+            return scraperServices.stream()
+                    .flatMap(scraper -> scrapeForScraper(scraper, urlsMap, listener, coalescer))
+                    .collect(Collectors.toList());
+        }
+        return scrapeConcurrently(urlsMap, listener, null, coalescer);
+    }
+
+    /**
+     * Scrapes like {@link #scrapeAllWebsites(Map, PageResultListener)}, but hands every item to the sink as soon
+     * as its page is done (in completion order) instead of collecting them. The sink is called from the scraping
+     * workers, so it must be thread-safe; while it blocks, the calling worker scrapes nothing else.
+     */
+    public void scrapeAllWebsites(Map<String, List<String>> urlsMap, PageResultListener listener,
+                                  Consumer<? super MachineryItem> sink) {
+        RequestCoalescer coalescer = newCoalescer(urlsMap);
+        if (properties.getGlobalConcurrency() <= 1) {
+            scraperServices.stream()
+                    .flatMap(scraper -> scrapeForScraper(scraper, urlsMap, listener, coalescer))
+                    .forEach(sink);
+            return;
+        }
+        scrapeConcurrently(urlsMap, listener, sink, coalescer);
+    }
+
+    /**
+     * Returns a cold publisher: each subscriber starts its own scrape of the URLs, and receives the items as
+     * their pages finish. At most {@code scraper.stream.bufferSize} items are buffered for a subscriber; when the
+     * buffer is full the scraping workers wait for it. Cancelling the subscription stops the scrape.
+     */
+    public Flow.Publisher<MachineryItem> publishAllWebsites(Map<String, List<String>> urlsMap,
+                                                            PageResultListener listener) {
+        int bufferSize = properties.getProperty("stream.bufferSize", Integer.class, 256);
+        return subscriber -> {
+            ExecutorService delivery = Executors.newSingleThreadExecutor(
+                    WorkerExecutors.namedThreadFactory("item-publisher"));
+            SubmissionPublisher<MachineryItem> publisher = new SubmissionPublisher<>(delivery, bufferSize);
+            publisher.subscribe(subscriber);
+            WorkerExecutors.namedThreadFactory("item-producer")
+                    .newThread(new Publication(publisher, delivery, urlsMap, listener))
+                    .start();
+        };
     }
-    
-    private Stream<MachineryItem> scrapeForScraper(WebScraperService scraper, Map<String, List<String>> urlsMap) {
+
+    private Stream<MachineryItem> scrapeForScraper(WebScraperService scraper, Map<String, List<String>> urlsMap,
+                                                   PageResultListener listener, RequestCoalescer coalescer) {
         String websiteName = scraper.getWebsiteName();
         logger.info("Starting scraping for website: {}", websiteName);
-        
+
         List<String> urls = getUrlsForWebsite(websiteName, urlsMap);
         if (urls.isEmpty()) {
             logger.warn("No URLs provided for website: {}", websiteName);
             return Stream.empty();
         }
-        
-        return urls.stream().flatMap(url -> scrapeUrl(scraper, url));
+
+        int batchSize = batchSize(websiteName);
+        return IntStream.range(0, (urls.size() + batchSize - 1) / batchSize)
+                .mapToObj(i -> urls.subList(i * batchSize, Math.min(urls.size(), (i + 1) * batchSize)))
+                .takeWhile(batch -> !Thread.currentThread().isInterrupted())
+                .flatMap(batch -> scrapeWaitingOutDeferrals(scraper, batch, listener, coalescer).stream());
+    }
+
+    private List<MachineryItem> scrapeConcurrently(Map<String, List<String>> urlsMap, PageResultListener listener,
+                                                   Consumer<? super MachineryItem> sink,
+                                                   RequestCoalescer coalescer) {
+        int globalConcurrency = properties.getGlobalConcurrency();
+        int perSiteConcurrency = Math.max(1, properties.getPerSiteConcurrency());
+        ResultOrder resultOrder = sink != null ? ResultOrder.COMPLETION : properties.getResultOrder();
+
+        List<Queue<PageTask>> siteQueues = new ArrayList<>();
+        List<WebScraperService> siteScrapers = new ArrayList<>();
+        int pageCount = 0;
+        for (WebScraperService scraper : scraperServices) {
+            String websiteName = scraper.getWebsiteName();
+            List<String> urls = getUrlsForWebsite(websiteName, urlsMap);
+            if (urls.isEmpty()) {
+                logger.warn("No URLs provided for website: {}", websiteName);
+                continue;
+            }
+            logger.info("Queued {} URLs for website: {}", urls.size(), websiteName);
+            Queue<PageTask> queue = new ConcurrentLinkedQueue<>();
+            for (String url : urls) {
+                queue.add(new PageTask(pageCount++, url));
+            }
+            siteQueues.add(queue);
+            siteScrapers.add(scraper);
+        }
+
+        AtomicReferenceArray<List<MachineryItem>> pageResults = new AtomicReferenceArray<>(pageCount);
+        List<MachineryItem> completedItems = Collections.synchronizedList(new ArrayList<>());
+        Consumer<? super MachineryItem> completionSink = sink != null ? sink : completedItems::add;
+        Semaphore globalPermits = new Semaphore(globalConcurrency);
+
+        int workerCount = 0;
+        for (Queue<PageTask> queue : siteQueues) {
+            workerCount += Math.min(perSiteConcurrency, queue.size());
+        }
+
+        logger.info("Scraping {} pages with global concurrency {} and per-site concurrency {}",
+                pageCount, globalConcurrency, perSiteConcurrency);
+
+        ExecutorService executor = WorkerExecutors.newExecutor("scraper-worker", workerCount,
+                properties.isVirtualThreads());
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < siteQueues.size(); i++) {
+                WebScraperService scraper = siteScrapers.get(i);
+                Queue<PageTask> queue = siteQueues.get(i);
+                int siteWorkers = Math.min(perSiteConcurrency, queue.size());
+                // Smaller batches when there are few pages, so that every worker gets some.
+                int batchSize = Math.min(batchSize(scraper.getWebsiteName()),
+                        (queue.size() + siteWorkers - 1) / siteWorkers);
+                for (int w = 0; w < siteWorkers; w++) {
+                    workers.add(executor.submit(() -> drainSiteQueue(scraper, queue, batchSize, globalPermits, listener,
+                            coalescer, result -> {
+                                if (resultOrder == ResultOrder.COMPLETION) {
+                                    result.items.forEach(completionSink);
+                                } else {
+                                    pageResults.set(result.index, result.items);
+                                }
+                            })));
+                }
+            }
+            awaitAll(workers);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (resultOrder == ResultOrder.COMPLETION) {
+            return new ArrayList<>(completedItems);
+        }
+        List<MachineryItem> allItems = new ArrayList<>();
+        for (int i = 0; i < pageResults.length(); i++) {
+            List<MachineryItem> items = pageResults.get(i);
+            if (items != null) {
+                allItems.addAll(items);
+            }
+        }
+        return allItems;
+    }
+
+    /**
+     * Scrapes URLs from the frontier until it is exhausted, with up to the global concurrency in parallel.
+     * Per-host limits and delays are applied by the frontier itself. Items are returned in completion order.
+     */
+    public List<MachineryItem> scrapeFrontier(DiskFrontier frontier) {
+        return scrapeFrontier(frontier, PageResultListener.NONE);
+    }
+
+    public List<MachineryItem> scrapeFrontier(DiskFrontier frontier, PageResultListener listener) {
+        List<MachineryItem> completedItems = Collections.synchronizedList(new ArrayList<>());
+        scrapeFrontier(frontier, listener, completedItems::add);
+        return new ArrayList<>(completedItems);
+    }
+
+    /**
+     * Scrapes the frontier, handing every item to the sink as soon as its page is done. The sink is called from
+     * the scraping workers and must be thread-safe.
+     */
+    public void scrapeFrontier(DiskFrontier frontier, PageResultListener listener,
+                               Consumer<? super MachineryItem> sink) {
+        // Frontier URLs are deduplicated when they are discovered, so only requests in flight are coalesced.
+        RequestCoalescer coalescer = new RequestCoalescer(coalescing, 0, 0);
+        Map<String, WebScraperService> scrapersByWebsite = new HashMap<>();
+        for (WebScraperService scraper : scraperServices) {
+            scrapersByWebsite.put(scraper.getWebsiteName(), scraper);
+        }
+        int workerCount = Math.max(1, properties.getGlobalConcurrency());
+        logger.info("Scraping {} frontier URLs with {} workers", frontier.size(), workerCount);
+
+        ExecutorService executor = WorkerExecutors.newExecutor("frontier-worker", workerCount,
+                properties.isVirtualThreads());
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int w = 0; w < workerCount; w++) {
+                workers.add(executor.submit(() ->
+                        drainFrontier(frontier, scrapersByWebsite, listener, coalescer,
+                                items -> items.forEach(sink))));
+            }
+            awaitAll(workers);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void drainFrontier(DiskFrontier frontier, Map<String, WebScraperService> scrapersByWebsite,
+                               PageResultListener listener, RequestCoalescer coalescer,
+                               Consumer<List<MachineryItem>> resultConsumer) {
+        while (true) {
+            DiskFrontier.Entry entry;
+            try {
+                entry = frontier.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                logger.error("Could not read from the URL frontier", e);
+                return;
+            }
+            if (entry == null) {
+                return;
+            }
+            try {
+                WebScraperService scraper = scrapersByWebsite.get(entry.getWebsiteName());
+                if (scraper == null) {
+                    logger.warn("No scraper for website {}, skipping URL: {}", entry.getWebsiteName(), entry.getUrl());
+                } else {
+                    resultConsumer.accept(scrapeWaitingOutDeferrals(scraper,
+                            Collections.singletonList(entry.getUrl()), listener, coalescer));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error scraping {} URL: {}", entry.getWebsiteName(), entry.getUrl(), e);
+            } finally {
+                frontier.complete(entry);
+            }
+        }
     }
-    
+
+    private void drainSiteQueue(WebScraperService scraper, Queue<PageTask> queue, int batchSize,
+                                Semaphore globalPermits, PageResultListener listener, RequestCoalescer coalescer,
+                                Consumer<PageResult> resultConsumer) {
+        int maxDeferrals = properties.getProperty("concurrency.maxDeferrals", Integer.class, 3);
+        List<PageTask> batch;
+        while (!(batch = pollBatch(queue, batchSize)).isEmpty()) {
+            try {
+                globalPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long deferMillis = 0;
+            try {
+                for (PageTask task : scrapeBatch(scraper, batch, listener, coalescer, resultConsumer)) {
+                    if (task.deferrals++ < maxDeferrals) {
+                        // Put the page back behind the rest of the site's queue and pause this worker, without
+                        // holding a global permit, until the site's circuit lets requests through again.
+                        queue.add(task);
+                        deferMillis = Math.max(deferMillis, task.deferral.getRetryAfterMillis());
+                    } else {
+                        resultConsumer.accept(new PageResult(task.index, giveUp(scraper, task.deferral, listener)));
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error scraping {} URLs: {}", scraper.getWebsiteName(),
+                        batch.stream().map(task -> task.url).collect(Collectors.toList()), e);
+            } finally {
+                globalPermits.release();
+            }
+            if (deferMillis > 0 && !sleep(deferMillis)) {
+                return;
+            }
+        }
+    }
+
+    private static List<PageTask> pollBatch(Queue<PageTask> queue, int batchSize) {
+        List<PageTask> batch = new ArrayList<>(batchSize);
+        PageTask task;
+        while (batch.size() < batchSize && (task = queue.poll()) != null) {
+            batch.add(task);
+        }
+        return batch;
+    }
+
+    /**
+     * Scrapes the URLs as one batch on the calling thread, sleeping out deferrals, and returns their items in
+     * input order.
+     */
+    private List<MachineryItem> scrapeWaitingOutDeferrals(WebScraperService scraper, List<String> urls,
+                                                          PageResultListener listener, RequestCoalescer coalescer) {
+        int maxDeferrals = properties.getProperty("concurrency.maxDeferrals", Integer.class, 3);
+        List<List<MachineryItem>> results = new ArrayList<>(Collections.nCopies(urls.size(), null));
+        List<PageTask> tasks = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            tasks.add(new PageTask(i, urls.get(i)));
+        }
+        while (!tasks.isEmpty()) {
+            List<PageTask> deferred = scrapeBatch(scraper, tasks, listener, coalescer,
+                    result -> results.set(result.index, result.items));
+            long deferMillis = 0;
+            tasks = new ArrayList<>();
+            for (PageTask task : deferred) {
+                if (task.deferrals++ < maxDeferrals) {
+                    tasks.add(task);
+                    deferMillis = Math.max(deferMillis, task.deferral.getRetryAfterMillis());
+                } else {
+                    results.set(task.index, giveUp(scraper, task.deferral, listener));
+                }
+            }
+            if (!tasks.isEmpty() && !sleep(deferMillis)) {
+                for (PageTask task : tasks) {
+                    results.set(task.index, giveUp(scraper, task.deferral, listener));
+                }
+                break;
+            }
+        }
+        List<MachineryItem> items = new ArrayList<>();
+        for (List<MachineryItem> pageItems : results) {
+            if (pageItems != null) {
+                items.addAll(pageItems);
+            }
+        }
+        return items;
+    }
+
+    private List<MachineryItem> giveUp(WebScraperService scraper, PageDeferredException e,
+                                       PageResultListener listener) {
+        logger.warn("Giving up on {} URL after repeated deferrals: {}", scraper.getWebsiteName(), e.getUrl());
+        listener.onPageScraped(scraper.getWebsiteName(), e.getUrl(), e.getFallbackItems());
+        return e.getFallbackItems();
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitAll(List<Future<?>> workers) {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for scraper workers");
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Scraper worker failed", e.getCause());
+            }
+        }
+    }
+
     private List<String> getUrlsForWebsite(String websiteName, Map<String, List<String>> urlsMap) {
         return urlsMap.getOrDefault(websiteName, Collections.emptyList());
     }
-    
-    private Stream<MachineryItem> scrapeUrl(WebScraperService scraper, String url) {
-        List<MachineryItem> items = scraper.scrapePage(url);
-        logger.info("Scraped {} items from {}", items.size(), url);
-        return items.stream();
+
+    /**
+     * Number of requests that were not scraped because the same canonical URL was already in flight or done.
+     */
+    public long getSavedRequests() {
+        return coalescing.getSavedRequests();
+    }
+
+    public String requestSummary() {
+        return coalescing.summary() + "; " + canonicalizer.summary();
+    }
+
+    // One per run, so that runs going on at the same time do not take each other's URLs for duplicates.
+    private RequestCoalescer newCoalescer(Map<String, List<String>> urlsMap) {
+        long urlCount = urlsMap.values().stream().mapToLong(List::size).sum();
+        return new RequestCoalescer(coalescing, Math.max(1, urlCount),
+                properties.getProperty("coalescer.falsePositiveRate", Double.class, 0.000001));
+    }
+
+    private int batchSize(String websiteName) {
+        return Math.max(1, properties.getSiteProperty(websiteName, "batchSize", Integer.class, 1));
+    }
+
+    /**
+     * Scrapes the canonical form of each task's URL through one {@link WebScraperService#scrapeBatch} call and
+     * hands each page's items to the consumer. A URL that another worker is already scraping, or that was scraped
+     * earlier in the run, yields no items: the first request produces them. Returns the deferred tasks.
+     */
+    private List<PageTask> scrapeBatch(WebScraperService scraper, List<PageTask> tasks, PageResultListener listener,
+                                       RequestCoalescer coalescer,
+                                       Consumer<PageResult> resultConsumer) {
+        String websiteName = scraper.getWebsiteName();
+        List<PageTask> started = new ArrayList<>(tasks.size());
+        for (PageTask task : tasks) {
+            task.canonicalUrl = canonicalizer.canonicalize(websiteName, task.url);
+            if (coalescer.tryStart(task.canonicalUrl)) {
+                started.add(task);
+            } else {
+                logger.info("Skipping {}, already scraped in this run as {}", task.url, task.canonicalUrl);
+                resultConsumer.accept(new PageResult(task.index, Collections.emptyList()));
+            }
+        }
+        List<PageTask> deferred = new ArrayList<>();
+        if (started.isEmpty()) {
+            return deferred;
+        }
+        Set<PageTask> completed = new HashSet<>();
+        try {
+            BatchResult result = scraper.scrapeBatch(started.stream()
+                    .map(task -> task.canonicalUrl)
+                    .collect(Collectors.toList()));
+            for (PageTask task : started) {
+                List<MachineryItem> items = result.getItems(task.canonicalUrl);
+                if (items == null) {
+                    task.deferral = result.getDeferral(task.canonicalUrl);
+                    if (task.deferral == null) {
+                        logger.warn("{} returned no result for {}, trying it again", websiteName, task.canonicalUrl);
+                        // Giving up on it must record a failure, so that a resumed run tries the page again.
+                        MachineryItem error = new MachineryItem(null, null, null, null, null, null, null, null,
+                                websiteName, ListingStatus.ERROR.getLabel());
+                        task.deferral = new PageDeferredException(task.canonicalUrl, 0,
+                                Collections.singletonList(error));
+                    }
+                    deferred.add(task);
+                    continue;
+                }
+                completed.add(task);
+                String resolvedUrl = canonicalizer.canonicalize(websiteName, task.canonicalUrl);
+                if (!resolvedUrl.equals(task.canonicalUrl) && !coalescer.claimRedirectTarget(resolvedUrl)) {
+                    logger.info("Dropping {}, it redirected to {} which was already scraped", task.canonicalUrl,
+                            resolvedUrl);
+                    items = Collections.emptyList();
+                } else {
+                    logger.info("Scraped {} items from {}", items.size(), task.canonicalUrl);
+                    listener.onPageScraped(websiteName, task.canonicalUrl, items);
+                }
+                resultConsumer.accept(new PageResult(task.index, items));
+            }
+        } finally {
+            for (PageTask task : started) {
+                coalescer.finish(task.canonicalUrl, completed.contains(task));
+            }
+        }
+        return deferred;
+    }
+
+    /**
+     * Runs one subscriber's scrape, offering items to its publisher until the scrape ends or the subscriber
+     * cancels, in which case the workers are interrupted.
+     */
+    private final class Publication implements Runnable {
+        private final SubmissionPublisher<MachineryItem> publisher;
+        private final ExecutorService delivery;
+        private final Map<String, List<String>> urlsMap;
+        private final PageResultListener listener;
+        private volatile Thread producer;
+        private volatile boolean stopped;
+
+        Publication(SubmissionPublisher<MachineryItem> publisher, ExecutorService delivery,
+                    Map<String, List<String>> urlsMap, PageResultListener listener) {
+            this.publisher = publisher;
+            this.delivery = delivery;
+            this.urlsMap = urlsMap;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            producer = Thread.currentThread();
+            try {
+                scrapeAllWebsites(urlsMap, listener, this::submit);
+                publisher.close();
+            } catch (RuntimeException e) {
+                publisher.closeExceptionally(e);
+            } finally {
+                delivery.shutdown();
+            }
+        }
+
+        private void submit(MachineryItem item) {
+            while (publisher.getNumberOfSubscribers() > 0 && !Thread.currentThread().isInterrupted()) {
+                // offer() gives up after the timeout instead of blocking for good, so a cancellation is noticed.
+                if (publisher.offer(item, 100, TimeUnit.MILLISECONDS, null) >= 0) {
+                    return;
+                }
+            }
+            if (!stopped) {
+                stopped = true;
+                logger.info("Item subscriber cancelled, stopping the scrape");
+                producer.interrupt();
+            }
+        }
+    }
+
+    private static class PageTask {
+        private final int index;
+        private final String url;
+        private String canonicalUrl;
+        private PageDeferredException deferral;
+        private int deferrals;
+
+        PageTask(int index, String url) {
+            this.index = index;
+            this.url = url;
+        }
+    }
+
+    private static class PageResult {
+        private final int index;
+        private final List<MachineryItem> items;
+
+        PageResult(int index, List<MachineryItem> items) {
+            this.index = index;
+            this.items = items;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,38 @@
 package com.webscraper.service;
 
 import com.webscraper.model.MachineryItem;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface WebScraperService {
     
     List<MachineryItem> scrapePage(String url);
+
+    /**
+     * Pushes the page's items to the consumer as soon as each one is extracted. The consumer may block,
+     * which holds the scraper back until it has caught up.
+     */
+    default void scrapePage(String url, Consumer<? super MachineryItem> consumer) {
+        scrapePage(url).forEach(consumer);
+    }
+
+    /**
+     * Scrapes several pages of this website in one call, so that per-site setup (sessions, listing APIs that
+     * return many pages at once, resolved rules) is done once per batch. A page that cannot be fetched right now
+     * is reported as a deferral instead of failing the rest of the batch.
+     */
+    default BatchResult scrapeBatch(Collection<String> urls) {
+        BatchResult result = new BatchResult();
+        for (String url : urls) {
+            try {
+                result.addPage(url, scrapePage(url));
+            } catch (PageDeferredException e) {
+                result.addDeferral(url, e);
+            }
+        }
+        return result;
+    }
     
     String getWebsiteName();
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.webscraper.service.impl;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.fetch.PageFetcher;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.service.WebScraperService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class RuleBasedScraperFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleBasedScraperFactory.class);
+
+    private final ExtractionRuleRegistry extractionRules;
+    private final PageFetcher pageFetcher;
+    private final CrawlStateStore crawlState;
+    private final ScraperProperties properties;
+    private final ScraperMetrics metrics;
+
+    public RuleBasedScraperFactory(ExtractionRuleRegistry extractionRules, PageFetcher pageFetcher,
+                                   CrawlStateStore crawlState, ScraperProperties properties, ScraperMetrics metrics) {
+        this.extractionRules = extractionRules;
+        this.pageFetcher = pageFetcher;
+        this.crawlState = crawlState;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    public List<WebScraperService> createMissing(Collection<String> existingWebsiteNames) {
+        List<WebScraperService> scrapers = new ArrayList<>();
+        for (String websiteName : extractionRules.getWebsiteNames()) {
+            if (!existingWebsiteNames.contains(websiteName)) {
+                logger.info("Adding rule-based scraper for {}", websiteName);
+                scrapers.add(new RuleBasedScraperService(websiteName, extractionRules, pageFetcher, crawlState,
+                        properties, metrics));
+            }
+        }
+        return scrapers;
+    }
+}
@@ -0,0 +1,212 @@
+package com.webscraper.service.impl;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.ItemField;
+import com.webscraper.extract.SiteExtractor;
+import com.webscraper.fetch.CircuitOpenException;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.fetch.FetchStream;
+import com.webscraper.fetch.PageFetcher;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.metrics.SiteMetrics;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.service.BatchResult;
+import com.webscraper.service.PageDeferredException;
+import com.webscraper.service.WebScraperService;
+import com.webscraper.util.CountingInputStream;
+import com.webscraper.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class RuleBasedScraperService implements WebScraperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleBasedScraperService.class);
+
+    private final String websiteName;
+    private final ExtractionRuleRegistry extractionRules;
+    private final PageFetcher pageFetcher;
+    private final CrawlStateStore crawlState;
+    private final ScraperProperties properties;
+    private final ScraperMetrics metrics;
+
+    public RuleBasedScraperService(String websiteName, ExtractionRuleRegistry extractionRules, PageFetcher pageFetcher,
+                                   CrawlStateStore crawlState, ScraperProperties properties, ScraperMetrics metrics) {
+        this.websiteName = websiteName;
+        this.extractionRules = extractionRules;
+        this.pageFetcher = pageFetcher;
+        this.crawlState = crawlState;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<MachineryItem> scrapePage(String url) {
+        List<MachineryItem> items = new ArrayList<>();
+        scrapePage(url, items::add);
+        return items;
+    }
+
+    @Override
+    public void scrapePage(String url, Consumer<? super MachineryItem> consumer) {
+        scrapePage(url, siteContext(), consumer);
+    }
+
+    /**
+     * Scrapes the pages one after another with the site's rules, metrics and settings resolved once. Pages are
+     * fetched through the same per-host client, so they share its pooled connections. Once the site's circuit
+     * opens, the rest of the batch is deferred without asking the fetcher again.
+     */
+    @Override
+    public BatchResult scrapeBatch(Collection<String> urls) {
+        SiteContext context = siteContext();
+        BatchResult result = new BatchResult();
+        PageDeferredException circuitOpen = null;
+        for (String url : urls) {
+            if (circuitOpen != null) {
+                result.addDeferral(url, new PageDeferredException(url, circuitOpen.getRetryAfterMillis(),
+                        Collections.singletonList(context.extractor.extractFromUrl(url, "Error"))));
+                continue;
+            }
+            List<MachineryItem> items = new ArrayList<>(1);
+            try {
+                scrapePage(url, context, items::add);
+                result.addPage(url, items);
+            } catch (PageDeferredException e) {
+                result.addDeferral(url, e);
+                circuitOpen = e;
+            }
+        }
+        return result;
+    }
+
+    private SiteContext siteContext() {
+        return new SiteContext(extractionRules.get(websiteName), metrics.site(websiteName),
+                properties.getSiteProperty(websiteName, "parse.streaming", Boolean.class, false),
+                properties.getSiteProperty(websiteName, "parse.byteBudget", Long.class, 512L * 1024));
+    }
+
+    private void scrapePage(String url, SiteContext context, Consumer<? super MachineryItem> consumer) {
+        List<MachineryItem> items = new ArrayList<>();
+        SiteExtractor extractor = context.extractor;
+        SiteMetrics siteMetrics = context.siteMetrics;
+
+        try {
+            logger.info("Scraping {} URL: {}", websiteName, url);
+            MachineryItem item;
+            if (context.streaming) {
+                long byteBudget = context.byteBudget;
+                long start = System.nanoTime();
+                FetchStream opened;
+                try {
+                    opened = pageFetcher.open(websiteName, url);
+                } catch (IOException | RuntimeException e) {
+                    siteMetrics.getFetch().recordNanos(System.nanoTime() - start);
+                    throw e;
+                }
+                long headerNanos = System.nanoTime() - start;
+                try (FetchStream stream = opened) {
+                    // The body is parsed while it downloads: time spent waiting in reads counts as fetch time
+                    // and the rest as parse time.
+                    CountingInputStream body = new CountingInputStream(stream.getBody());
+                    long parseStart = System.nanoTime();
+                    try {
+                        item = extractor.extractStreaming(url, body, stream.getCharset(), byteBudget);
+                    } finally {
+                        long elapsed = System.nanoTime() - parseStart;
+                        siteMetrics.getFetch().recordNanos(headerNanos + body.getReadNanos());
+                        siteMetrics.getParse().recordNanos(Math.max(0, elapsed - body.getReadNanos()));
+                        if (!stream.isFromCache()) {
+                            siteMetrics.recordBytes(body.getCount());
+                        }
+                    }
+                }
+            } else {
+                long start = System.nanoTime();
+                FetchResponse response;
+                try {
+                    response = pageFetcher.fetchDetail(websiteName, url);
+                } finally {
+                    siteMetrics.getFetch().recordNanos(System.nanoTime() - start);
+                }
+                if (!response.isFromCache()) {
+                    siteMetrics.recordBytes(response.getBody().length);
+                }
+                item = extractUnlessUnchanged(extractor, url, response, siteMetrics);
+            }
+            if (!extractor.getActiveStatus().equals(item.getStatus())) {
+                logger.info("{} ad is {}: {}", websiteName, item.getStatus(), url);
+            } else {
+                List<ItemField> missing = SiteExtractor.missingFields(item);
+                if (!missing.isEmpty()) {
+                    logger.info("Could not find {} for URL: {}", missing, url);
+                }
+            }
+
+            items.add(item);
+            logger.info("Scraped item from {}: {}", websiteName, item);
+        } catch (CircuitOpenException e) {
+            throw new PageDeferredException(url, e.getRetryAfterMillis(),
+                    Collections.singletonList(extractor.extractFromUrl(url, "Error")));
+        } catch (IOException e) {
+            logger.error("Error scraping {} URL: {}", websiteName, url, e);
+            siteMetrics.recordError();
+            items.add(extractor.extractFromUrl(url, "Error"));
+        }
+
+        siteMetrics.recordPage(items, extractor.getActiveStatus());
+        items.forEach(consumer);
+    }
+
+    private MachineryItem extractUnlessUnchanged(SiteExtractor extractor, String url, FetchResponse response,
+                                                 SiteMetrics siteMetrics) throws IOException {
+        if (!crawlState.isEnabled()) {
+            return extract(extractor, url, response, siteMetrics);
+        }
+        String contentHash = Hashing.sha256Hex(response.getBody());
+        Optional<MachineryItem> previous = crawlState.reuse(url, contentHash, extractor.getRulesVersion());
+        if (previous.isPresent()) {
+            logger.debug("Page unchanged since last run, reusing extracted item: {}", url);
+            return previous.get();
+        }
+        MachineryItem item = extract(extractor, url, response, siteMetrics);
+        crawlState.record(url, contentHash, extractor.getRulesVersion(), item);
+        return item;
+    }
+
+    private static MachineryItem extract(SiteExtractor extractor, String url, FetchResponse response,
+                                         SiteMetrics siteMetrics) throws IOException {
+        long start = System.nanoTime();
+        MachineryItem item = extractor.extract(url, response.toDocument());
+        siteMetrics.getParse().recordNanos(System.nanoTime() - start);
+        return item;
+    }
+
+    @Override
+    public String getWebsiteName() {
+        return websiteName;
+    }
+
+    private static final class SiteContext {
+        private final SiteExtractor extractor;
+        private final SiteMetrics siteMetrics;
+        private final boolean streaming;
+        private final long byteBudget;
+
+        SiteContext(SiteExtractor extractor, SiteMetrics siteMetrics, boolean streaming, long byteBudget) {
+            this.extractor = extractor;
+            this.siteMetrics = siteMetrics;
+            this.streaming = streaming;
+            this.byteBudget = byteBudget;
+        }
+    }
+}
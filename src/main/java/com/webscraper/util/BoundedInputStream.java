@@ -0,0 +1,48 @@
+package com.webscraper.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    public BoundedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (count >= limit) {
+            return -1;
+        }
+        int b = super.read();
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (count >= limit) {
+            return -1;
+        }
+        int read = super.read(buffer, offset, (int) Math.min(length, limit - count));
+        if (read > 0) {
+            count += read;
+        }
+        return read;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isLimitReached() {
+        return count >= limit;
+    }
+}
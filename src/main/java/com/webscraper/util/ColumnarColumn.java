@@ -0,0 +1,77 @@
+package com.webscraper.util;
+
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+
+/**
+ * Columns of the binary columnar export, in file order. Year, worked hours and price (in cents) are stored as
+ * numbers with the original text kept as a dictionary-encoded format; repeated strings are dictionary-encoded.
+ */
+public enum ColumnarColumn {
+    MODEL(Kind.TEXT),
+    CONTRACT_TYPE(Kind.DICTIONARY),
+    MAKE(Kind.DICTIONARY),
+    YEAR(Kind.NUMBER),
+    WORKED_HOURS(Kind.NUMBER),
+    CITY(Kind.DICTIONARY),
+    PRICE(Kind.NUMBER),
+    PHOTO_URL(Kind.TEXT),
+    SOURCE_WEBSITE(Kind.DICTIONARY),
+    STATUS(Kind.DICTIONARY);
+
+    enum Kind {
+        TEXT,
+        DICTIONARY,
+        NUMBER
+    }
+
+    private final Kind kind;
+
+    ColumnarColumn(Kind kind) {
+        this.kind = kind;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    public boolean isNumeric() {
+        return kind == Kind.NUMBER;
+    }
+
+    public boolean isDictionaryEncoded() {
+        return kind == Kind.DICTIONARY;
+    }
+
+    String text(MachineryItem item) {
+        switch (this) {
+            case MODEL:
+                return item.getModel();
+            case CONTRACT_TYPE:
+                return item.getContractType();
+            case MAKE:
+                return item.getMake();
+            case YEAR:
+                return item.getYear();
+            case WORKED_HOURS:
+                return item.getWorkedHours();
+            case CITY:
+                return item.getCity();
+            case PRICE:
+                return item.getPrice();
+            case PHOTO_URL:
+                return item.getPhotoUrl();
+            case SOURCE_WEBSITE:
+                return item.getSourceWebsite();
+            default:
+                return item.getStatus();
+        }
+    }
+
+    /**
+     * Numeric value of the text, or {@link CompactMachineryItem#NO_VALUE} when it has none.
+     */
+    long parse(String text) {
+        return this == PRICE ? CompactMachineryItem.parsePriceCents(text) : CompactMachineryItem.parseDigits(text);
+    }
+}
@@ -0,0 +1,246 @@
+package com.webscraper.util;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Layout shared by {@link ColumnarExporter} and {@link ColumnarReader}.
+ * <pre>
+ * file       = "MCOL" version rowGroup* footer footerLength:int "MCOL"
+ * rowGroup   = one chunk per column, each deflated when that makes it smaller
+ * TEXT       = per row varint(byteLength + 1) and UTF-8 bytes, 0 for null
+ * DICTIONARY = packed(code + 1), 0 for null
+ * NUMBER     = packed(value) packed(formatCode + 1)
+ * packed     = zigzag varint minimum, bit width byte, then (value - minimum) in width bits, little-endian
+ * </pre>
+ * The footer holds the dictionaries and, per row group, each chunk's position and the statistics used to skip it.
+ */
+final class ColumnarEncoding {
+
+    static final byte[] MAGIC = {'M', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+    static final int TRAILER_LENGTH = 4 + MAGIC.length;
+    /** Row groups listing more distinct codes than this do not record them. */
+    static final int MAX_STATS_CODES = 256;
+
+    private static final char LITERAL = '=';
+    private static final char SLOT = '#';
+    private static final long[] POWERS = {1, 10, 100};
+
+    private ColumnarEncoding() {
+    }
+
+    /**
+     * Format that renders {@code value} back into {@code text}: the text with its digits replaced by slots and the
+     * number of trailing zeros the value has beyond those digits (up to {@code maxScale}), or the literal text.
+     */
+    static String format(String text, long value, int maxScale) {
+        char[] template = new char[text.length() + 1];
+        long digits = 0;
+        int digitCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                digitCount++;
+                template[i + 1] = SLOT;
+            } else {
+                template[i + 1] = c;
+            }
+        }
+        // Slots are filled right-aligned and zero-padded, so the text comes back exactly when its digits read as a
+        // number equal the value without its implied zeros.
+        if (value >= 0 && digitCount > 0 && digitCount <= 18 && text.indexOf(SLOT) < 0) {
+            for (int scale = 0; scale <= maxScale; scale++) {
+                if (digits * POWERS[scale] == value) {
+                    template[0] = (char) ('0' + scale);
+                    return new String(template);
+                }
+            }
+        }
+        return LITERAL + text;
+    }
+
+    static boolean isLiteral(String format) {
+        return format.charAt(0) == LITERAL;
+    }
+
+    /**
+     * Renders a value with a non-literal format; returns null when the value has more digits than the format.
+     */
+    static String render(String format, long value) {
+        String digits = Long.toString(value / POWERS[format.charAt(0) - '0']);
+        char[] text = new char[format.length() - 1];
+        int next = digits.length() - 1;
+        for (int i = text.length - 1; i >= 0; i--) {
+            char c = format.charAt(i + 1);
+            text[i] = c != SLOT ? c : next >= 0 ? digits.charAt(next--) : '0';
+        }
+        return next >= 0 ? null : new String(text);
+    }
+
+    static void writeVarLong(Buffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static void writeText(Buffer out, String text) {
+        if (text == null) {
+            out.write(0);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static String readText(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (!in.hasArray()) {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String text = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return text;
+    }
+
+    /**
+     * Frame-of-reference bit packing of the first {@code count} values.
+     */
+    static void writePacked(Buffer out, long[] values, int count) {
+        long min = count == 0 ? 0 : Long.MAX_VALUE;
+        long max = count == 0 ? 0 : Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        // The difference is read as unsigned, so any range of longs fits in 64 bits.
+        int width = 64 - Long.numberOfLeadingZeros(max - min);
+        writeVarLong(out, (min << 1) ^ (min >> 63));
+        out.write(width);
+        if (width == 0) {
+            return;
+        }
+        long buffer = 0;
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = values[i] - min;
+            buffer |= delta << used;
+            used += width;
+            if (used >= 64) {
+                writeLong(out, buffer, 8);
+                used -= 64;
+                buffer = used == 0 ? 0 : delta >>> (width - used);
+            }
+        }
+        writeLong(out, buffer, (used + 7) / 8);
+    }
+
+    static void readPacked(ByteBuffer in, long[] values, int count) {
+        long encoded = readVarLong(in);
+        long min = (encoded >>> 1) ^ -(encoded & 1);
+        int width = in.get();
+        if (width == 0) {
+            Arrays.fill(values, 0, count, min);
+            return;
+        }
+        int length = (int) (((long) count * width + 7) / 8);
+        ByteBuffer bits = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+        bits.limit(length);
+        in.position(in.position() + length);
+        long mask = width == 64 ? -1L : (1L << width) - 1;
+        long buffer = 0;
+        int available = 0;
+        for (int i = 0; i < count; i++) {
+            long value;
+            if (available >= width) {
+                value = buffer & mask;
+                buffer = width == 64 ? 0 : buffer >>> width;
+                available -= width;
+            } else {
+                long next = readLong(bits);
+                value = (buffer | next << available) & mask;
+                int consumed = width - available;
+                available = 64 - consumed;
+                buffer = available == 0 ? 0 : next >>> consumed;
+            }
+            values[i] = min + value;
+        }
+    }
+
+    private static void writeLong(Buffer out, long value, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            out.write((int) (value >>> (8 * i)));
+        }
+    }
+
+    private static long readLong(ByteBuffer in) {
+        if (in.remaining() >= 8) {
+            return in.getLong();
+        }
+        long value = 0;
+        for (int i = 0; in.hasRemaining(); i++) {
+            value |= (in.get() & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+
+    /**
+     * Growable, unsynchronized byte buffer whose bytes can be written out without copying them first.
+     */
+    static final class Buffer extends OutputStream {
+        private byte[] bytes = new byte[64 * 1024];
+        private int size;
+
+        @Override
+        public void write(int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (size + len > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + len, size * 2));
+            }
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.webscraper.util;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes items to a binary columnar file (see {@link ColumnarEncoding} for the layout) that
+ * {@link ColumnarReader} reads back. Rows are buffered into row groups of {@code rowGroupSize} items.
+ */
+@Component
+public class ColumnarExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarExporter.class);
+    private static final ColumnarColumn[] COLUMNS = ColumnarColumn.values();
+    private static final int DEFAULT_ROW_GROUP_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int rowGroupSize;
+
+    public ColumnarExporter() {
+        this(DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    @Autowired
+    public ColumnarExporter(ScraperProperties properties) {
+        this(properties.getProperty("export.columnar.rowGroupSize", Integer.class, DEFAULT_ROW_GROUP_SIZE));
+    }
+
+    public ColumnarExporter(int rowGroupSize) {
+        if (rowGroupSize < 1) {
+            throw new IllegalArgumentException("Row group size must be positive: " + rowGroupSize);
+        }
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public boolean export(List<MachineryItem> items, String filePath) {
+        try (ColumnarExportSink sink = openSink(filePath)) {
+            for (MachineryItem item : items) {
+                sink.accept(item);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Error exporting data to columnar file: {}", filePath, e);
+            return false;
+        }
+    }
+
+    public ColumnarExportSink openSink(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        return new ColumnarExportSink(path, rowGroupSize);
+    }
+
+    public static class ColumnarExportSink implements ItemSink {
+        private final Path path;
+        private final int rowGroupSize;
+        private final CountingOutputStream out;
+        private final String[][] texts = new String[COLUMNS.length][];
+        private final long[][] values = new long[COLUMNS.length][];
+        private final long[][] formats = new long[COLUMNS.length][];
+        private final Dictionary[] dictionaries = new Dictionary[COLUMNS.length];
+        private final List<ColumnarRowGroup> rowGroups = new ArrayList<>();
+        private final ColumnarEncoding.Buffer chunk = new ColumnarEncoding.Buffer();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] deflated = new byte[0];
+        private int rows;
+        private long rowCount;
+        private boolean closed;
+
+        private ColumnarExportSink(Path path, int rowGroupSize) throws IOException {
+            this.path = path;
+            this.rowGroupSize = rowGroupSize;
+            this.out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+            for (ColumnarColumn column : COLUMNS) {
+                int c = column.ordinal();
+                if (column.getKind() == ColumnarColumn.Kind.TEXT) {
+                    texts[c] = new String[rowGroupSize];
+                } else {
+                    values[c] = new long[rowGroupSize];
+                    dictionaries[c] = new Dictionary();
+                }
+                if (column.isNumeric()) {
+                    formats[c] = new long[rowGroupSize];
+                }
+            }
+            out.write(ColumnarEncoding.MAGIC);
+            out.write(ColumnarEncoding.VERSION);
+        }
+
+        @Override
+        public synchronized void accept(MachineryItem item) throws IOException {
+            for (ColumnarColumn column : COLUMNS) {
+                int c = column.ordinal();
+                String text = column.text(item);
+                switch (column.getKind()) {
+                    case TEXT:
+                        texts[c][rows] = text;
+                        break;
+                    case DICTIONARY:
+                        values[c][rows] = dictionaries[c].encode(text);
+                        break;
+                    default:
+                        long value = column.parse(text);
+                        values[c][rows] = value;
+                        // Prices are in cents, so "350000" is written as a format with two implied zeros.
+                        formats[c][rows] = text == null ? CompactMachineryItem.NO_VALUE : dictionaries[c].encode(
+                                ColumnarEncoding.format(text, value, column == ColumnarColumn.PRICE ? 2 : 0));
+                }
+            }
+            rowCount++;
+            if (++rows == rowGroupSize) {
+                writeRowGroup();
+            }
+        }
+
+        public synchronized long getRowCount() {
+            return rowCount;
+        }
+
+        public synchronized long getBytesWritten() {
+            return out.getCount();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (rows > 0) {
+                    writeRowGroup();
+                }
+                writeFooter();
+                out.close();
+            } finally {
+                deflater.end();
+            }
+            logger.info("Successfully exported {} items to columnar file: {} ({} bytes, {} row groups)",
+                    rowCount, path, out.getCount(), rowGroups.size());
+        }
+
+        private void writeRowGroup() throws IOException {
+            ColumnarRowGroup group = new ColumnarRowGroup(rows);
+            for (ColumnarColumn column : COLUMNS) {
+                int c = column.ordinal();
+                chunk.reset();
+                switch (column.getKind()) {
+                    case TEXT:
+                        for (int row = 0; row < rows; row++) {
+                            ColumnarEncoding.writeText(chunk, texts[c][row]);
+                        }
+                        break;
+                    case DICTIONARY:
+                        writeCodes(values[c]);
+                        group.codes[c] = distinctCodes(values[c]);
+                        break;
+                    default:
+                        ColumnarEncoding.writePacked(chunk, values[c], rows);
+                        writeCodes(formats[c]);
+                        recordRange(group, c);
+                }
+                writeChunk(group, c);
+            }
+            rowGroups.add(group);
+            rows = 0;
+        }
+
+        private void writeCodes(long[] codes) {
+            for (int row = 0; row < rows; row++) {
+                codes[row]++;
+            }
+            ColumnarEncoding.writePacked(chunk, codes, rows);
+        }
+
+        private int[] distinctCodes(long[] shiftedCodes) {
+            BitSet seen = new BitSet();
+            for (int row = 0; row < rows; row++) {
+                seen.set((int) shiftedCodes[row]);
+            }
+            if (seen.cardinality() > ColumnarEncoding.MAX_STATS_CODES) {
+                return null;
+            }
+            // Codes were shifted by one for null, which is left out.
+            return seen.stream().filter(code -> code > 0).map(code -> code - 1).toArray();
+        }
+
+        private void recordRange(ColumnarRowGroup group, int c) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int row = 0; row < rows; row++) {
+                long value = values[c][row];
+                if (value != CompactMachineryItem.NO_VALUE) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+            group.min[c] = min;
+            group.max[c] = max;
+        }
+
+        private void writeChunk(ColumnarRowGroup group, int c) throws IOException {
+            int rawLength = chunk.size();
+            deflater.reset();
+            deflater.setInput(chunk.array(), 0, rawLength);
+            deflater.finish();
+            if (deflated.length < rawLength) {
+                deflated = new byte[rawLength];
+            }
+            // Only the first rawLength bytes are kept: a chunk that deflates no smaller is written as it is.
+            int length = 0;
+            while (!deflater.finished() && length < rawLength) {
+                length += deflater.deflate(deflated, length, rawLength - length);
+            }
+            group.offsets[c] = out.getCount();
+            group.rawLengths[c] = rawLength;
+            group.compressed[c] = deflater.finished() && length < rawLength;
+            if (group.compressed[c]) {
+                out.write(deflated, 0, length);
+                group.lengths[c] = length;
+            } else {
+                out.write(chunk.array(), 0, rawLength);
+                group.lengths[c] = rawLength;
+            }
+        }
+
+        private void writeFooter() throws IOException {
+            chunk.reset();
+            DataOutputStream footer = new DataOutputStream(chunk);
+            footer.writeLong(rowCount);
+            footer.writeInt(COLUMNS.length);
+            for (ColumnarColumn column : COLUMNS) {
+                writeString(footer, column.name());
+            }
+            for (ColumnarColumn column : COLUMNS) {
+                Dictionary dictionary = dictionaries[column.ordinal()];
+                if (dictionary != null) {
+                    footer.writeInt(dictionary.values.size());
+                    for (String value : dictionary.values) {
+                        writeString(footer, value);
+                    }
+                }
+            }
+            footer.writeInt(rowGroups.size());
+            for (ColumnarRowGroup group : rowGroups) {
+                group.write(footer);
+            }
+            footer.flush();
+            int footerLength = chunk.size();
+            out.write(chunk.array(), 0, footerLength);
+            DataOutputStream trailer = new DataOutputStream(out);
+            trailer.writeInt(footerLength);
+            trailer.write(ColumnarEncoding.MAGIC);
+            trailer.flush();
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Dense codes in first-seen order. Not thread-safe: each sink has its own and its methods are synchronized.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return CompactMachineryItem.NO_VALUE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.webscraper.util;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Row filter for {@link ColumnarReader} scans. All conditions must match; dictionary-encoded columns are compared
+ * ignoring case, numeric bounds are inclusive and rows without a value for a filtered column never match.
+ */
+public class ColumnarFilter {
+
+    private final Map<ColumnarColumn, String> values = new EnumMap<>(ColumnarColumn.class);
+    private final Map<ColumnarColumn, long[]> ranges = new EnumMap<>(ColumnarColumn.class);
+
+    public static ColumnarFilter all() {
+        return new ColumnarFilter();
+    }
+
+    public ColumnarFilter where(ColumnarColumn column, String value) {
+        if (!column.isDictionaryEncoded()) {
+            throw new IllegalArgumentException(column + " is not dictionary-encoded");
+        }
+        values.put(column, value);
+        return this;
+    }
+
+    public ColumnarFilter between(ColumnarColumn column, long min, long max) {
+        if (!column.isNumeric()) {
+            throw new IllegalArgumentException(column + " is not numeric; use where");
+        }
+        long[] range = ranges.computeIfAbsent(column, key -> new long[]{0, Long.MAX_VALUE});
+        range[0] = Math.max(range[0], min);
+        range[1] = Math.min(range[1], max);
+        return this;
+    }
+
+    public ColumnarFilter atLeast(ColumnarColumn column, long min) {
+        return between(column, min, Long.MAX_VALUE);
+    }
+
+    public ColumnarFilter atMost(ColumnarColumn column, long max) {
+        return between(column, 0, max);
+    }
+
+    Map<ColumnarColumn, String> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    Map<ColumnarColumn, long[]> getRanges() {
+        return Collections.unmodifiableMap(ranges);
+    }
+}
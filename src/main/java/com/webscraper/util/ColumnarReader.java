@@ -0,0 +1,389 @@
+package com.webscraper.util;
+
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link ColumnarExporter}. Each row group a scan needs is memory-mapped; row groups whose
+ * statistics rule out the filter are not read at all, and within a group only the filtered columns are decoded
+ * until a row matches. Not thread-safe.
+ */
+public class ColumnarReader implements Closeable {
+
+    private static final ColumnarColumn[] COLUMNS = ColumnarColumn.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long rowCount;
+    private final String[][] dictionaries = new String[COLUMNS.length][];
+    /** Per numeric column and format code, the text of literal formats. */
+    private final String[][] literals = new String[COLUMNS.length][];
+    private final List<ColumnarRowGroup> rowGroups = new ArrayList<>();
+    private final Inflater inflater = new Inflater();
+    private final String[][] texts = new String[COLUMNS.length][];
+    private final long[][] values = new long[COLUMNS.length][];
+    private final long[][] formats = new long[COLUMNS.length][];
+    private byte[] inflated = new byte[0];
+
+    private ColumnarReader(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        long size = channel.size();
+        int headerLength = ColumnarEncoding.MAGIC.length + 1;
+        if (size < headerLength + ColumnarEncoding.TRAILER_LENGTH) {
+            throw new IOException("Not a columnar export: " + path);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength);
+        ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - ColumnarEncoding.TRAILER_LENGTH,
+                ColumnarEncoding.TRAILER_LENGTH);
+        int footerLength = trailer.getInt();
+        if (!hasMagic(header) || !hasMagic(trailer) || footerLength < 0
+                || footerLength > size - headerLength - ColumnarEncoding.TRAILER_LENGTH) {
+            throw new IOException("Not a columnar export: " + path);
+        }
+        if (header.get() != ColumnarEncoding.VERSION) {
+            throw new IOException("Unsupported columnar export version: " + path);
+        }
+        ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY,
+                size - ColumnarEncoding.TRAILER_LENGTH - footerLength, footerLength);
+        this.rowCount = footer.getLong();
+        int columnCount = footer.getInt();
+        for (int c = 0; c < columnCount; c++) {
+            if (c >= COLUMNS.length || !COLUMNS[c].name().equals(readString(footer))) {
+                throw new IOException("Unexpected columns in columnar export: " + path);
+            }
+        }
+        for (ColumnarColumn column : COLUMNS) {
+            int c = column.ordinal();
+            if (column.getKind() == ColumnarColumn.Kind.TEXT) {
+                continue;
+            }
+            String[] dictionary = new String[footer.getInt()];
+            for (int code = 0; code < dictionary.length; code++) {
+                dictionary[code] = readString(footer);
+            }
+            dictionaries[c] = dictionary;
+            if (column.isNumeric()) {
+                literals[c] = new String[dictionary.length];
+                for (int code = 0; code < dictionary.length; code++) {
+                    if (ColumnarEncoding.isLiteral(dictionary[code])) {
+                        literals[c][code] = dictionary[code].substring(1);
+                    }
+                }
+            }
+        }
+        int groupCount = footer.getInt();
+        for (int i = 0; i < groupCount; i++) {
+            rowGroups.add(ColumnarRowGroup.read(footer));
+        }
+    }
+
+    public static ColumnarReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ColumnarReader(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroups.size();
+    }
+
+    /**
+     * Distinct values of a dictionary-encoded column, or the text formats of a numeric one, in first-written order.
+     */
+    public List<String> dictionary(ColumnarColumn column) {
+        String[] dictionary = dictionaries[column.ordinal()];
+        return dictionary == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(dictionary));
+    }
+
+    public List<MachineryItem> readAll() throws IOException {
+        List<MachineryItem> items = new ArrayList<>((int) Math.min(rowCount, Integer.MAX_VALUE));
+        boolean[] needed = new boolean[COLUMNS.length];
+        Arrays.fill(needed, true);
+        forEachMatch(ColumnarFilter.all(), needed, row -> items.add(item(row)));
+        return items;
+    }
+
+    /**
+     * Sends the matching rows to the sink in file order and returns how many there were.
+     */
+    public long scan(ColumnarFilter filter, ItemSink sink) throws IOException {
+        boolean[] needed = new boolean[COLUMNS.length];
+        Arrays.fill(needed, true);
+        return forEachMatch(filter, needed, row -> sink.accept(item(row)));
+    }
+
+    /**
+     * Statistics of a numeric column over the matching rows that have a value, decoding only the filtered columns
+     * and that one.
+     */
+    public LongSummaryStatistics summarize(ColumnarFilter filter, ColumnarColumn column) throws IOException {
+        if (!column.isNumeric()) {
+            throw new IllegalArgumentException(column + " is not numeric");
+        }
+        boolean[] needed = new boolean[COLUMNS.length];
+        needed[column.ordinal()] = true;
+        LongSummaryStatistics statistics = new LongSummaryStatistics();
+        forEachMatch(filter, needed, row -> {
+            long value = values[column.ordinal()][row];
+            if (value != CompactMachineryItem.NO_VALUE) {
+                statistics.accept(value);
+            }
+        });
+        return statistics;
+    }
+
+    /**
+     * Number of row groups whose statistics do not rule out the filter, i.e. that a scan reads.
+     */
+    public int matchingRowGroups(ColumnarFilter filter) {
+        Condition[] conditions = conditions(filter);
+        int count = 0;
+        for (ColumnarRowGroup group : rowGroups) {
+            if (mightMatch(group, conditions)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private long forEachMatch(ColumnarFilter filter, boolean[] needed, RowVisitor visitor) throws IOException {
+        Condition[] conditions = conditions(filter);
+        long matched = 0;
+        int[] selection = new int[0];
+        for (ColumnarRowGroup group : rowGroups) {
+            if (!mightMatch(group, conditions)) {
+                continue;
+            }
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, group.start(), group.end() - group.start());
+            if (selection.length < group.rowCount) {
+                selection = new int[group.rowCount];
+            }
+            int selected = group.rowCount;
+            for (int row = 0; row < selected; row++) {
+                selection[row] = row;
+            }
+            boolean[] decoded = new boolean[COLUMNS.length];
+            for (Condition condition : conditions) {
+                int c = condition.column.ordinal();
+                decode(region, group, condition.column);
+                decoded[c] = true;
+                int kept = 0;
+                for (int i = 0; i < selected; i++) {
+                    if (condition.matches(values[c][selection[i]])) {
+                        selection[kept++] = selection[i];
+                    }
+                }
+                selected = kept;
+                if (selected == 0) {
+                    break;
+                }
+            }
+            if (selected == 0) {
+                continue;
+            }
+            for (ColumnarColumn column : COLUMNS) {
+                if (needed[column.ordinal()] && !decoded[column.ordinal()]) {
+                    decode(region, group, column);
+                }
+            }
+            for (int i = 0; i < selected; i++) {
+                visitor.visit(selection[i]);
+            }
+            matched += selected;
+        }
+        return matched;
+    }
+
+    private Condition[] conditions(ColumnarFilter filter) {
+        List<Condition> conditions = new ArrayList<>();
+        for (Map.Entry<ColumnarColumn, String> entry : filter.getValues().entrySet()) {
+            String[] dictionary = dictionaries[entry.getKey().ordinal()];
+            // Shifted by one: index 0 is null, which never matches.
+            boolean[] accepted = new boolean[dictionary.length + 1];
+            for (int code = 0; code < dictionary.length; code++) {
+                accepted[code + 1] = dictionary[code].equalsIgnoreCase(entry.getValue());
+            }
+            conditions.add(new Condition(entry.getKey(), accepted, 0, 0));
+        }
+        for (Map.Entry<ColumnarColumn, long[]> entry : filter.getRanges().entrySet()) {
+            long[] range = entry.getValue();
+            conditions.add(new Condition(entry.getKey(), null, range[0], range[1]));
+        }
+        return conditions.toArray(new Condition[0]);
+    }
+
+    private static boolean mightMatch(ColumnarRowGroup group, Condition[] conditions) {
+        for (Condition condition : conditions) {
+            int c = condition.column.ordinal();
+            if (condition.accepted == null) {
+                if (group.max[c] < condition.min || group.min[c] > condition.max) {
+                    return false;
+                }
+            } else if (group.codes[c] != null) {
+                boolean any = false;
+                for (int code : group.codes[c]) {
+                    any |= condition.accepted[code + 1];
+                }
+                if (!any) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void decode(ByteBuffer region, ColumnarRowGroup group, ColumnarColumn column) throws IOException {
+        int c = column.ordinal();
+        ByteBuffer chunk = chunk(region, group, c);
+        int rows = group.rowCount;
+        switch (column.getKind()) {
+            case TEXT:
+                texts[c] = ensureCapacity(texts[c], rows);
+                for (int row = 0; row < rows; row++) {
+                    texts[c][row] = ColumnarEncoding.readText(chunk);
+                }
+                break;
+            case DICTIONARY:
+                values[c] = readCodes(chunk, values[c], rows);
+                break;
+            default:
+                values[c] = values[c] == null || values[c].length < rows ? new long[rows] : values[c];
+                ColumnarEncoding.readPacked(chunk, values[c], rows);
+                formats[c] = readCodes(chunk, formats[c], rows);
+        }
+    }
+
+    private static long[] readCodes(ByteBuffer chunk, long[] codes, int rows) {
+        codes = codes == null || codes.length < rows ? new long[rows] : codes;
+        ColumnarEncoding.readPacked(chunk, codes, rows);
+        for (int row = 0; row < rows; row++) {
+            codes[row]--;
+        }
+        return codes;
+    }
+
+    private ByteBuffer chunk(ByteBuffer region, ColumnarRowGroup group, int c) throws IOException {
+        ByteBuffer stored = region.duplicate();
+        stored.position((int) (group.offsets[c] - group.start()));
+        stored.limit(stored.position() + group.lengths[c]);
+        if (!group.compressed[c]) {
+            return stored.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int rawLength = group.rawLengths[c];
+        if (inflated.length < rawLength) {
+            inflated = new byte[rawLength];
+        }
+        inflater.reset();
+        inflater.setInput(stored);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflatedBytes = inflater.inflate(inflated, length, rawLength - length);
+                if (inflatedBytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated column chunk in " + path);
+                }
+                length += inflatedBytes;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column chunk in " + path, e);
+        }
+        return ByteBuffer.wrap(inflated, 0, rawLength).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private MachineryItem item(int row) {
+        String[] fields = new String[COLUMNS.length];
+        for (ColumnarColumn column : COLUMNS) {
+            int c = column.ordinal();
+            switch (column.getKind()) {
+                case TEXT:
+                    fields[c] = texts[c][row];
+                    break;
+                case DICTIONARY:
+                    fields[c] = values[c][row] < 0 ? null : dictionaries[c][(int) values[c][row]];
+                    break;
+                default:
+                    int format = (int) formats[c][row];
+                    if (format >= 0) {
+                        fields[c] = literals[c][format] != null ? literals[c][format]
+                                : ColumnarEncoding.render(dictionaries[c][format], values[c][row]);
+                    }
+            }
+        }
+        return new MachineryItem(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6],
+                fields[7], fields[8], fields[9]);
+    }
+
+    private static String[] ensureCapacity(String[] array, int length) {
+        return array == null || array.length < length ? new String[length] : array;
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer) {
+        for (byte b : ColumnarEncoding.MAGIC) {
+            if (buffer.get() != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private interface RowVisitor {
+        void visit(int row) throws IOException;
+    }
+
+    private static final class Condition {
+        private final ColumnarColumn column;
+        /** Accepted dictionary codes shifted by one, or null for a numeric range. */
+        private final boolean[] accepted;
+        private final long min;
+        private final long max;
+
+        Condition(ColumnarColumn column, boolean[] accepted, long min, long max) {
+            this.column = column;
+            this.accepted = accepted;
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean matches(long value) {
+            return accepted != null ? accepted[(int) value + 1] : value >= min && value <= max;
+        }
+    }
+}
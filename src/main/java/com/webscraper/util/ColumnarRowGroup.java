@@ -0,0 +1,82 @@
+package com.webscraper.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Footer entry of one row group: where each column chunk is, whether it is deflated, and the statistics a scan
+ * checks before reading it. Numeric columns record their smallest and largest value (min > max when the group has
+ * none), dictionary-encoded columns the codes that occur when there are few enough of them.
+ */
+final class ColumnarRowGroup {
+
+    private static final int COLUMN_COUNT = ColumnarColumn.values().length;
+
+    final int rowCount;
+    final long[] offsets = new long[COLUMN_COUNT];
+    final int[] lengths = new int[COLUMN_COUNT];
+    final int[] rawLengths = new int[COLUMN_COUNT];
+    final boolean[] compressed = new boolean[COLUMN_COUNT];
+    final long[] min = new long[COLUMN_COUNT];
+    final long[] max = new long[COLUMN_COUNT];
+    final int[][] codes = new int[COLUMN_COUNT][];
+
+    ColumnarRowGroup(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    long start() {
+        return offsets[0];
+    }
+
+    long end() {
+        return offsets[COLUMN_COUNT - 1] + lengths[COLUMN_COUNT - 1];
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(rowCount);
+        for (ColumnarColumn column : ColumnarColumn.values()) {
+            int c = column.ordinal();
+            out.writeLong(offsets[c]);
+            out.writeInt(lengths[c]);
+            out.writeInt(rawLengths[c]);
+            out.writeBoolean(compressed[c]);
+            if (column.isNumeric()) {
+                out.writeLong(min[c]);
+                out.writeLong(max[c]);
+            } else if (column.isDictionaryEncoded()) {
+                out.writeInt(codes[c] == null ? -1 : codes[c].length);
+                if (codes[c] != null) {
+                    for (int code : codes[c]) {
+                        out.writeInt(code);
+                    }
+                }
+            }
+        }
+    }
+
+    static ColumnarRowGroup read(ByteBuffer in) {
+        ColumnarRowGroup group = new ColumnarRowGroup(in.getInt());
+        for (ColumnarColumn column : ColumnarColumn.values()) {
+            int c = column.ordinal();
+            group.offsets[c] = in.getLong();
+            group.lengths[c] = in.getInt();
+            group.rawLengths[c] = in.getInt();
+            group.compressed[c] = in.get() != 0;
+            if (column.isNumeric()) {
+                group.min[c] = in.getLong();
+                group.max[c] = in.getLong();
+            } else if (column.isDictionaryEncoded()) {
+                int count = in.getInt();
+                if (count >= 0) {
+                    group.codes[c] = new int[count];
+                    for (int i = 0; i < count; i++) {
+                        group.codes[c][i] = in.getInt();
+                    }
+                }
+            }
+        }
+        return group;
+    }
+}
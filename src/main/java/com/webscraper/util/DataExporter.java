@@ -5,57 +5,132 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
 @Component
 public class DataExporter {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(DataExporter.class);
-    
+    private static final String HEADER = "Model,Contract Type,Make,Year,Worked Hours,City,Price,Photo URL,Source Website\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public boolean exportToCsv(List<MachineryItem> items, String filePath) {
-        try {
-            Path path = Paths.get(filePath);
-            Files.createDirectories(path.getParent());
-            
-            try (FileWriter writer = new FileWriter(filePath)) {
-                writer.write("Model,Contract Type,Make,Year,Worked Hours,City,Price,Photo URL,Source Website\n");
-                
-                for (MachineryItem item : items) {
-                    writer.write(String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s\n",
-                            escapeField(item.getModel()),
-                            escapeField(item.getContractType()),
-                            escapeField(item.getMake()),
-                            escapeField(item.getYear()),
-                            escapeField(item.getWorkedHours()),
-                            escapeField(item.getCity()),
-                            escapeField(item.getPrice()),
-                            escapeField(item.getPhotoUrl()),
-                            escapeField(item.getSourceWebsite())
-                    ));
-                }
+        try (CsvExportSink sink = openSink(filePath)) {
+            for (MachineryItem item : items) {
+                sink.accept(item);
             }
-            
-            logger.info("Successfully exported {} items to CSV: {}", items.size(), filePath);
             return true;
         } catch (IOException e) {
             logger.error("Error exporting data to CSV: {}", filePath, e);
             return false;
         }
     }
-    
-    private String escapeField(String field) {
+
+    public CsvExportSink openSink(String filePath) throws IOException {
+        return openSink(filePath, filePath.endsWith(".gz"));
+    }
+
+    public CsvExportSink openSink(String filePath, boolean gzip) throws IOException {
+        Path path = Paths.get(filePath);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        return new CsvExportSink(path, gzip);
+    }
+
+    static void appendField(StringBuilder row, String field) {
         if (field == null) {
-            return "";
+            return;
+        }
+        int length = field.length();
+        int start = row.length();
+        boolean quoted = false;
+        for (int i = 0; i < length; i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                if (!quoted) {
+                    row.insert(start, '"');
+                    quoted = true;
+                }
+                if (c == '"') {
+                    row.append('"');
+                }
+            }
+            row.append(c);
         }
-        
-        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
+        if (quoted) {
+            row.append('"');
+        }
+    }
+
+    public static class CsvExportSink implements ItemSink {
+        private final Path path;
+        private final CountingOutputStream countingStream;
+        private final Writer writer;
+        private final StringBuilder row = new StringBuilder(256);
+        private final long startNanos = System.nanoTime();
+        private long rowCount;
+        private boolean closed;
+
+        private CsvExportSink(Path path, boolean gzip) throws IOException {
+            this.path = path;
+            this.countingStream = new CountingOutputStream(Files.newOutputStream(path));
+            OutputStream out = gzip ? new GZIPOutputStream(countingStream, BUFFER_SIZE) : countingStream;
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(HEADER);
+        }
+
+        @Override
+        public synchronized void accept(MachineryItem item) throws IOException {
+            row.setLength(0);
+            appendField(row, item.getModel());
+            row.append(',');
+            appendField(row, item.getContractType());
+            row.append(',');
+            appendField(row, item.getMake());
+            row.append(',');
+            appendField(row, item.getYear());
+            row.append(',');
+            appendField(row, item.getWorkedHours());
+            row.append(',');
+            appendField(row, item.getCity());
+            row.append(',');
+            appendField(row, item.getPrice());
+            row.append(',');
+            appendField(row, item.getPhotoUrl());
+            row.append(',');
+            appendField(row, item.getSourceWebsite());
+            row.append('\n');
+            writer.append(row);
+            rowCount++;
+        }
+
+        public synchronized long getRowCount() {
+            return rowCount;
+        }
+
+        public synchronized long getBytesWritten() {
+            return countingStream.getCount();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writer.close();
+            double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1_000_000_000.0;
+            logger.info("Successfully exported {} items to CSV: {} ({} bytes, {} rows/s)",
+                    rowCount, path, countingStream.getCount(), Math.round(rowCount / seconds));
         }
-        
-        return field;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.webscraper.util;
+
+import com.webscraper.model.MachineryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface ItemSink extends Closeable {
+
+    void accept(MachineryItem item) throws IOException;
+
+    /**
+     * Returns a sink that writes every item to both sinks and closes both.
+     */
+    static ItemSink tee(ItemSink first, ItemSink second) {
+        return new ItemSink() {
+            @Override
+            public void accept(MachineryItem item) throws IOException {
+                first.accept(item);
+                second.accept(item);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    first.close();
+                } finally {
+                    second.close();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.webscraper.util;
+
+import com.webscraper.model.MachineryItem;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+/**
+ * Writes published items to an {@link ItemSink}. Items are requested a batch at a time, so a sink that falls
+ * behind holds the publisher back instead of letting items pile up in memory.
+ */
+public class ItemSinkSubscriber implements Flow.Subscriber<MachineryItem> {
+
+    private final ItemSink sink;
+    private final int batchSize;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Flow.Subscription subscription;
+    private int remaining;
+    private long itemCount;
+    private volatile Throwable error;
+
+    public ItemSinkSubscriber(ItemSink sink, int batchSize) {
+        this.sink = sink;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        remaining = batchSize;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(MachineryItem item) {
+        try {
+            sink.accept(item);
+            itemCount++;
+        } catch (IOException | RuntimeException e) {
+            subscription.cancel();
+            onError(e);
+            return;
+        }
+        if (--remaining == 0) {
+            remaining = batchSize;
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (error == null) {
+            error = throwable;
+        }
+        done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        done.countDown();
+    }
+
+    /**
+     * Waits until the publisher has finished and returns the number of items written.
+     */
+    public long await() throws IOException {
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            throw new InterruptedIOException("Interrupted while waiting for published items");
+        }
+        Throwable failure = error;
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw new IOException("Item stream failed", failure);
+        }
+        // Written by the delivery thread before it signalled completion.
+        return itemCount;
+    }
+}
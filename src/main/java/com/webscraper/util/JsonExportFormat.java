@@ -0,0 +1,16 @@
+package com.webscraper.util;
+
+public enum JsonExportFormat {
+    JSON(".json"),
+    NDJSON(".ndjson");
+
+    private final String extension;
+
+    JsonExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
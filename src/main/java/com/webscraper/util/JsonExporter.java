@@ -1,68 +1,211 @@
 package com.webscraper.util;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.webscraper.dedupe.DuplicateCluster;
+import com.webscraper.metrics.ScraperMetrics;
 import com.webscraper.model.MachineryItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
 public class JsonExporter {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(JsonExporter.class);
-    
+    private static final String UNKNOWN_WEBSITE = "Unknown";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private final ScraperMetrics metrics;
+
+    public JsonExporter() {
+        this(new ScraperMetrics(false));
+    }
+
+    @Autowired
+    public JsonExporter(ScraperMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public boolean exportToJson(List<MachineryItem> items, String filePath) {
-        try {
-            Path path = Paths.get(filePath);
-            Files.createDirectories(path.getParent());
-            
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-            
-            objectMapper.writeValue(new File(filePath), items);
-            
-            exportGroupedJson(items, filePath);
-            
-            logger.info("Successfully exported {} items to JSON: {}", items.size(), filePath);
+        return export(items, filePath, JsonExportFormat.JSON);
+    }
+
+    public boolean export(List<MachineryItem> items, String filePath, JsonExportFormat format) {
+        try (JsonExportSink sink = openSink(filePath, format)) {
+            for (MachineryItem item : items) {
+                sink.accept(item);
+            }
             return true;
         } catch (IOException e) {
             logger.error("Error exporting data to JSON: {}", filePath, e);
             return false;
         }
     }
-    
-    private boolean exportGroupedJson(List<MachineryItem> items, String filePath) {
+
+    /**
+     * Writes each cluster's canonical listing together with its near-duplicates.
+     */
+    public boolean exportDuplicates(List<DuplicateCluster> clusters, String filePath) {
+        Path path = Paths.get(filePath);
         try {
-            Map<String, List<MachineryItem>> groupedItems = items.stream()
-                    .collect(Collectors.groupingBy(MachineryItem::getSourceWebsite));
-            
-            Map<String, Object> result = new HashMap<>();
-            result.put("websites", groupedItems);
-            result.put("totalItems", items.size());
-            
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-            
-            String groupedFilePath = filePath.replace(".json", "_grouped.json");
-            
-            objectMapper.writeValue(new File(groupedFilePath), result);
-            
-            logger.info("Successfully exported grouped items to JSON: {}", groupedFilePath);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            objectMapper.writeValue(path.toFile(), clusters);
+            logger.info("Exported {} duplicate clusters to JSON: {}", clusters.size(), filePath);
             return true;
         } catch (IOException e) {
-            logger.error("Error exporting grouped data to JSON", e);
+            logger.error("Error exporting duplicate clusters to JSON: {}", filePath, e);
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public JsonExportSink openSink(String filePath, JsonExportFormat format) throws IOException {
+        Path path = Paths.get(filePath);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        return new JsonExportSink(path, format);
+    }
+
+    private JsonGenerator createGenerator(Path path, boolean pretty) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(Files.newOutputStream(path), JsonEncoding.UTF8);
+        if (pretty) {
+            generator.useDefaultPrettyPrinter();
+        } else {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+        return generator;
+    }
+
+    public class JsonExportSink implements ItemSink {
+        private final Path path;
+        private final JsonExportFormat format;
+        private final JsonGenerator flatGenerator;
+        private final Map<String, WebsiteOutput> websiteOutputs = new LinkedHashMap<>();
+        private long itemCount;
+        private boolean closed;
+
+        private JsonExportSink(Path path, JsonExportFormat format) throws IOException {
+            this.path = path;
+            this.format = format;
+            this.flatGenerator = createGenerator(path, format == JsonExportFormat.JSON);
+            if (format == JsonExportFormat.JSON) {
+                flatGenerator.writeStartArray();
+            }
+        }
+
+        @Override
+        public synchronized void accept(MachineryItem item) throws IOException {
+            long start = System.nanoTime();
+            objectMapper.writeValue(flatGenerator, item);
+            websiteOutput(item.getSourceWebsite()).write(item);
+            itemCount++;
+            metrics.site(item.getSourceWebsite()).getExport().recordNanos(System.nanoTime() - start);
+        }
+
+        public synchronized long getItemCount() {
+            return itemCount;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (format == JsonExportFormat.JSON) {
+                    flatGenerator.writeEndArray();
+                }
+                flatGenerator.close();
+                logger.info("Successfully exported {} items to {}: {}", itemCount, format, path);
+                for (WebsiteOutput output : websiteOutputs.values()) {
+                    output.generator.close();
+                }
+                if (format == JsonExportFormat.JSON) {
+                    writeGroupedFile();
+                }
+            } finally {
+                for (WebsiteOutput output : websiteOutputs.values()) {
+                    if (format == JsonExportFormat.JSON) {
+                        Files.deleteIfExists(output.path);
+                    }
+                }
+            }
+        }
+
+        private WebsiteOutput websiteOutput(String websiteName) throws IOException {
+            String key = websiteName == null ? UNKNOWN_WEBSITE : websiteName;
+            WebsiteOutput output = websiteOutputs.get(key);
+            if (output == null) {
+                Path outputPath;
+                if (format == JsonExportFormat.JSON) {
+                    outputPath = Files.createTempFile(path.toAbsolutePath().getParent(), "grouped-", ".part");
+                } else {
+                    outputPath = siblingPath("_" + key + format.getExtension());
+                }
+                output = new WebsiteOutput(outputPath, createGenerator(outputPath, false));
+                websiteOutputs.put(key, output);
+            }
+            return output;
+        }
+
+        private void writeGroupedFile() throws IOException {
+            Path groupedPath = siblingPath("_grouped" + format.getExtension());
+            try (JsonGenerator grouped = createGenerator(groupedPath, true)) {
+                grouped.writeStartObject();
+                grouped.writeObjectFieldStart("websites");
+                for (Map.Entry<String, WebsiteOutput> entry : websiteOutputs.entrySet()) {
+                    grouped.writeArrayFieldStart(entry.getKey());
+                    // Items are copied one at a time from the per-website part file so memory stays flat.
+                    try (JsonParser parser = objectMapper.getFactory().createParser(entry.getValue().path.toFile())) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            grouped.copyCurrentStructure(parser);
+                        }
+                    }
+                    grouped.writeEndArray();
+                }
+                grouped.writeEndObject();
+                grouped.writeNumberField("totalItems", itemCount);
+                grouped.writeEndObject();
+            }
+            logger.info("Successfully exported grouped items to JSON: {}", groupedPath);
+        }
+
+        private Path siblingPath(String suffix) {
+            String fileName = path.getFileName().toString();
+            int extension = fileName.lastIndexOf('.');
+            String baseName = extension > 0 ? fileName.substring(0, extension) : fileName;
+            return path.resolveSibling(baseName + suffix);
+        }
+    }
+
+    private class WebsiteOutput {
+        private final Path path;
+        private final JsonGenerator generator;
+
+        WebsiteOutput(Path path, JsonGenerator generator) {
+            this.path = path;
+            this.generator = generator;
+        }
+
+        void write(MachineryItem item) throws IOException {
+            objectMapper.writeValue(generator, item);
+        }
+    }
+}
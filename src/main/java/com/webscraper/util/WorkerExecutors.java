@@ -0,0 +1,39 @@
+package com.webscraper.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class WorkerExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerExecutors.class);
+
+    private WorkerExecutors() {
+    }
+
+    public static ExecutorService newExecutor(String namePrefix, int threads, boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads are not available on this JVM, using {} platform threads", threads);
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, threads), namedThreadFactory(namePrefix));
+    }
+
+    public static ThreadFactory namedThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
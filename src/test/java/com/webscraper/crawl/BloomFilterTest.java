@@ -0,0 +1,38 @@
+package com.webscraper.crawl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("https://www.mercadomaquinas.com.br/anuncio/" + i + "-trator");
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("https://www.mercadomaquinas.com.br/anuncio/" + i + "-trator"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 100_000; i < 200_000; i++) {
+            if (filter.mightContain("https://www.mercadomaquinas.com.br/anuncio/" + i + "-trator")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertTrue(filter.getSizeInBytes() < 150_000);
+    }
+
+    @Test
+    public void testPutReportsNewValues() {
+        BloomFilter filter = new BloomFilter(1_000, 0.001);
+
+        assertTrue(filter.put("https://www.agrofy.com.br/trator-a.html"));
+        assertFalse(filter.put("https://www.agrofy.com.br/trator-a.html"));
+        assertTrue(filter.put("https://www.agrofy.com.br/trator-b.html"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.webscraper.crawl;
+
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CrawlStateStoreTest {
+
+    private static final String URL = "https://www.agrofy.com.br/trator-john-deere-7230j-oferta.html";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testUnchangedPageIsReusedAcrossRuns() throws IOException {
+        Path logFile = tempDir.resolve("state.ndjson");
+        try (CrawlStateStore store = new CrawlStateStore(true, logFile)) {
+            assertFalse(store.reuse(URL, "hash-1", "rules-1").isPresent());
+            store.record(URL, "hash-1", "rules-1", item("R$ 350.000,00"));
+        }
+
+        try (CrawlStateStore store = new CrawlStateStore(true, logFile)) {
+            Optional<MachineryItem> reused = store.reuse(URL, "hash-1", "rules-1");
+
+            assertTrue(reused.isPresent());
+            assertEquals("R$ 350.000,00", reused.get().getPrice());
+            assertFalse(store.reuse(URL, "hash-2", "rules-1").isPresent());
+            assertFalse(store.reuse(URL, "hash-1", "rules-2").isPresent());
+            assertEquals(1, store.getReused());
+        }
+    }
+
+    @Test
+    public void testLatestRecordWinsAndLogIsCompacted() throws IOException {
+        Path logFile = tempDir.resolve("state.ndjson");
+        try (CrawlStateStore store = new CrawlStateStore(true, logFile)) {
+            for (int i = 0; i < 5; i++) {
+                store.record(URL, "hash-" + i, "rules-1", item("R$ " + i));
+            }
+        }
+        Files.write(logFile, "{\"url\":\"trunc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (CrawlStateStore store = new CrawlStateStore(true, logFile)) {
+            assertEquals("hash-4", store.getState(URL).get().contentHash);
+            assertEquals("R$ 4", store.reuse(URL, "hash-4", "rules-1").get().getPrice());
+        }
+        assertEquals(1, Files.readAllLines(logFile).size());
+    }
+
+    private static MachineryItem item(String price) {
+        return new MachineryItem("John Deere 7230J", "Sale", "John", "2018", "5200", "Uberlândia, MG", price,
+                null, "Agrofy", "Active");
+    }
+}
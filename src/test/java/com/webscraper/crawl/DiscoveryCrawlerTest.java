@@ -0,0 +1,94 @@
+package com.webscraper.crawl;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.extract.SiteRules;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.fetch.FetchStatusException;
+import com.webscraper.fetch.PageFetcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DiscoveryCrawlerTest {
+
+    private static final String BASE = "https://machines.example";
+
+    @Test
+    public void testFollowsNextPageLinksAndDeduplicates() {
+        Map<String, String> pages = new HashMap<>();
+        pages.put(BASE + "/list", "<a href='/item/1'>1</a><a href='/item/2#photos'>2</a><a href='/about'>x</a>"
+                + "<a rel='next' href='/list?p=2'>next</a>");
+        pages.put(BASE + "/list?p=2", "<a href='/item/2'>2</a><a href='/item/3'>3</a>"
+                + "<a rel='next' href='/list'>back to start</a>");
+        SiteRules.Discovery discovery = discovery();
+        discovery.nextPageSelector = "a[rel=next]";
+
+        List<String> urls = discover(discovery, pages);
+
+        assertEquals(Arrays.asList(BASE + "/item/1", BASE + "/item/2", BASE + "/item/3"), urls);
+    }
+
+    @Test
+    public void testNumberedPagesStopAtFirstEmptyPage() {
+        Map<String, String> pages = new HashMap<>();
+        pages.put(BASE + "/list", "<a href='/item/1'>1</a>");
+        pages.put(BASE + "/list?page=2", "<a href='/item/2'>2</a>");
+        pages.put(BASE + "/list?page=3", "<p>No results</p>");
+        pages.put(BASE + "/list?page=4", "<a href='/item/4'>4</a>");
+        SiteRules.Discovery discovery = discovery();
+        discovery.pageUrlTemplate = BASE + "/list?page={page}";
+
+        assertEquals(Arrays.asList(BASE + "/item/1", BASE + "/item/2"), discover(discovery, pages));
+    }
+
+    @Test
+    public void testNumberedPagesStopWhenAClampedPageRepeats() {
+        Map<String, String> pages = new HashMap<>();
+        pages.put(BASE + "/list", "<a href='/item/1'>1</a>");
+        pages.put(BASE + "/list?page=2", "<a href='/item/2'>2</a>");
+        pages.put(BASE + "/list?page=3", "<a href='/item/2'>2</a>");
+        pages.put(BASE + "/list?page=4", "<a href='/item/4'>4</a>");
+        SiteRules.Discovery discovery = discovery();
+        discovery.pageUrlTemplate = BASE + "/list?page={page}";
+
+        assertEquals(Arrays.asList(BASE + "/item/1", BASE + "/item/2"), discover(discovery, pages));
+    }
+
+    private static SiteRules.Discovery discovery() {
+        SiteRules.Discovery discovery = new SiteRules.Discovery();
+        discovery.startUrls = Collections.singletonList(BASE + "/list");
+        discovery.listingSelector = "a[href]";
+        discovery.listingPattern = "/item/\\d+$";
+        return discovery;
+    }
+
+    private static List<String> discover(SiteRules.Discovery discovery, Map<String, String> pages) {
+        SiteRules rules = new SiteRules();
+        rules.website = "Example";
+        rules.discovery = discovery;
+        ExtractionRuleRegistry registry = new ExtractionRuleRegistry(Collections.singletonList(rules));
+        PageFetcher fetcher = (websiteName, url) -> {
+            String html = pages.get(url);
+            if (html == null) {
+                throw new FetchStatusException(404, url);
+            }
+            return new FetchResponse(url, url, 200, Collections.emptyMap(), html.getBytes(StandardCharsets.UTF_8));
+        };
+        DiscoveryCrawler crawler = new DiscoveryCrawler(registry, fetcher,
+                new ScraperProperties(new StandardEnvironment()));
+
+        List<String> urls = new ArrayList<>();
+        crawler.discover("Example", urls::add);
+        return urls;
+    }
+}
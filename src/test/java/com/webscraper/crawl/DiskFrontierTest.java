@@ -0,0 +1,158 @@
+package com.webscraper.crawl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiskFrontierTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testPriorityAndHostRoundRobin() throws Exception {
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 4, website -> 0L)) {
+            frontier.add("A", "https://a.example/1", DiskFrontier.PRIORITY_LOW);
+            frontier.add("A", "https://a.example/2", DiskFrontier.PRIORITY_NORMAL);
+            frontier.add("A", "https://a.example/3", DiskFrontier.PRIORITY_NORMAL);
+            frontier.add("B", "https://b.example/1", DiskFrontier.PRIORITY_NORMAL);
+
+            assertEquals(Arrays.asList("https://a.example/2", "https://b.example/1", "https://a.example/3",
+                    "https://a.example/1"), drain(frontier));
+            assertNull(frontier.take());
+        }
+    }
+
+    @Test
+    public void testHostLimitAndDelay() throws Exception {
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 1, website -> 200L)) {
+            frontier.add("A", "https://a.example/1", DiskFrontier.PRIORITY_NORMAL);
+            frontier.add("A", "https://a.example/2", DiskFrontier.PRIORITY_NORMAL);
+
+            DiskFrontier.Entry first = frontier.poll();
+            assertNull(frontier.poll());
+            frontier.complete(first);
+            assertNull(frontier.poll());
+
+            long start = System.nanoTime();
+            DiskFrontier.Entry second = frontier.take();
+            assertEquals("https://a.example/2", second.getUrl());
+            assertTrue(System.nanoTime() - start >= 150_000_000L);
+        }
+    }
+
+    @Test
+    public void testSurvivesRestartAcrossSegments() throws Exception {
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 8, website -> 0L, 256)) {
+            for (int i = 0; i < 100; i++) {
+                frontier.add("A", "https://a.example/" + i, DiskFrontier.PRIORITY_NORMAL);
+            }
+            for (int i = 0; i < 40; i++) {
+                frontier.complete(frontier.poll());
+            }
+        }
+        // A crash can leave half a record at the end of the last segment.
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            lastSegment = files.filter(file -> file.toString().endsWith(".seg")).sorted()
+                    .reduce((a, b) -> b).get();
+        }
+        Files.write(lastSegment, new byte[]{0, 0, 0, 50, 'h'}, StandardOpenOption.APPEND);
+
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 8, website -> 0L, 256)) {
+            assertEquals(60, frontier.size());
+            frontier.add("A", "https://a.example/100", DiskFrontier.PRIORITY_NORMAL);
+            List<String> urls = drain(frontier);
+
+            assertEquals("https://a.example/40", urls.get(0));
+            assertEquals("https://a.example/100", urls.get(urls.size() - 1));
+            assertEquals(61, urls.size());
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertTrue(files.filter(file -> file.toString().endsWith(".seg")).count() <= 1);
+        }
+    }
+
+    @Test
+    public void testCrashAfterCheckpointKeepsUrlsOfReadSegments() throws Exception {
+        DiskFrontier crashed = new DiskFrontier(tempDir, 8, website -> 0L, 256);
+        for (int i = 0; i < 100; i++) {
+            crashed.add("A", "https://a.example/" + i, DiskFrontier.PRIORITY_NORMAL);
+        }
+        crashed.checkpoint();
+        // Polling reads past several segments, but the process dies before the next checkpoint.
+        for (int i = 0; i < 60; i++) {
+            crashed.complete(crashed.poll());
+        }
+
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 8, website -> 0L, 256)) {
+            assertTrue(frontier.isRecovered());
+            assertEquals(100, frontier.size());
+            assertEquals("https://a.example/0", drain(frontier).get(0));
+        }
+        DiskFrontier.clear(tempDir);
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 8, website -> 0L, 256)) {
+            assertFalse(frontier.isRecovered());
+            assertEquals(0, frontier.size());
+        }
+    }
+
+    @Test
+    public void testUrlInFlightAtCheckpointIsHandedOutAgain() throws Exception {
+        DiskFrontier crashed = new DiskFrontier(tempDir, 8, website -> 0L, 256);
+        for (int i = 0; i < 20; i++) {
+            crashed.add("A", "https://a.example/" + i, DiskFrontier.PRIORITY_NORMAL);
+        }
+        DiskFrontier.Entry first = crashed.poll();
+        for (int i = 1; i < 15; i++) {
+            crashed.complete(crashed.poll());
+        }
+        // The first URL is still being scraped when the checkpoint is taken, and the process dies before it is done.
+        crashed.checkpoint();
+
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 8, website -> 0L, 256)) {
+            List<String> urls = drain(frontier);
+            assertEquals(first.getUrl(), urls.get(0));
+            assertEquals("https://a.example/19", urls.get(urls.size() - 1));
+        }
+    }
+
+    @Test
+    public void testSeededFrontierKeepsItsUrlsAfterACrash() throws Exception {
+        DiskFrontier crashed = new DiskFrontier(tempDir, 8, website -> 0L);
+        for (int i = 0; i < 10; i++) {
+            crashed.add("A", "https://a.example/" + i, DiskFrontier.PRIORITY_NORMAL);
+        }
+        assertFalse(DiskFrontier.isSeeded(tempDir));
+        crashed.markSeeded();
+
+        assertTrue(DiskFrontier.isSeeded(tempDir));
+        try (DiskFrontier frontier = new DiskFrontier(tempDir, 8, website -> 0L)) {
+            assertEquals(10, frontier.size());
+        }
+        assertTrue(DiskFrontier.isSeeded(tempDir));
+    }
+
+    private static List<String> drain(DiskFrontier frontier) throws Exception {
+        List<String> urls = new ArrayList<>();
+        DiskFrontier.Entry entry;
+        while ((entry = frontier.take()) != null) {
+            urls.add(entry.getUrl());
+            frontier.complete(entry);
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,82 @@
+package com.webscraper.crawl;
+
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.ItemSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testResumeSkipsTornRecordAndReplaysItems() throws IOException {
+        Path file = tempDir.resolve("items.wal");
+        try (ItemLog log = new ItemLog(true, file, 2, 0)) {
+            log.open(false);
+            log.append("Agrofy", "https://a.example/1", Collections.singletonList(item("A 1")));
+            log.append("Agrofy", "https://a.example/2", Arrays.asList(item("A 2"), item("A 3")));
+            log.append("Agrofy", "https://a.example/3", Collections.emptyList());
+            assertEquals(1, log.getSyncCount());
+        }
+        Files.write(file, "{\"website\":\"Agrofy\",\"url\":\"https://a.ex".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (ItemLog log = new ItemLog(true, file, 2, 0)) {
+            Set<String> completed = log.open(true);
+            assertEquals(3, completed.size());
+            assertTrue(completed.contains("https://a.example/2"));
+
+            log.append("Agrofy", "https://a.example/4", Collections.singletonList(item("A 4")));
+            log.append("Agrofy", "https://a.example/1", Collections.singletonList(item("A 1 again")));
+            assertEquals(Arrays.asList("A 1", "A 2", "A 3", "A 4"), replay(log));
+        }
+    }
+
+    @Test
+    public void testNewRunDiscardsPreviousLog() throws IOException {
+        Path file = tempDir.resolve("items.wal");
+        try (ItemLog log = new ItemLog(true, file, 64, 0)) {
+            log.open(false);
+            log.append("Agrofy", "https://a.example/1", Collections.singletonList(item("A 1")));
+        }
+        try (ItemLog log = new ItemLog(true, file, 64, 0)) {
+            assertTrue(log.open(false).isEmpty());
+            assertTrue(replay(log).isEmpty());
+        }
+    }
+
+    private static List<String> replay(ItemLog log) throws IOException {
+        List<String> models = new ArrayList<>();
+        log.replay(new ItemSink() {
+            @Override
+            public void accept(MachineryItem item) {
+                models.add(item.getModel());
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        return models;
+    }
+
+    private static MachineryItem item(String model) {
+        return new MachineryItem(model, "Sale", null, null, null, null, null, null, "Agrofy", "Active");
+    }
+}
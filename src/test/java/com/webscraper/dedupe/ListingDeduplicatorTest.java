@@ -0,0 +1,128 @@
+package com.webscraper.dedupe;
+
+import com.webscraper.model.MachineryItem;
+import com.webscraper.util.ItemSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListingDeduplicatorTest {
+
+    private final ListingDeduplicator deduplicator = new ListingDeduplicator(12, 4, 0.6);
+
+    private static MachineryItem listing(String model, String make, String city, String price, String photoUrl,
+                                         String website) {
+        return new MachineryItem(model, "Sale", make, "2019", "3.200 h", city, price, photoUrl, website, "Active");
+    }
+
+    @Test
+    public void testCrossSiteCopyIsDetected() {
+        NearDuplicateDetector detector = deduplicator.newDetector();
+        detector.add(listing("John Deere 7230J", "John Deere", "Rio Verde, GO", "R$ 450.000,00",
+                "https://img.site-a.com/p/7230j-123.jpg", "MercadoMaquinas"));
+        detector.add(listing("Case Magnum 340", "Case", "Sorriso, MT", "R$ 980.000,00",
+                "https://img.site-a.com/p/magnum.jpg", "MercadoMaquinas"));
+
+        int copy = detector.add(listing("JOHN DEERE 7230 J", "John Deere", "Rio Verde - GO", "R$ 455.000",
+                "https://cdn.site-b.com/7230j-123.jpg?w=800", "TratoresEColheitadeiras"));
+        int otherModel = detector.add(listing("John Deere 7200J", "John Deere", "Rio Verde, GO", "R$ 450.000,00",
+                "https://img.site-a.com/p/7200j-456.jpg", "MercadoMaquinas"));
+
+        assertEquals(0, copy);
+        assertEquals(3, otherModel);
+        assertTrue(detector.similarity(0, 2) >= 0.6);
+    }
+
+    @Test
+    public void testEmptyListingsAreNotDuplicates() {
+        NearDuplicateDetector detector = deduplicator.newDetector();
+
+        assertEquals(0, detector.add(new MachineryItem()));
+        assertEquals(1, detector.add(new MachineryItem()));
+        assertEquals(2, detector.size());
+    }
+
+    @Test
+    public void testClusterPicksMostCompleteListing() {
+        MachineryItem sparse = listing("Valtra BH 194", "Valtra", "Cascavel - PR", "R$ 605.000,00", "",
+                "MachineMarket");
+        MachineryItem full = listing("Valtra BH194", "Valtra", "Cascavel, PR", "R$ 600.000,00",
+                "https://img.example.com/bh194.jpg", "MercadoMaquinas");
+        MachineryItem other = listing("New Holland T7.245", "New Holland", "Cascavel, PR", "R$ 720.000,00",
+                "https://img.example.com/t7.jpg", "MercadoMaquinas");
+
+        List<DuplicateCluster> clusters = deduplicator.cluster(Arrays.asList(sparse, other, full));
+
+        assertEquals(2, clusters.size());
+        assertSame(full, clusters.get(0).getCanonical());
+        assertEquals(Arrays.asList(sparse), clusters.get(0).getDuplicates());
+        assertEquals(1, clusters.get(1).size());
+    }
+
+    @Test
+    public void testDedupingSinkForwardsFirstListing() throws Exception {
+        List<MachineryItem> written = new ArrayList<>();
+        ItemSink delegate = new ItemSink() {
+            @Override
+            public void accept(MachineryItem item) {
+                written.add(item);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        MachineryItem first = listing("Massey Ferguson 6713", "Massey Ferguson", "Passo Fundo, RS",
+                "R$ 390.000,00", "https://img.example.com/mf6713.jpg", "MercadoMaquinas");
+        MachineryItem copy = listing("Massey Ferguson 6713", "Massey Ferguson", "Passo Fundo/RS",
+                "R$ 395.000,00", "https://img.other.com/mf6713.jpg", "MachineMarket");
+
+        try (ListingDeduplicator.DedupingSink sink = deduplicator.dedupingSink(delegate)) {
+            sink.accept(first);
+            sink.accept(copy);
+
+            assertEquals(Arrays.asList(first), written);
+            assertEquals(1, sink.getDuplicateCount());
+            assertSame(first, sink.getClusters().get(0).getCanonical());
+            assertEquals(Arrays.asList(copy), sink.getClusters().get(0).getDuplicates());
+        }
+    }
+
+    @Test
+    public void testErrorPlaceholdersAreNeverClustered() throws Exception {
+        List<MachineryItem> written = new ArrayList<>();
+        ItemSink delegate = new ItemSink() {
+            @Override
+            public void accept(MachineryItem item) {
+                written.add(item);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        // Failed pages only carry what the URL reveals, which is the same for two listings of one model.
+        MachineryItem firstError = new MachineryItem(null, null, "John Deere", "2019", null, "Rio Verde", null,
+                null, "MercadoMaquinas", "Error");
+        MachineryItem secondError = new MachineryItem(null, null, "John Deere", "2019", null, "Rio Verde", null,
+                null, "MercadoMaquinas", "Error");
+        MachineryItem real = new MachineryItem(null, "Sale", "John Deere", "2019", null, "Rio Verde", null,
+                null, "MercadoMaquinas", "Active");
+
+        try (ListingDeduplicator.DedupingSink sink = deduplicator.dedupingSink(delegate)) {
+            sink.accept(firstError);
+            sink.accept(secondError);
+            sink.accept(real);
+
+            assertEquals(Arrays.asList(firstError, secondError, real), written);
+            assertEquals(0, sink.getDuplicateCount());
+        }
+        assertEquals(3, deduplicator.cluster(Arrays.asList(firstError, secondError, real)).size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.webscraper.extract;
+
+import com.webscraper.model.MachineryItem;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SiteExtractorTest {
+
+    private static ExtractionRuleRegistry registry;
+
+    @BeforeAll
+    public static void loadRules() throws IOException {
+        registry = new ExtractionRuleRegistry();
+    }
+
+    @Test
+    public void testAgrofyActiveListing() {
+        String url = "https://www.agrofy.com.br/trator-john-deere-7230j-oferta.html";
+        String html = "<h1 class='title'> John Deere 7230J </h1>"
+                + "<div class='specs-item'>Ano: 2018</div><div class='specs-item'>Horas: 5.200 h</div>"
+                + "<div class='location'>Uberlândia, MG</div><div class='price'>R$ 350.000,00</div>"
+                + "<div class='ad-image'><img data-src='/img/7230j.jpg'></div>";
+
+        MachineryItem item = registry.get("Agrofy").extract(url, Jsoup.parse(html, url));
+
+        assertEquals("Active", item.getStatus());
+        assertEquals("John Deere 7230J", item.getModel());
+        assertEquals("John", item.getMake());
+        assertEquals("Sale", item.getContractType());
+        assertEquals("2018", item.getYear());
+        assertEquals("5200", item.getWorkedHours());
+        assertEquals("Uberlândia, MG", item.getCity());
+        assertEquals("R$ 350.000,00", item.getPrice());
+        assertEquals("https://www.agrofy.com.br/img/7230j.jpg", item.getPhotoUrl());
+        assertEquals("Agrofy", item.getSourceWebsite());
+    }
+
+    @Test
+    public void testStreamingExtractionStopsOnceFieldsAreResolved() throws IOException {
+        String url = "https://www.agrofy.com.br/trator-john-deere-7230j-oferta.html";
+        StringBuilder html = new StringBuilder("<html><body><h1 class='title'>John Deere 7230J</h1>"
+                + "<div class='specs-item'>Ano: 2018</div><div class='specs-item'>Horas: 5200</div>"
+                + "<div class='location'>Uberlândia, MG</div><div class='price'>R$ 350.000,00</div>"
+                + "<div class='ad-image'><img src='https://cdn.example/7230j.jpg'></div>");
+        for (int i = 0; i < 20000; i++) {
+            html.append("<p>related listing ").append(i).append("</p>");
+        }
+        html.append("</body></html>");
+        byte[] body = html.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+
+        MachineryItem item = registry.get("Agrofy").extractStreaming(url, in, "UTF-8", body.length);
+
+        assertEquals("John Deere 7230J", item.getModel());
+        assertEquals("R$ 350.000,00", item.getPrice());
+        assertEquals("https://cdn.example/7230j.jpg", item.getPhotoUrl());
+        assertTrue(in.available() > body.length / 2);
+    }
+
+    @Test
+    public void testAgrofyFinalizedListingFallsBackToUrl() {
+        String url = "https://www.agrofy.com.br/trator-case-puma-215-193793.html";
+        String html = "<p>A publicação está <b>finalizada</b></p><div class='price'>R$ 1,00</div>";
+
+        MachineryItem item = registry.get("Agrofy").extract(url, Jsoup.parse(html, url));
+
+        assertEquals("Finalized", item.getStatus());
+        assertEquals("Tractor case puma 215 193793", item.getModel());
+        assertEquals("CASE PUMA", item.getMake());
+        assertNull(item.getPrice());
+    }
+
+    @Test
+    public void testTractorsListingUsesUrlLocationAndRejectsPlaceholderPhoto() {
+        String url = "https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/plataforma-colheitadeira"
+                + "/gts/flexer-xs-45/2023/45-pes/draper/triamaq-tratores/1028839";
+        String html = "<h1 class='title-vehicle'>GTS Flexer XS 45</h1>"
+                + "<div class='vehicle-info-item'>Tipo de anúncio: Aluguel</div>"
+                + "<div class='vehicle-price'>R$ 99.000</div>"
+                + "<meta property='og:image' content='{6}'><img src='https://cdn.example/veiculos/1.jpg'>";
+
+        MachineryItem item = registry.get("TratoresEColheitadeiras").extract(url, Jsoup.parse(html, url));
+
+        assertEquals("GTS", item.getMake());
+        assertEquals("Rent", item.getContractType());
+        assertEquals("2023", item.getYear());
+        assertEquals("uberlandia, MG", item.getCity());
+        assertEquals("https://cdn.example/veiculos/1.jpg", item.getPhotoUrl());
+    }
+
+    @Test
+    public void testTractorsSoldListingKeepsSimilarVehiclePhoto() {
+        String url = "https://www.tratoresecolheitadeiras.com.br/veiculo/uberlandia/mg/plataforma-colheitadeira"
+                + "/gts/produttiva-1250/2022/caracol/12-linhas/triamaq-tratores/994257";
+        String html = "<div>Esse veículo já foi vendido</div><div class='similar-vehicles'><img src='s.jpg'></div>";
+
+        MachineryItem item = registry.get("TratoresEColheitadeiras").extract(url, Jsoup.parse(html, url));
+
+        assertEquals("Sold", item.getStatus());
+        assertEquals("GTS", item.getMake());
+        assertEquals("produttiva-1250", item.getModel());
+        assertEquals("s.jpg", item.getPhotoUrl());
+    }
+
+    @Test
+    public void testMercadoMaquinasTitlePatternAndErrorFallback() {
+        String url = "https://www.mercadomaquinas.com.br/anuncio/236624-retro-escavadeira-caterpillar-416e-2015-carlopolis-pr";
+        String html = "<h1 class='ad-title'>Retro Escavadeira Caterpillar 416E 2015</h1>";
+        SiteExtractor extractor = registry.get("MercadoMaquinas");
+
+        MachineryItem item = extractor.extract(url, Jsoup.parse(html, url));
+        MachineryItem failed = extractor.extractFromUrl(url, "Error");
+
+        assertEquals("416E", item.getModel());
+        assertEquals("Caterpillar", item.getMake());
+        assertEquals("2015", item.getYear());
+        assertEquals("carlopolis, PR", item.getCity());
+        assertEquals("Error", failed.getStatus());
+        assertEquals("retro escavadeira caterpillar 416e", failed.getModel());
+        assertEquals("CATERPILLAR", failed.getMake());
+    }
+}
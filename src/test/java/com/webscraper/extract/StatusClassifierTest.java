@@ -0,0 +1,93 @@
+package com.webscraper.extract;
+
+import com.webscraper.model.ListingStatus;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatusClassifierTest {
+
+    private final StatusClassifier classifier = new StatusClassifier(Collections.singletonList(
+            siteRules("Example",
+                    statusRule(null, "Anúncio desativado", "Inactive"),
+                    statusRule(null, "já foi vendido", "Sold"),
+                    statusRule(".expired-notice", null, "Expired"))));
+
+    @Test
+    public void testPhraseSplitAcrossInlineTagsAndCase() {
+        Document document = Jsoup.parse("<p>Este trator <b>JÁ   FOI</b>\n<i>vendido</i>.</p>");
+
+        assertEquals(ListingStatus.SOLD, classifier.classify("Example", document));
+    }
+
+    @Test
+    public void testEarlierRuleWinsOverLaterMatches() {
+        Document document = Jsoup.parse("<div class='expired-notice'>Expirado</div>"
+                + "<p>Este veículo já foi vendido</p><footer>Anúncio desativado</footer>");
+
+        assertEquals(0, classifier.matchRule("Example", document));
+        assertEquals(ListingStatus.INACTIVE, classifier.classify("Example", document));
+    }
+
+    @Test
+    public void testBlockBoundariesDoNotJoinWords() {
+        Document document = Jsoup.parse("<div>já foi</div><div>vendido</div><div>já foivendido</div>");
+
+        assertEquals(1, classifier.matchRule("Example", document));
+        assertEquals(-1, classifier.matchRule("Example", Jsoup.parse("<p>já foivendido</p>")));
+    }
+
+    @Test
+    public void testSelectorRuleAndUnknownSite() {
+        Document document = Jsoup.parse("<section><span class='expired-notice'></span></section>");
+
+        assertEquals(ListingStatus.EXPIRED, classifier.classify("Example", document));
+        assertEquals(ListingStatus.ACTIVE, classifier.classify("Other", document));
+    }
+
+    @Test
+    public void testStructuralSelectorsAcrossReusedDocuments() {
+        StatusClassifier structural = new StatusClassifier(Collections.singletonList(siteRules("Example",
+                statusRule(null, "Anúncio desativado", "Inactive"),
+                statusRule("div.listing:has(> .sold-badge)", null, "Sold"))));
+        Document sold = Jsoup.parse("<div class='listing'><span class='sold-badge'>Vendido</span></div>");
+        Document active = Jsoup.parse("<div class='listing'><span class='price'>R$ 10</span></div>");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ListingStatus.SOLD, structural.classify("Example", sold));
+            assertEquals(ListingStatus.ACTIVE, structural.classify("Example", active));
+        }
+        // The same document object changed between calls must not see a remembered result.
+        sold.selectFirst(".sold-badge").remove();
+        active.selectFirst(".listing").appendElement("span").addClass("sold-badge");
+        assertEquals(ListingStatus.ACTIVE, structural.classify("Example", sold));
+        assertEquals(ListingStatus.SOLD, structural.classify("Example", active));
+    }
+
+    @Test
+    public void testUnknownStatusLabelIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new StatusClassifier(Collections.singletonList(
+                siteRules("Broken", statusRule(null, "gone", "Vanished")))));
+    }
+
+    private static SiteRules siteRules(String website, SiteRules.StatusRule... statusRules) {
+        SiteRules rules = new SiteRules();
+        rules.website = website;
+        rules.statusRules = Arrays.asList(statusRules);
+        return rules;
+    }
+
+    private static SiteRules.StatusRule statusRule(String selector, String text, String status) {
+        SiteRules.StatusRule rule = new SiteRules.StatusRule();
+        rule.selector = selector;
+        rule.text = text;
+        rule.status = status;
+        return rule;
+    }
+}
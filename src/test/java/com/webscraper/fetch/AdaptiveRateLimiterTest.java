@@ -0,0 +1,49 @@
+package com.webscraper.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveRateLimiterTest {
+
+    @Test
+    public void testHealthyResponsesIncreaseLimitsAdditively() throws IOException {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter("Site", 1000, 1, 2000, 100, 2, 8, 60000);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire().onSuccess();
+        }
+
+        assertTrue(limiter.getConcurrencyLimit() > 2);
+        assertTrue(limiter.getConcurrencyLimit() <= 8);
+        assertTrue(limiter.getPermitsPerSecond() > 1000);
+    }
+
+    @Test
+    public void testOverloadHalvesLimitsOncePerCongestionEvent() throws IOException {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter("Site", 100, 1, 100, 10, 8, 8, 60000);
+
+        AdaptiveRateLimiter.Permit first = limiter.acquire();
+        AdaptiveRateLimiter.Permit second = limiter.acquire();
+        first.onOverload();
+        second.onOverload();
+
+        assertEquals(4, limiter.getConcurrencyLimit());
+        assertEquals(50.0, limiter.getPermitsPerSecond(), 0.001);
+    }
+
+    @Test
+    public void testOverloadClassification() {
+        assertTrue(RateLimiterRegistry.isOverload(new FetchStatusException(429, "u")));
+        assertTrue(RateLimiterRegistry.isOverload(new FetchStatusException(503, "u")));
+        assertTrue(RateLimiterRegistry.isOverload(new SocketTimeoutException()));
+        assertTrue(RateLimiterRegistry.isOverload(new HttpTimeoutException("request timed out")));
+        assertFalse(RateLimiterRegistry.isOverload(new FetchStatusException(404, "u")));
+    }
+}
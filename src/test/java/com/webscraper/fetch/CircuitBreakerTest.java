@@ -0,0 +1,54 @@
+package com.webscraper.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpensAfterThresholdAndProbesAfterCooldown() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50);
+
+        breaker.onFailure();
+        assertEquals(0, breaker.tryAcquire());
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire() > 0);
+
+        Thread.sleep(60);
+        assertEquals(0, breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire() > 0, "only one probe while half-open");
+
+        breaker.onSuccess();
+        assertEquals(0, breaker.tryAcquire());
+        assertEquals(1, breaker.getTimesOpened());
+    }
+
+    @Test
+    public void testFailedProbeReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 30);
+        breaker.onFailure();
+        Thread.sleep(40);
+
+        assertEquals(0, breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertTrue(breaker.isOpen());
+        assertEquals(2, breaker.getTimesOpened());
+    }
+
+    @Test
+    public void testReleasedProbeLetsAnotherThrough() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, 30);
+        breaker.onFailure();
+        Thread.sleep(40);
+
+        assertEquals(0, breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire() > 0);
+        breaker.releaseProbe();
+
+        assertEquals(0, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+}
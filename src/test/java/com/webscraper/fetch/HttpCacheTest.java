@@ -0,0 +1,88 @@
+package com.webscraper.fetch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    public void testStoresPagesWithValidators() {
+        HttpCache cache = new HttpCache(true, cacheDir, 1024 * 1024);
+
+        cache.store(response("https://example.com/a", "\"v1\"", "<html>a</html>"));
+        Optional<HttpCache.CachedPage> page = cache.lookup("https://example.com/a");
+
+        assertTrue(page.isPresent());
+        assertEquals("\"v1\"", page.get().etag);
+        assertArrayEquals("<html>a</html>".getBytes(StandardCharsets.UTF_8), page.get().body);
+    }
+
+    @Test
+    public void testSkipsPagesWithoutValidators() {
+        HttpCache cache = new HttpCache(true, cacheDir, 1024 * 1024);
+
+        cache.store(response("https://example.com/a", null, "<html>a</html>"));
+
+        assertFalse(cache.lookup("https://example.com/a").isPresent());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testDropsEntryWhenPageLosesItsValidators() {
+        HttpCache cache = new HttpCache(true, cacheDir, 1024 * 1024);
+        cache.store(response("https://example.com/a", "\"v1\"", "<html>old</html>"));
+
+        cache.store(response("https://example.com/a", null, "<html>new</html>"));
+
+        assertFalse(cache.lookup("https://example.com/a").isPresent());
+        assertFalse(new HttpCache(true, cacheDir, 1024 * 1024).lookup("https://example.com/a").isPresent());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntries() {
+        HttpCache cache = new HttpCache(true, cacheDir, 25);
+
+        cache.store(response("https://example.com/a", "\"a\"", "0123456789"));
+        cache.store(response("https://example.com/b", "\"b\"", "0123456789"));
+        cache.lookup("https://example.com/a");
+        cache.store(response("https://example.com/c", "\"c\"", "0123456789"));
+
+        assertTrue(cache.lookup("https://example.com/a").isPresent());
+        assertFalse(cache.lookup("https://example.com/b").isPresent());
+        assertTrue(cache.lookup("https://example.com/c").isPresent());
+    }
+
+    @Test
+    public void testReloadsEntriesFromDisk() {
+        new HttpCache(true, cacheDir, 1024).store(response("https://example.com/a", "\"a\"", "body"));
+
+        HttpCache reopened = new HttpCache(true, cacheDir, 1024);
+
+        assertTrue(reopened.lookup("https://example.com/a").isPresent());
+    }
+
+    private FetchResponse response(String url, String etag, String body) {
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList("text/html; charset=UTF-8"));
+        if (etag != null) {
+            headers.put("ETag", Collections.singletonList(etag));
+        }
+        return new FetchResponse(url, url, 200, headers, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,245 @@
+package com.webscraper.fetch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.config.ScraperProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpClientPageFetcherTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicInteger stalledCalls = new AtomicInteger();
+    private final List<String> conditionalHeaders = Collections.synchronizedList(new ArrayList<>());
+    private String baseUrl;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        // Response times now include the body, which Nagle's algorithm would otherwise hold back by up to 40 ms.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fast", exchange -> respond(exchange, "fast"));
+        // Only the first request to /slow stalls, so a hedged copy of it answers at once.
+        server.createContext("/slow", exchange -> {
+            if (slowCalls.incrementAndGet() == 1) {
+                sleep(2000);
+            }
+            respond(exchange, "slow");
+        });
+        // Headers and the start of the body arrive at once, then the first request stalls mid-body.
+        server.createContext("/stalled", exchange -> {
+            boolean stall = stalledCalls.incrementAndGet() == 1;
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("<html><body>".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (stall) {
+                    sleep(3000);
+                }
+                out.write("stalled</body></html>".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        // Only the first response carries an ETag.
+        server.createContext("/validated", exchange -> {
+            conditionalHeaders.add(String.valueOf(exchange.getRequestHeaders().getFirst("If-None-Match")));
+            if (conditionalHeaders.size() == 1) {
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            }
+            respond(exchange, "validated");
+        });
+        // Headers at once, the body 400 ms later.
+        server.createContext("/dribble", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.flush();
+                sleep(400);
+                out.write("dribble".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() throws IOException {
+        HttpClientPageFetcher fetcher = fetcher(true);
+        warmUp(fetcher);
+
+        long start = System.nanoTime();
+        FetchResponse response = fetcher.fetch("Site", baseUrl + "/slow");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("slow", new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals(2, slowCalls.get());
+        assertTrue(elapsedMillis < 1500, "hedge should answer before the stalled request, took " + elapsedMillis);
+        assertTrue(fetcher.latencySummary().contains("1 hedged (1 won by the hedge)"), fetcher.latencySummary());
+        fetcher.close();
+    }
+
+    @Test
+    public void testDeadlineFollowsObservedLatency() throws IOException {
+        HttpClientPageFetcher fetcher = fetcher(false);
+        warmUp(fetcher);
+
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> fetcher.fetch("Site", baseUrl + "/slow"));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(1, slowCalls.get());
+        assertTrue(elapsedMillis < 1500, "deadline should be far below the 5 s timeout, took " + elapsedMillis);
+        fetcher.close();
+    }
+
+    @Test
+    public void testStalledBodyIsRetriedWithinTheDeadline() throws IOException {
+        HttpClientPageFetcher fetcher = fetcher(false, 2);
+        warmUp(fetcher);
+
+        long start = System.nanoTime();
+        FetchResponse response = fetcher.fetch("Site", baseUrl + "/stalled");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("<html><body>stalled</body></html>", new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals(2, stalledCalls.get());
+        assertTrue(elapsedMillis < 2000, "the stalled body should be abandoned at the deadline, took " + elapsedMillis);
+        fetcher.close();
+    }
+
+    @Test
+    public void testStalledStreamedBodyTimesOut() throws IOException {
+        HttpClientPageFetcher fetcher = fetcher(false);
+        warmUp(fetcher);
+
+        long start = System.nanoTime();
+        try (FetchStream stream = fetcher.open("Site", baseUrl + "/stalled")) {
+            assertThrows(HttpTimeoutException.class, () -> stream.getBody().readAllBytes());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 2000, "the stalled body should be closed at the deadline, took " + elapsedMillis);
+        fetcher.close();
+    }
+
+    @Test
+    public void testDeadlineFollowsFullResponseLatency() throws IOException {
+        HttpClientPageFetcher fetcher = fetcher(false);
+
+        // Once the deadline is derived, it has to leave room for the body, not just for the headers.
+        for (int i = 0; i < 8; i++) {
+            if (i % 2 == 0) {
+                FetchResponse response = fetcher.fetch("Site", baseUrl + "/dribble");
+                assertEquals("dribble", new String(response.getBody(), StandardCharsets.UTF_8));
+            } else {
+                try (FetchStream stream = fetcher.open("Site", baseUrl + "/dribble")) {
+                    assertEquals("dribble", new String(stream.getBody().readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        assertTrue(fetcher.latencySummary().matches("(?s).*p50 ([4-9]\\d\\d|\\d{4,}) ms.*"),
+                fetcher.latencySummary());
+        fetcher.close();
+    }
+
+    @Test
+    public void testStreamedPageWithoutValidatorsDropsCachedEntry() throws IOException {
+        HttpClientPageFetcher fetcher = fetcher(false, 1, new HttpCache(true, cacheDir, 1024 * 1024));
+
+        for (int i = 0; i < 3; i++) {
+            try (FetchStream stream = fetcher.open("Site", baseUrl + "/validated")) {
+                assertEquals("validated", new String(stream.getBody().readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals(Arrays.asList("null", "\"v1\"", "null"), conditionalHeaders);
+        fetcher.close();
+    }
+
+    private void warmUp(HttpClientPageFetcher fetcher) throws IOException {
+        for (int i = 0; i < 10; i++) {
+            fetcher.fetch("Site", baseUrl + "/fast");
+        }
+    }
+
+    private static HttpClientPageFetcher fetcher(boolean hedging) {
+        return fetcher(hedging, 1);
+    }
+
+    private static HttpClientPageFetcher fetcher(boolean hedging, int maxAttempts) {
+        return fetcher(hedging, maxAttempts, new HttpCache(false, Paths.get("unused"), 0));
+    }
+
+    private static HttpClientPageFetcher fetcher(boolean hedging, int maxAttempts, HttpCache httpCache) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("scraper.sites.default.http.version", "HTTP_1_1");
+        values.put("scraper.sites.default.http.requestTimeoutMillis", "5000");
+        values.put("scraper.sites.default.http.latency.minSamples", "5");
+        values.put("scraper.sites.default.http.deadline.minMillis", "300");
+        values.put("scraper.sites.default.http.hedge.enabled", String.valueOf(hedging));
+        values.put("scraper.sites.default.http.hedge.maxRatio", "1.0");
+        values.put("scraper.sites.default.retry.maxAttempts", String.valueOf(maxAttempts));
+        values.put("scraper.sites.default.rate.permitsPerSecond", "1000");
+        values.put("scraper.sites.default.rate.maxPermitsPerSecond", "1000");
+        values.put("scraper.sites.default.rate.burst", "100");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", values));
+        ScraperProperties properties = new ScraperProperties(environment);
+        return new HttpClientPageFetcher(properties, new RateLimiterRegistry(properties),
+                httpCache, new ResilienceRegistry(properties),
+                new PageArchive(false, Paths.get("unused")), UrlCanonicalizer.withoutSiteRules());
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
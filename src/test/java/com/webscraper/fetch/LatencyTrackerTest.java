@@ -0,0 +1,45 @@
+package com.webscraper.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyTrackerTest {
+
+    @Test
+    public void testNoPercentileUntilEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(10, 3);
+        tracker.record(100);
+        tracker.record(200);
+
+        assertEquals(-1, tracker.percentile(50));
+        tracker.record(300);
+        assertEquals(200, tracker.percentile(50));
+    }
+
+    @Test
+    public void testPercentilesOfWindow() {
+        LatencyTracker tracker = new LatencyTracker(100, 1);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+
+        assertEquals(50, tracker.percentile(50));
+        assertEquals(95, tracker.percentile(95));
+        assertEquals(100, tracker.percentile(100));
+    }
+
+    @Test
+    public void testOldSamplesLeaveTheWindow() {
+        LatencyTracker tracker = new LatencyTracker(4, 1);
+        for (int i = 0; i < 4; i++) {
+            tracker.record(5000);
+        }
+        for (int i = 0; i < 4; i++) {
+            tracker.record(10);
+        }
+
+        assertEquals(4, tracker.getSampleCount());
+        assertEquals(10, tracker.percentile(99));
+    }
+}
@@ -0,0 +1,83 @@
+package com.webscraper.fetch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PageArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecordedResponsesSurviveReopening() throws IOException {
+        try (PageArchive archive = new PageArchive(true, directory)) {
+            archive.record("Site", response("https://site.example/1", "<html>one</html>"));
+            archive.record("Site", response("https://site.example/2", "<html>two</html>"));
+        }
+
+        try (PageArchive archive = new PageArchive(false, directory)) {
+            List<PageArchive.Entry> entries = archive.entries();
+            assertEquals(2, entries.size());
+            assertEquals("Site", entries.get(0).getWebsiteName());
+
+            FetchResponse second = archive.read(entries.get(1));
+            assertEquals("https://site.example/2", second.getRequestUrl());
+            assertEquals(200, second.getStatusCode());
+            assertEquals("text/html; charset=UTF-8", second.getHeader("content-type").orElse(null));
+            assertArrayEquals("<html>two</html>".getBytes(StandardCharsets.UTF_8), second.getBody());
+        }
+    }
+
+    @Test
+    public void testLatestRecordOfUrlWins() throws IOException {
+        try (PageArchive archive = new PageArchive(true, directory)) {
+            archive.record("Site", response("https://site.example/1", "old"));
+            archive.record("Site", response("https://site.example/1", "new"));
+
+            List<PageArchive.Entry> entries = archive.entries();
+            assertEquals(1, entries.size());
+            assertEquals("new", new String(archive.read(entries.get(0)).getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testPartiallyWrittenRecordIsDroppedOnReopen() throws IOException {
+        try (PageArchive archive = new PageArchive(true, directory)) {
+            archive.record("Site", response("https://site.example/1", "kept"));
+            archive.record("Site", response("https://site.example/2", "lost"));
+        }
+        Path data = directory.resolve("pages.dat");
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(data) - 3);
+        }
+
+        try (PageArchive archive = new PageArchive(true, directory)) {
+            assertEquals(1, archive.entries().size());
+            archive.record("Site", response("https://site.example/3", "appended"));
+            List<PageArchive.Entry> entries = archive.entries();
+            assertEquals(Arrays.asList("https://site.example/1", "https://site.example/3"),
+                    Arrays.asList(entries.get(0).getUrl(), entries.get(1).getUrl()));
+            assertEquals("appended", new String(archive.read(entries.get(1)).getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static FetchResponse response(String url, String body) {
+        Map<String, List<String>> headers = Collections.singletonMap("Content-Type",
+                Collections.singletonList("text/html; charset=UTF-8"));
+        return new FetchResponse(url, url, 200, headers, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+package com.webscraper.fetch;
+
+import com.webscraper.config.ScraperProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResilienceRegistryTest {
+
+    @Test
+    public void testTransientFailureIsRetried() throws IOException {
+        ResilienceRegistry resilience = new ResilienceRegistry(properties(3, 5));
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = resilience.execute("Site", "https://site.example/1", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new FetchStatusException(503, "https://site.example/1");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, resilience.getRetries());
+    }
+
+    @Test
+    public void testPermanentFailureIsNotRetried() {
+        ResilienceRegistry resilience = new ResilienceRegistry(properties(3, 5));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(FetchStatusException.class, () -> resilience.execute("Site", "https://site.example/gone", () -> {
+            calls.incrementAndGet();
+            throw new FetchStatusException(404, "https://site.example/gone");
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testOpenCircuitFailsFastAndCountsSavedTime() {
+        ResilienceRegistry resilience = new ResilienceRegistry(properties(1, 2));
+        AtomicInteger calls = new AtomicInteger();
+        IOCallable<String> down = () -> {
+            calls.incrementAndGet();
+            sleep(50);
+            throw new ConnectException("Connection refused");
+        };
+
+        assertThrows(ConnectException.class, () -> resilience.execute("Site", "https://site.example/1", down));
+        assertThrows(ConnectException.class, () -> resilience.execute("Site", "https://site.example/2", down));
+        CircuitOpenException open = assertThrows(CircuitOpenException.class,
+                () -> resilience.execute("Site", "https://site.example/3", down));
+
+        assertEquals(2, calls.get());
+        assertTrue(open.getRetryAfterMillis() > 0);
+        assertEquals(1, resilience.getFastFailed());
+        assertTrue(resilience.getSavedMillis() >= 40);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testProbeThatThrowsUncheckedIsReleased() throws Exception {
+        ResilienceRegistry resilience = new ResilienceRegistry(properties(1, 1, 20));
+        assertThrows(ConnectException.class, () -> resilience.execute("Site", "https://site.example/1", () -> {
+            throw new ConnectException("Connection refused");
+        }));
+        sleep(30);
+
+        assertThrows(IllegalStateException.class, () -> resilience.execute("Site", "https://site.example/2", () -> {
+            throw new IllegalStateException("Parser bug");
+        }));
+
+        assertEquals("ok", resilience.execute("Site", "https://site.example/3", () -> "ok"));
+    }
+
+    private static ScraperProperties properties(int maxAttempts, int failureThreshold) {
+        return properties(maxAttempts, failureThreshold, 60000);
+    }
+
+    private static ScraperProperties properties(int maxAttempts, int failureThreshold, long openMillis) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("scraper.sites.default.retry.maxAttempts", String.valueOf(maxAttempts));
+        values.put("scraper.sites.default.retry.baseDelayMillis", "5");
+        values.put("scraper.sites.default.breaker.failureThreshold", String.valueOf(failureThreshold));
+        values.put("scraper.sites.default.breaker.openMillis", String.valueOf(openMillis));
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", values));
+        return new ScraperProperties(environment);
+    }
+}
@@ -0,0 +1,53 @@
+package com.webscraper.fetch;
+
+import com.webscraper.extract.SiteRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UrlCanonicalizerTest {
+
+    @Test
+    public void testGenericNormalization() {
+        UrlCanonicalizer canonicalizer = UrlCanonicalizer.withoutSiteRules();
+
+        assertEquals("https://example.com/a/b?page=2&q=x", canonicalizer.canonicalize("Site",
+                "HTTPS://Example.COM:443/a/./c/../b/?q=x&utm_source=news&page=2&gclid=123#top"));
+        assertEquals("http://example.com:8080/", canonicalizer.canonicalize("Site", "http://example.com:8080"));
+        assertEquals("a1", canonicalizer.canonicalize("Site", "a1"));
+        assertEquals("mailto:someone@example.com", canonicalizer.canonicalize("Site", "mailto:someone@example.com"));
+    }
+
+    @Test
+    public void testSiteRules() {
+        SiteRules.Canonical rules = new SiteRules.Canonical();
+        rules.host = "www.example.com";
+        rules.keepParams = Collections.singletonList("id");
+        SiteRules.Canonical keepSlash = new SiteRules.Canonical();
+        keepSlash.stripTrailingSlash = false;
+        keepSlash.dropParams = Arrays.asList("sessionid");
+        Map<String, SiteRules.Canonical> siteRules = Map.of("Site", rules, "Other", keepSlash);
+        UrlCanonicalizer canonicalizer = new UrlCanonicalizer(siteRules, 10);
+
+        assertEquals("https://www.example.com/item?id=7",
+                canonicalizer.canonicalize("Site", "https://example.com/item/?sort=price&id=7"));
+        assertEquals("https://other.com/list/?page=2",
+                canonicalizer.canonicalize("Other", "https://other.com/list/?sessionid=abc&page=2"));
+    }
+
+    @Test
+    public void testRedirectsAreFollowed() {
+        UrlCanonicalizer canonicalizer = new UrlCanonicalizer(Collections.emptyMap(), 2);
+        canonicalizer.recordRedirect("Site", "https://example.com/old", "https://example.com/new");
+        canonicalizer.recordRedirect("Site", "https://example.com/new?utm_medium=x", "https://example.com/newest/");
+        canonicalizer.recordRedirect("Site", "https://example.com/other", "https://example.com/elsewhere");
+
+        assertEquals("https://example.com/newest", canonicalizer.canonicalize("Site", "https://Example.com/old/"));
+        assertEquals("https://example.com/other", canonicalizer.canonicalize("Site", "https://example.com/other"));
+        assertEquals(1, canonicalizer.getRedirectHits());
+    }
+}
@@ -0,0 +1,55 @@
+package com.webscraper.metrics;
+
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScraperMetricsTest {
+
+    @Test
+    public void testStatusCountsAndFieldHitRates() {
+        ScraperMetrics metrics = new ScraperMetrics(false);
+        SiteMetrics site = metrics.site("Site");
+
+        site.recordPage(Arrays.asList(item("Active", "Tractor"), item("Active", null)), "Active");
+        site.recordPage(Collections.singletonList(item("Sold", null)), "Active");
+
+        assertEquals(2, site.getPages());
+        assertEquals(3, site.getItems());
+        assertEquals(2L, site.getStatusCounts().get("Active"));
+        assertEquals(1L, site.getStatusCounts().get("Sold"));
+        assertEquals(0.5, site.getFieldHitRates().get("model"), 0.001);
+        assertEquals(1.0, site.getFieldHitRates().get("city"), 0.001);
+    }
+
+    @Test
+    public void testSiteMetricsAreReadableOverJmx() throws Exception {
+        ScraperMetrics metrics = new ScraperMetrics(true);
+        metrics.site("JmxSite").recordPage(Collections.singletonList(item("Active", "Tractor")), "Active");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.webscraper:type=SiteMetrics,site=\"JmxSite\"");
+
+        assertEquals(1L, server.getAttribute(name, "Items"));
+        assertTrue(metrics.summary().contains("JmxSite: 1 pages (0 errors), 1 items"));
+
+        metrics.close();
+        assertFalse(server.isRegistered(name));
+    }
+
+    private static MachineryItem item(String status, String model) {
+        MachineryItem item = new MachineryItem();
+        item.setStatus(status);
+        item.setModel(model);
+        item.setCity("Uberlandia");
+        return item;
+    }
+}
@@ -0,0 +1,78 @@
+package com.webscraper.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CompactMachineryItemTest {
+
+    private final CompactMachineryItem.Dictionaries dictionaries = new CompactMachineryItem.Dictionaries();
+
+    @Test
+    public void testTypedFieldsAndRoundTrip() {
+        MachineryItem item = new MachineryItem("John Deere 7230J", "Sale", "John", "2018", "5200",
+                "Uberlândia, MG", "R$ 350.000,00", "https://cdn.example/7230j.jpg", "Agrofy", "Active");
+
+        CompactMachineryItem compact = CompactMachineryItem.from(item, dictionaries);
+
+        assertEquals(2018, compact.getYear());
+        assertEquals(5200, compact.getWorkedHours());
+        assertEquals(35_000_000L, compact.getPriceCents());
+        assertSame(ContractType.SALE, compact.getContractType());
+        assertSame(ListingStatus.ACTIVE, compact.getStatus());
+        assertEquals("Uberlândia, MG", compact.getCity());
+        assertEquals(item.toString(), compact.toMachineryItem().toString());
+    }
+
+    @Test
+    public void testMissingValues() {
+        MachineryItem item = new MachineryItem("Trator", null, null, null, "n/d", null, "Consulte",
+                null, "MercadoMaquinas", "Sold");
+
+        CompactMachineryItem compact = CompactMachineryItem.from(item, dictionaries);
+        MachineryItem view = compact.toMachineryItem();
+
+        assertEquals(CompactMachineryItem.NO_VALUE, compact.getWorkedHours());
+        assertEquals(CompactMachineryItem.NO_VALUE, compact.getPriceCents());
+        assertNull(view.getMake());
+        assertNull(view.getYear());
+        assertNull(view.getPrice());
+        assertEquals("Sold", view.getStatus());
+    }
+
+    @Test
+    public void testOverflowAndUnknownLabelsBecomeMissingValues() {
+        MachineryItem item = new MachineryItem("Trator", "Leilão", "Valtra", "2018 2019 2020", "99999999999 h",
+                "Sorriso, MT", "R$ 99999999999999999999,00", null, "Agrofy", "Reservado");
+
+        CompactMachineryItem compact = CompactMachineryItem.from(item, dictionaries);
+
+        assertEquals(CompactMachineryItem.NO_VALUE, compact.getYear());
+        assertEquals(CompactMachineryItem.NO_VALUE, compact.getWorkedHours());
+        assertEquals(CompactMachineryItem.NO_VALUE, compact.getPriceCents());
+        assertNull(compact.getContractType());
+        assertNull(compact.getStatus());
+        assertEquals(CompactMachineryItem.NO_VALUE, CompactMachineryItem.parseDigits("12345678901234567890"));
+    }
+
+    @Test
+    public void testPriceParsing() {
+        assertEquals(12_550L, CompactMachineryItem.parsePriceCents("125,5"));
+        assertEquals(35_000_000L, CompactMachineryItem.parsePriceCents("350.000"));
+        assertEquals(123_456_789L, CompactMachineryItem.parsePriceCents("1,234,567.89"));
+        assertEquals("R$ 1.234.567,89", CompactMachineryItem.formatPrice(123_456_789L));
+    }
+
+    @Test
+    public void testJsonViewMatchesMachineryItem() throws Exception {
+        MachineryItem item = new MachineryItem("Case Puma 215", "Rent", "CASE", "2020", "800", "Sorriso, MT",
+                "R$ 900.000,00", null, "TratoresEColheitadeiras", "Active");
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertEquals(objectMapper.writeValueAsString(item),
+                objectMapper.writeValueAsString(CompactMachineryItem.from(item, dictionaries)));
+    }
+}
@@ -0,0 +1,147 @@
+package com.webscraper.query;
+
+import com.webscraper.model.CompactMachineryItem;
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemStoreTest {
+
+    private static final String[] MAKES = {"John Deere", "Case", "New Holland", "Valtra"};
+    private static final String[] CITIES = {
+            "Uberlândia, MG", "Rio Verde - GO", "Sorriso/MT", "Chapecó (SC)", "Cascavel"};
+
+    private static List<MachineryItem> randomItems(int count, long seed) {
+        Random random = new Random(seed);
+        List<MachineryItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String make = MAKES[random.nextInt(MAKES.length)];
+            items.add(new MachineryItem(make + " " + i, random.nextBoolean() ? "Sale" : "Rent",
+                    random.nextInt(10) == 0 ? null : make.toUpperCase(),
+                    random.nextInt(10) == 0 ? null : String.valueOf(2010 + random.nextInt(15)),
+                    random.nextInt(10) == 0 ? "n/d" : random.nextInt(12000) + " h",
+                    CITIES[random.nextInt(CITIES.length)],
+                    random.nextInt(10) == 0 ? "Consulte" : "R$ " + (50_000 + random.nextInt(900_000)) + ",00",
+                    "https://img.example.com/" + i + ".jpg", random.nextBoolean() ? "Agrofy" : "MercadoMaquinas",
+                    random.nextInt(4) == 0 ? "Sold" : "Active"));
+        }
+        return items;
+    }
+
+    private static long year(MachineryItem item) {
+        return CompactMachineryItem.parseDigits(item.getYear());
+    }
+
+    private static long price(MachineryItem item) {
+        return CompactMachineryItem.parsePriceCents(item.getPrice());
+    }
+
+    private static List<String> models(List<MachineryItem> items) {
+        return items.stream().map(MachineryItem::getModel).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFiltersMatchFullScan() {
+        List<MachineryItem> items = randomItems(5000, 1);
+        ItemStore store = new ItemStore();
+        store.addAll(items);
+        ItemQuery query = ItemQuery.all()
+                .where(QueryField.MAKE, "john deere")
+                .where(QueryField.STATE, "mg")
+                .between(QueryField.YEAR, 2018, 2022)
+                .atMost(QueryField.WORKED_HOURS, 4999)
+                .atMost(QueryField.PRICE, 40_000_000L);
+        Predicate<MachineryItem> expected = item -> "JOHN DEERE".equals(item.getMake())
+                && item.getCity().endsWith("MG")
+                && year(item) >= 2018 && year(item) <= 2022
+                && CompactMachineryItem.parseDigits(item.getWorkedHours()) >= 0
+                && CompactMachineryItem.parseDigits(item.getWorkedHours()) <= 4999
+                && price(item) >= 0 && price(item) <= 40_000_000L;
+
+        List<MachineryItem> found = store.find(query);
+
+        List<MachineryItem> scanned = items.stream().filter(expected).collect(Collectors.toList());
+        assertTrue(scanned.size() > 0);
+        assertEquals(models(scanned), models(found));
+        assertEquals(scanned.size(), store.count(query));
+        assertEquals("JOHN DEERE", found.get(0).getMake());
+        assertEquals(0, store.count(ItemQuery.all().where(QueryField.MAKE, "Massey Ferguson")));
+        assertEquals(0, store.count(ItemQuery.all().between(QueryField.YEAR, 2020, 2019)));
+    }
+
+    @Test
+    public void testOrderAndLimitMatchFullScan() {
+        List<MachineryItem> items = randomItems(5000, 2);
+        ItemStore store = new ItemStore();
+        store.addAll(items);
+        Comparator<MachineryItem> byPrice = Comparator.comparingLong(ItemStoreTest::price);
+
+        // Selective filter: matches are collected and sorted.
+        ItemQuery selective = ItemQuery.all().where(QueryField.MAKE, "Valtra").where(QueryField.STATE, "GO")
+                .where(QueryField.STATUS, "sold").orderBy(QueryField.PRICE, true).limit(50);
+        List<MachineryItem> expected = items.stream()
+                .filter(item -> "VALTRA".equals(item.getMake()) && item.getCity().endsWith("GO")
+                        && "Sold".equals(item.getStatus()))
+                .sorted(byPrice.reversed()).limit(50).collect(Collectors.toList());
+        assertEquals(Arrays.toString(expected.stream().mapToLong(ItemStoreTest::price).toArray()),
+                Arrays.toString(store.find(selective).stream().mapToLong(ItemStoreTest::price).toArray()));
+
+        // Broad filter, small limit: the price index is walked.
+        ItemQuery cheapest = ItemQuery.all().where(QueryField.STATUS, "Active").atLeast(QueryField.PRICE, 0)
+                .orderBy(QueryField.PRICE, false).limit(10);
+        expected = items.stream().filter(item -> "Active".equals(item.getStatus()) && price(item) >= 0)
+                .sorted(byPrice).limit(10).collect(Collectors.toList());
+        assertEquals(models(expected), models(store.find(cheapest)));
+    }
+
+    @Test
+    public void testAggregatesAndIncrementalAdds() {
+        List<MachineryItem> items = randomItems(3000, 3);
+        ItemStore store = new ItemStore();
+        store.addAll(items.subList(0, 1000));
+        assertEquals(1000, store.count(ItemQuery.all()));
+
+        for (MachineryItem item : items.subList(1000, items.size())) {
+            store.add(item);
+        }
+        ItemQuery recent = ItemQuery.all().atLeast(QueryField.YEAR, 2020);
+
+        LongSummaryStatistics prices = store.summarize(recent, QueryField.PRICE);
+        LongSummaryStatistics expected = items.stream().filter(item -> year(item) >= 2020)
+                .mapToLong(ItemStoreTest::price).filter(price -> price >= 0).summaryStatistics();
+        assertEquals(expected.toString(), prices.toString());
+
+        Map<String, Integer> bySite = store.countBy(recent, QueryField.SOURCE_WEBSITE);
+        Map<String, Long> expectedBySite = items.stream().filter(item -> year(item) >= 2020)
+                .collect(Collectors.groupingBy(MachineryItem::getSourceWebsite, Collectors.counting()));
+        assertEquals(expectedBySite.size(), bySite.size());
+        bySite.forEach((site, count) -> assertEquals(expectedBySite.get(site).intValue(), count));
+        int previous = Integer.MAX_VALUE;
+        for (int count : store.countBy(ItemQuery.all(), QueryField.STATE).values()) {
+            assertTrue(count <= previous);
+            previous = count;
+        }
+    }
+
+    @Test
+    public void testStateFromCity() {
+        assertEquals("MG", ItemStore.state("Uberlândia, MG"));
+        assertEquals("GO", ItemStore.state("Rio Verde - go"));
+        assertEquals("SC", ItemStore.state("Chapecó (SC)"));
+        assertNull(ItemStore.state("Cascavel"));
+        assertNull(ItemStore.state(null));
+    }
+}
@@ -0,0 +1,132 @@
+package com.webscraper.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.crawl.DiscoveryCrawler;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.fetch.HttpCache;
+import com.webscraper.fetch.HttpClientPageFetcher;
+import com.webscraper.fetch.PageArchive;
+import com.webscraper.fetch.RateLimiterRegistry;
+import com.webscraper.fetch.ResilienceRegistry;
+import com.webscraper.fetch.UrlCanonicalizer;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.model.MachineryItem;
+import com.webscraper.service.impl.RuleBasedScraperService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ArchiveReplayerTest {
+
+    private static final String URL = "https://www.mercadomaquinas.com.br/anuncio/";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testArchivedPagesAreReExtractedInOrder() throws IOException {
+        try (PageArchive archive = new PageArchive(true, directory)) {
+            for (int i = 0; i < 100; i++) {
+                archive.record("MercadoMaquinas", page(URL + i + "-trator-valtra-bh-" + i,
+                        "<h1 class=\"ad-title\">Trator Valtra BH" + i + " 2015</h1>"
+                                + "<div class=\"ad-price\">R$ " + i + ".000,00</div>"));
+            }
+            archive.record("RemovedSite", page("https://removed.example/1", "<h1>Gone</h1>"));
+
+            ScraperMetrics metrics = new ScraperMetrics(false);
+            ArchiveReplayer replayer = new ArchiveReplayer(archive, new ExtractionRuleRegistry(), metrics,
+                    properties());
+            List<MachineryItem> items = replayer.replay();
+
+            assertEquals(100, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals("BH" + i, items.get(i).getModel());
+                assertEquals("R$ " + i + ".000,00", items.get(i).getPrice());
+            }
+            assertEquals(100, metrics.site("MercadoMaquinas").getPages());
+        }
+    }
+
+    @Test
+    public void testDiscoveryResultPagesAreNotReplayed() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/comprar", exchange -> respond(exchange,
+                "<a href='/anuncio/1-trator-valtra-bh180-2015-carlopolis-pr'>1</a>"
+                        + "<a href='/anuncio/2-trator-valtra-bh190-2016-carlopolis-pr'>2</a>"));
+        server.createContext("/anuncio/", exchange -> {
+            String id = exchange.getRequestURI().getPath().contains("bh180") ? "180" : "190";
+            respond(exchange, "<h1 class=\"ad-title\">Trator Valtra BH" + id + " 2015</h1>");
+        });
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        ScraperProperties properties = properties();
+        ExtractionRuleRegistry rules = new ExtractionRuleRegistry();
+        rules.findDiscovery("MercadoMaquinas").get().startUrls = Collections.singletonList(baseUrl + "/comprar");
+        try (PageArchive archive = new PageArchive(true, directory);
+             HttpClientPageFetcher fetcher = new HttpClientPageFetcher(properties, new RateLimiterRegistry(properties),
+                     new HttpCache(false, directory.resolve("cache"), 0), new ResilienceRegistry(properties),
+                     archive, UrlCanonicalizer.withoutSiteRules())) {
+            List<String> urls = new ArrayList<>();
+            new DiscoveryCrawler(rules, fetcher, properties).discover("MercadoMaquinas", urls::add);
+            ScraperMetrics metrics = new ScraperMetrics(false);
+            new RuleBasedScraperService("MercadoMaquinas", rules, fetcher,
+                    new CrawlStateStore(false, directory.resolve("state")), properties, metrics).scrapeBatch(urls);
+
+            List<MachineryItem> items = new ArchiveReplayer(archive, rules, metrics, properties).replay();
+
+            assertEquals(2, urls.size());
+            assertEquals(Arrays.asList("BH180", "BH190"),
+                    items.stream().map(MachineryItem::getModel).collect(Collectors.toList()));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] bytes = ("<html><body>" + content + "</body></html>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static FetchResponse page(String url, String content) {
+        Map<String, List<String>> headers = Collections.singletonMap("Content-Type",
+                Collections.singletonList("text/html; charset=UTF-8"));
+        byte[] body = ("<html><body>" + content + "</body></html>").getBytes(StandardCharsets.UTF_8);
+        return new FetchResponse(url, url, 200, headers, body);
+    }
+
+    private static ScraperProperties properties() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("scraper.archive.replayParallelism", "4");
+        values.put("scraper.archive.replayBatchSize", "8");
+        values.put("scraper.sites.default.http.version", "HTTP_1_1");
+        values.put("scraper.sites.default.rate.permitsPerSecond", "1000");
+        values.put("scraper.sites.default.rate.burst", "100");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", values));
+        return new ScraperProperties(environment);
+    }
+}
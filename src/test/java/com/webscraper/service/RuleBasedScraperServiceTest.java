@@ -0,0 +1,52 @@
+package com.webscraper.service;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.crawl.CrawlStateStore;
+import com.webscraper.extract.ExtractionRuleRegistry;
+import com.webscraper.fetch.CircuitOpenException;
+import com.webscraper.fetch.FetchResponse;
+import com.webscraper.metrics.ScraperMetrics;
+import com.webscraper.service.impl.RuleBasedScraperService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RuleBasedScraperServiceTest {
+
+    private static final String BASE = "https://www.agrofy.com.br/trator-";
+
+    @Test
+    public void testBatchDefersTheRestOnceTheCircuitOpens() throws Exception {
+        List<String> fetched = Collections.synchronizedList(new ArrayList<>());
+        RuleBasedScraperService scraper = new RuleBasedScraperService("Agrofy", new ExtractionRuleRegistry(),
+                (website, url) -> {
+                    fetched.add(url);
+                    if (url.endsWith("2.html")) {
+                        throw new CircuitOpenException(website, 500);
+                    }
+                    byte[] body = "<html><body><h1>Trator</h1></body></html>".getBytes(StandardCharsets.UTF_8);
+                    return new FetchResponse(url, url, 200, Collections.emptyMap(), body);
+                },
+                new CrawlStateStore(false, Paths.get("unused")), new ScraperProperties(new StandardEnvironment()),
+                new ScraperMetrics(false));
+
+        BatchResult result = scraper.scrapeBatch(Arrays.asList(BASE + "1.html", BASE + "2.html", BASE + "3.html"));
+
+        assertEquals(Arrays.asList(BASE + "1.html", BASE + "2.html"), fetched);
+        assertEquals(1, result.getItems(BASE + "1.html").size());
+        assertNull(result.getItems(BASE + "2.html"));
+        assertNotNull(result.getDeferral(BASE + "2.html"));
+        assertEquals(500, result.getDeferral(BASE + "3.html").getRetryAfterMillis());
+        assertEquals("Error", result.getDeferral(BASE + "3.html").getFallbackItems().get(0).getStatus());
+    }
+}
@@ -0,0 +1,368 @@
+package com.webscraper.service;
+
+import com.webscraper.config.ScraperProperties;
+import com.webscraper.fetch.UrlCanonicalizer;
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScraperManagerTest {
+
+    @Test
+    public void testConcurrentScrapePreservesInputOrder() {
+        StubScraper first = new StubScraper("First", 20);
+        StubScraper second = new StubScraper("Second", 1);
+        ScraperManager manager = new ScraperManager(Arrays.asList(first, second), properties("4", "2", "PRESERVED"));
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(urls());
+
+        List<String> models = items.stream().map(MachineryItem::getModel).collect(Collectors.toList());
+        assertEquals(Arrays.asList("a1", "a2", "a3", "b1", "b2"), models);
+    }
+
+    @Test
+    public void testConcurrentScrapeRespectsPerSiteLimit() {
+        StubScraper first = new StubScraper("First", 20);
+        StubScraper second = new StubScraper("Second", 20);
+        ScraperManager manager = new ScraperManager(Arrays.asList(first, second), properties("8", "2", "COMPLETION"));
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(urls());
+
+        assertEquals(5, items.size());
+        assertTrue(first.maxInFlight.get() <= 2);
+        assertTrue(second.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testSequentialModeWhenGlobalConcurrencyIsOne() {
+        StubScraper first = new StubScraper("First", 0);
+        StubScraper second = new StubScraper("Second", 0);
+        ScraperManager manager = new ScraperManager(Arrays.asList(first, second), properties("1", "4", "COMPLETION"));
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(urls());
+
+        assertEquals(5, items.size());
+        assertEquals(1, first.maxInFlight.get());
+    }
+
+    @Test
+    public void testDeferredPageIsRetriedAfterOtherPages() {
+        StubScraper first = new StubScraper("First", 0);
+        first.deferOnce = "a1";
+        StubScraper second = new StubScraper("Second", 0);
+        ScraperManager manager = new ScraperManager(Arrays.asList(first, second), properties("4", "1", "PRESERVED"));
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(urls());
+
+        List<String> models = items.stream().map(MachineryItem::getModel).collect(Collectors.toList());
+        assertEquals(Arrays.asList("a1", "a2", "a3", "b1", "b2"), models);
+        assertEquals(Arrays.asList("a1", "a2", "a3", "a1"), first.scraped);
+    }
+
+    @Test
+    public void testDuplicateCanonicalUrlsAreScrapedOnce() {
+        StubScraper first = new StubScraper("First", 20);
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties("4", "4", "PRESERVED"),
+                UrlCanonicalizer.withoutSiteRules());
+        Map<String, List<String>> urlsMap = new HashMap<>();
+        urlsMap.put("First", Arrays.asList("https://Example.com/item/1?utm_source=x", "https://example.com/item/1/",
+                "https://example.com:443/item/1#photos", "https://example.com/item/2"));
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(urlsMap);
+
+        List<String> models = items.stream().map(MachineryItem::getModel).collect(Collectors.toList());
+        assertEquals(Arrays.asList("https://example.com/item/1", "https://example.com/item/2"), models);
+        assertEquals(2, first.scraped.size());
+        assertEquals(2, manager.getSavedRequests());
+    }
+
+    @Test
+    public void testRedirectAliasIsNotScrapedTwice() {
+        UrlCanonicalizer canonicalizer = UrlCanonicalizer.withoutSiteRules();
+        StubScraper first = new StubScraper("First", 0) {
+            @Override
+            public List<MachineryItem> scrapePage(String url) {
+                canonicalizer.recordRedirect("First", url, "https://example.com/item/1");
+                return super.scrapePage(url);
+            }
+        };
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties("1", "1", "PRESERVED"),
+                canonicalizer);
+        Map<String, List<String>> urlsMap = new HashMap<>();
+        urlsMap.put("First", Arrays.asList("https://example.com/item/1", "https://example.com/old/1",
+                "https://example.com/old/1"));
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(urlsMap);
+
+        assertEquals(1, items.size());
+        assertEquals(Arrays.asList("https://example.com/item/1", "https://example.com/old/1"), first.scraped);
+        assertEquals(2, manager.getSavedRequests());
+    }
+
+    @Test
+    public void testPublisherHoldsScrapersBackUntilItemsAreRequested() throws Exception {
+        StubScraper first = new StubScraper("First", 0);
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties("1", "1", "COMPLETION"));
+        List<MachineryItem> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+
+        manager.publishAllWebsites(manyUrls(50), PageResultListener.NONE).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(MachineryItem item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        Thread.sleep(300);
+        assertEquals(1, received.size());
+        assertTrue(first.scraped.size() <= 5, "scraped " + first.scraped.size() + " pages ahead of demand");
+
+        subscription.get().request(Long.MAX_VALUE);
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(50, received.size());
+    }
+
+    @Test
+    public void testCancellingTheSubscriptionStopsScraping() throws Exception {
+        StubScraper first = new StubScraper("First", 5);
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties("2", "2", "COMPLETION"));
+        CountDownLatch firstItem = new CountDownLatch(1);
+
+        manager.publishAllWebsites(manyUrls(200), PageResultListener.NONE).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription = s;
+                s.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(MachineryItem item) {
+                subscription.cancel();
+                firstItem.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertTrue(firstItem.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        int scraped = first.scraped.size();
+        Thread.sleep(200);
+        assertEquals(scraped, first.scraped.size());
+        assertTrue(scraped < 200);
+    }
+
+    @Test
+    public void testConcurrentSubscribersEachReceiveEveryItem() throws Exception {
+        StubScraper first = new StubScraper("First", 2);
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties("2", "2", "COMPLETION"));
+        Flow.Publisher<MachineryItem> publisher = manager.publishAllWebsites(manyUrls(40), PageResultListener.NONE);
+        CountDownLatch completed = new CountDownLatch(2);
+        List<List<String>> received = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            List<String> urls = Collections.synchronizedList(new ArrayList<>());
+            received.add(urls);
+            publisher.subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(MachineryItem item) {
+                    urls.add(item.getModel());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    completed.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.countDown();
+                }
+            });
+        }
+
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        for (List<String> urls : received) {
+            assertEquals(new HashSet<>(manyUrls(40).get("First")), new HashSet<>(urls));
+            assertEquals(40, urls.size());
+        }
+        assertEquals(80, first.scraped.size());
+    }
+
+    @Test
+    public void testUrlsAreDispatchedInBatches() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        StubScraper first = new StubScraper("First", 0) {
+            @Override
+            public BatchResult scrapeBatch(Collection<String> urls) {
+                batchSizes.add(urls.size());
+                return super.scrapeBatch(urls);
+            }
+        };
+        ScraperProperties properties = properties("4", "1", "PRESERVED", "scraper.sites.First.batchSize", "4");
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties);
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(manyUrls(10));
+
+        assertEquals(10, items.size());
+        assertEquals("a9", items.get(9).getModel());
+        assertEquals(Arrays.asList(4, 4, 2), batchSizes);
+    }
+
+    @Test
+    public void testBatchesShrinkSoEveryWorkerGetsPages() {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        StubScraper first = new StubScraper("First", 20) {
+            @Override
+            public BatchResult scrapeBatch(Collection<String> urls) {
+                batchSizes.add(urls.size());
+                return super.scrapeBatch(urls);
+            }
+        };
+        ScraperProperties properties = properties("4", "4", "PRESERVED", "scraper.sites.default.batchSize", "16");
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties);
+
+        assertEquals(8, manager.scrapeAllWebsites(manyUrls(8)).size());
+        assertEquals(Arrays.asList(2, 2, 2, 2), batchSizes);
+        assertTrue(first.maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void testPageWithoutResultIsGivenUpAsError() {
+        StubScraper first = new StubScraper("First", 0) {
+            @Override
+            public BatchResult scrapeBatch(Collection<String> urls) {
+                return new BatchResult();
+            }
+        };
+        ScraperProperties properties = properties("1", "1", "PRESERVED", "scraper.concurrency.maxDeferrals", "1");
+        ScraperManager manager = new ScraperManager(Collections.singletonList(first), properties);
+        List<List<MachineryItem>> logged = Collections.synchronizedList(new ArrayList<>());
+
+        List<MachineryItem> items = manager.scrapeAllWebsites(manyUrls(1), (website, url, pageItems) ->
+                logged.add(pageItems));
+
+        assertEquals(1, items.size());
+        assertEquals("Error", items.get(0).getStatus());
+        assertEquals("First", items.get(0).getSourceWebsite());
+        assertEquals(Collections.singletonList(items), logged);
+    }
+
+    private Map<String, List<String>> manyUrls(int count) {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            urls.add("a" + i);
+        }
+        return Collections.singletonMap("First", urls);
+    }
+
+    private Map<String, List<String>> urls() {
+        Map<String, List<String>> urlsMap = new HashMap<>();
+        urlsMap.put("First", Arrays.asList("a1", "a2", "a3"));
+        urlsMap.put("Second", Arrays.asList("b1", "b2"));
+        return urlsMap;
+    }
+
+    private ScraperProperties properties(String global, String perSite, String order, String... extra) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i + 1 < extra.length; i += 2) {
+            values.put(extra[i], extra[i + 1]);
+        }
+        values.put("scraper.concurrency.global", global);
+        values.put("scraper.concurrency.perSite", perSite);
+        values.put("scraper.concurrency.resultOrder", order);
+        values.put("scraper.stream.bufferSize", "2");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", values));
+        return new ScraperProperties(environment);
+    }
+
+    private static class StubScraper implements WebScraperService {
+        private final String websiteName;
+        private final long delayMillis;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final List<String> scraped = Collections.synchronizedList(new ArrayList<>());
+        private volatile String deferOnce;
+
+        StubScraper(String websiteName, long delayMillis) {
+            this.websiteName = websiteName;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public List<MachineryItem> scrapePage(String url) {
+            scraped.add(url);
+            if (url.equals(deferOnce)) {
+                deferOnce = null;
+                throw new PageDeferredException(url, 10, Collections.emptyList());
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            MachineryItem item = new MachineryItem();
+            item.setModel(url);
+            item.setSourceWebsite(websiteName);
+            return Collections.singletonList(item);
+        }
+
+        @Override
+        public String getWebsiteName() {
+            return websiteName;
+        }
+    }
+}
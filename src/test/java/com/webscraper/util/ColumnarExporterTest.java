@@ -0,0 +1,155 @@
+package com.webscraper.util;
+
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarExporterTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    public void testRoundTripKeepsEveryFieldAsWritten() throws IOException {
+        List<MachineryItem> items = Arrays.asList(
+                new MachineryItem("7230J", "Sale", "John Deere", "2018", "5.200 h", "Uberlândia, MG",
+                        "R$ 350.000,00", "https://img.example.com/1.jpg", "Agrofy", "Active"),
+                new MachineryItem("Puma 215", "Rent", "Case", "Ano 2021", "0050", "Rio Verde - GO",
+                        "350000", null, "MercadoMaquinas", "Sold"),
+                new MachineryItem(null, null, null, "n/d", null, null, "Consulte", "", null, null),
+                new MachineryItem("T7 #1", "Sale", "New Holland", "99999999999999999999", "1.234,5 h", "Sorriso/MT",
+                        "350000.5", "https://img.example.com/ç.jpg", "Agrofy", "Active"));
+        Path file = outputDir.resolve("items.mcol");
+
+        assertTrue(new ColumnarExporter(3).export(items, file.toString()));
+
+        try (ColumnarReader reader = ColumnarReader.open(file)) {
+            assertEquals(4, reader.getRowCount());
+            assertEquals(2, reader.getRowGroupCount());
+            assertEquals(Arrays.asList("Agrofy", "MercadoMaquinas"), reader.dictionary(ColumnarColumn.SOURCE_WEBSITE));
+            assertEquals(fields(items), fields(reader.readAll()));
+        }
+    }
+
+    @Test
+    public void testFiltersSkipRowGroupsAndMatchFullScan() throws IOException {
+        Random random = new Random(7);
+        String[] makes = {"John Deere", "Case", "Valtra"};
+        List<MachineryItem> items = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // Items arrive grouped by website and roughly by year, as they do when sites are scraped in turn.
+            items.add(new MachineryItem("Model " + i, "Sale", makes[random.nextInt(makes.length)],
+                    random.nextInt(20) == 0 ? null : String.valueOf(2000 + i / 150),
+                    random.nextInt(12000) + " h", "Cascavel, PR", "R$ " + (50_000 + random.nextInt(900_000)) + ",00",
+                    null, i < 2000 ? "Agrofy" : "MercadoMaquinas", "Active"));
+        }
+        Path file = outputDir.resolve("items.mcol");
+        try (ColumnarExporter.ColumnarExportSink sink = new ColumnarExporter(500).openSink(file.toString())) {
+            for (MachineryItem item : items) {
+                sink.accept(item);
+            }
+            assertEquals(3000, sink.getRowCount());
+        }
+
+        try (ColumnarReader reader = ColumnarReader.open(file)) {
+            ColumnarFilter filter = ColumnarFilter.all()
+                    .where(ColumnarColumn.SOURCE_WEBSITE, "mercadomaquinas")
+                    .where(ColumnarColumn.MAKE, "case")
+                    .between(ColumnarColumn.YEAR, 2014, 2015);
+            assertEquals(1, reader.matchingRowGroups(filter));
+
+            List<MachineryItem> found = new ArrayList<>();
+            long matched = reader.scan(filter, new ListSink(found));
+
+            List<MachineryItem> expected = items.stream()
+                    .filter(item -> "MercadoMaquinas".equals(item.getSourceWebsite()) && "Case".equals(item.getMake())
+                            && item.getYear() != null && Integer.parseInt(item.getYear()) >= 2014
+                            && Integer.parseInt(item.getYear()) <= 2015)
+                    .collect(Collectors.toList());
+            assertTrue(expected.size() > 0);
+            assertEquals(expected.size(), matched);
+            assertEquals(fields(expected), fields(found));
+            assertEquals(0, reader.matchingRowGroups(ColumnarFilter.all().where(ColumnarColumn.MAKE, "Stara")));
+
+            LongSummaryStatistics prices = reader.summarize(
+                    ColumnarFilter.all().atLeast(ColumnarColumn.YEAR, 2010), ColumnarColumn.PRICE);
+            LongSummaryStatistics expectedPrices = items.stream()
+                    .filter(item -> item.getYear() != null && Integer.parseInt(item.getYear()) >= 2010)
+                    .mapToLong(item -> Long.parseLong(item.getPrice().replaceAll("\\D", "")))
+                    .summaryStatistics();
+            assertEquals(expectedPrices.toString(), prices.toString());
+        }
+    }
+
+    @Test
+    public void testPackedValuesRoundTripAtEveryWidth() {
+        Random random = new Random(3);
+        for (int width = 0; width <= 64; width++) {
+            long[] values = new long[37];
+            for (int i = 0; i < values.length; i++) {
+                long bits = width == 64 ? random.nextLong() : random.nextLong() & ((1L << width) - 1);
+                values[i] = width == 64 ? bits : bits - 1;
+            }
+            ColumnarEncoding.Buffer out = new ColumnarEncoding.Buffer();
+            ColumnarEncoding.writePacked(out, values, values.length);
+            out.write(42);
+
+            ByteBuffer in = ByteBuffer.wrap(out.array(), 0, out.size()).order(ByteOrder.LITTLE_ENDIAN);
+            long[] read = new long[values.length];
+            ColumnarEncoding.readPacked(in, read, read.length);
+
+            assertArrayEquals(values, read, "width " + width);
+            assertEquals(42, in.get());
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = outputDir.resolve("items.json");
+        Files.write(file, "[{\"model\": \"7230J\"}]".getBytes());
+
+        assertThrows(IOException.class, () -> ColumnarReader.open(file));
+    }
+
+    private static List<List<String>> fields(List<MachineryItem> items) {
+        return items.stream()
+                .map(item -> Arrays.asList(item.getModel(), item.getContractType(), item.getMake(), item.getYear(),
+                        item.getWorkedHours(), item.getCity(), item.getPrice(), item.getPhotoUrl(),
+                        item.getSourceWebsite(), item.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    private static class ListSink implements ItemSink {
+        private final List<MachineryItem> items;
+
+        ListSink(List<MachineryItem> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void accept(MachineryItem item) {
+            items.add(item);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.webscraper.util;
+
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DataExporterTest {
+
+    @TempDir
+    Path outputDir;
+
+    private final DataExporter exporter = new DataExporter();
+
+    @Test
+    public void testEscapesFieldsInOnePass() {
+        StringBuilder row = new StringBuilder("x,");
+
+        DataExporter.appendField(row, "Trator \"7230J\", 2018");
+
+        assertEquals("x,\"Trator \"\"7230J\"\", 2018\"", row.toString());
+    }
+
+    @Test
+    public void testExportWritesHeaderAndRows() throws IOException {
+        Path file = outputDir.resolve("items.csv");
+
+        assertTrue(exporter.exportToCsv(items(), file.toString()));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("Model,Contract Type,Make,Year,Worked Hours,City,Price,Photo URL,Source Website", lines.get(0));
+        assertEquals("7230J,Sale,John Deere,2018,,\"Uberlandia, MG\",\"R$ 350.000,00\",,Agrofy", lines.get(1));
+    }
+
+    @Test
+    public void testGzipExportReportsCompressedBytes() throws IOException {
+        Path file = outputDir.resolve("items.csv.gz");
+
+        DataExporter.CsvExportSink sink = exporter.openSink(file.toString());
+        sink.accept(items().get(0));
+        sink.close();
+
+        assertEquals(1, sink.getRowCount());
+        assertEquals(Files.size(file), sink.getBytesWritten());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.endsWith("Agrofy\n"));
+        }
+    }
+
+    private List<MachineryItem> items() {
+        return Collections.singletonList(new MachineryItem("7230J", "Sale", "John Deere", "2018", null,
+                "Uberlandia, MG", "R$ 350.000,00", null, "Agrofy", "Active"));
+    }
+}
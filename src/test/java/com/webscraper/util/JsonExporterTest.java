@@ -0,0 +1,67 @@
+package com.webscraper.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.model.MachineryItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonExporterTest {
+
+    @TempDir
+    Path outputDir;
+
+    private final JsonExporter exporter = new JsonExporter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testExportWritesFlatAndGroupedFiles() throws IOException {
+        Path file = outputDir.resolve("items.json");
+
+        assertTrue(exporter.exportToJson(items(), file.toString()));
+
+        JsonNode flat = objectMapper.readTree(file.toFile());
+        assertEquals(3, flat.size());
+        assertEquals("7230J", flat.get(0).get("model").asText());
+
+        JsonNode grouped = objectMapper.readTree(outputDir.resolve("items_grouped.json").toFile());
+        assertEquals(3, grouped.get("totalItems").asInt());
+        assertEquals(2, grouped.get("websites").get("Agrofy").size());
+        assertEquals(1, grouped.get("websites").get("MercadoMaquinas").size());
+        try (Stream<Path> files = Files.list(outputDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testNdjsonExportWritesOneItemPerLine() throws IOException {
+        Path file = outputDir.resolve("items.ndjson");
+
+        assertTrue(exporter.export(items(), file.toString(), JsonExportFormat.NDJSON));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertEquals("Puma 215", objectMapper.readTree(lines.get(1)).get("model").asText());
+        assertEquals(2, Files.readAllLines(outputDir.resolve("items_Agrofy.ndjson")).size());
+        assertEquals(1, Files.readAllLines(outputDir.resolve("items_MercadoMaquinas.ndjson")).size());
+    }
+
+    private List<MachineryItem> items() {
+        return Arrays.asList(
+                new MachineryItem("7230J", "Sale", "John Deere", "2018", "5000", "Uberlandia, MG",
+                        "R$ 350.000,00", null, "Agrofy", "Active"),
+                new MachineryItem("Puma 215", "Sale", "Case", "2020", null, null, null, null, "Agrofy", "Active"),
+                new MachineryItem("416E", "Sale", "Caterpillar", "2015", null, "Carlopolis, PR", null, null,
+                        "MercadoMaquinas", "Sold"));
+    }
+}